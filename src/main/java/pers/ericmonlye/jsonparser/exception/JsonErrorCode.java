@@ -0,0 +1,109 @@
+package pers.ericmonlye.jsonparser.exception;
+
+import java.lang.String;
+
+/**
+ * {@code JsonErrorCode} tells precisely why a JSON context is rejected, 
+ * in a form that can be checked by programs. Each code belongs to a 
+ * single subclass of {@code JsonParserException}, built by 
+ * {@code newException()}. 
+ * 
+ * {@code UNKNOWN} is the code of exceptions built without one. 
+ */
+public enum JsonErrorCode {
+	UNKNOWN(0, ""),
+	
+	/* ExpectValueException */
+	EMPTY_INPUT(1, "Empty input. "),
+	WHITESPACE_ONLY(2, "The input context contains only whitespace. "),
+	
+	/* InvalidValueException */
+	INVALID_VALUE(10, "Invalid JSON context. "),
+	INVALID_LITERAL(11, "Misspelled literal. "),
+	NUMBER_TOO_LARGE(12, "The absolute value is too large. "),
+	ILLEGAL_CHARACTER(13, "Illegal character detected. "
+					+ "\\u0000 - \\u001F, the backslash and quotation mark "
+					+ "should be entered as escape char."),
+	UNKNOWN_ESCAPE(14, "Unknown escape character. "),
+	INVALID_CODEPOINT(15, "Invalid Unicode codepoint. "),
+	MISSING_LOW_SURROGATE(16, "Missing low surrogate. "),
+	INVALID_LOW_SURROGATE(17, "Low surrogate should be in range 0xDC00 - 0xDFFF. "),
+	INVALID_ENCODING(18, "Invalid UTF-8 byte sequence. "),
+	ARRAY_ENDING_COMMA(20, "JSON dose not allow ending commas. "),
+	ARRAY_MISSING_COMMA(21, "Missing comma. "),
+	ARRAY_MISSING_ELEMENT(22, "Missing array element. "),
+	OBJECT_ENDING_COMMA(30, "JSON dose not allow ending commas. "),
+	OBJECT_MISSING_COMMA(31, "Missing comma. "),
+	KEY_NOT_STRING(32, "Object key must be a string surrounded by quotation marks. "),
+	DUPLICATE_KEY(33, "Duplicate key items found. "),
+	KEY_WITHOUT_COLON(34, "A key requires a corresponding value seqarated by colon. "),
+	KEY_WITHOUT_VALUE(35, "A key requires a corresponding value. "),
+	
+	/* RootNotSingularException */
+	ROOT_NOT_SINGULAR(40, "Extra context detected after the first valid JSON. "),
+	
+	/* IncompleteItemException */
+	INCOMPLETE_LITERAL(50, "The literal item is incomplete. "),
+	INCOMPLETE_NUMBER(51, "Incomplete number. "),
+	INCOMPLETE_ESCAPE(52, "Incomplete escape character. "),
+	
+	/* MissingDelimiterException */
+	MISSING_WHITESPACE(60, "Context not in JSON format. "
+					+ "Separate by whitespaces if more than 1 item is entered. "),
+	MISSING_COLON(61, "Missing colon. "),
+	
+	/* MissingEndTagException */
+	MISSING_BRACKET(70, "Missing ending bracket. "),
+	MISSING_BRACE(71, "Missing ending brace. "),
+	MISSING_QUOTATION_MARK(72, "Missing closing quotation mark. "),
+	
+	/* MaxDepthExceededException */
+	MAX_DEPTH_EXCEEDED(80, "Arrays and objects nested too deep. ");
+	
+	public final int codeValue;
+	public final String codeMessage; /* the default message */
+	
+	private JsonErrorCode(int codeValue, String codeMessage) {
+		this.codeValue = codeValue;
+		this.codeMessage = codeMessage;
+	}
+	
+	/**
+	 * {@code newException()} builds the exception of this code, without 
+	 * its location. Without a writable stack trace, building the 
+	 * exception costs little more than an allocation. 
+	 * 
+	 * @param message
+	 * @param isStackTraceWritable
+	 * @return JsonParserException
+	 */
+	public JsonParserException newException(String message, boolean isStackTraceWritable) {
+		return newException(message, null, isStackTraceWritable);
+	}
+	public JsonParserException newException(String message, Throwable cause, boolean isStackTraceWritable) {
+		JsonParserException exception = switch (this) {
+		case UNKNOWN -> new JsonParserException(message, cause, true, isStackTraceWritable);
+		case EMPTY_INPUT, WHITESPACE_ONLY -> new ExpectValueException(message, cause, true, isStackTraceWritable);
+		case INVALID_VALUE -> new InvalidValueException(message, cause, true, isStackTraceWritable);
+		case INVALID_LITERAL -> new InvalidLiteralException(message, cause, true, isStackTraceWritable);
+		case NUMBER_TOO_LARGE -> new InvalidNumberException(message, cause, true, isStackTraceWritable);
+		case ILLEGAL_CHARACTER, UNKNOWN_ESCAPE, INVALID_CODEPOINT, MISSING_LOW_SURROGATE, 
+				INVALID_LOW_SURROGATE, INVALID_ENCODING -> new InvalidCharacterException(message, cause, true, isStackTraceWritable);
+		case ARRAY_ENDING_COMMA, ARRAY_MISSING_COMMA, ARRAY_MISSING_ELEMENT -> 
+				new InvalidArrayException(message, cause, true, isStackTraceWritable);
+		case OBJECT_ENDING_COMMA, OBJECT_MISSING_COMMA, KEY_NOT_STRING, DUPLICATE_KEY, 
+				KEY_WITHOUT_COLON, KEY_WITHOUT_VALUE -> new InvalidObjectException(message, cause, true, isStackTraceWritable);
+		case ROOT_NOT_SINGULAR -> new RootNotSingularException(message, cause, true, isStackTraceWritable);
+		case INCOMPLETE_LITERAL, INCOMPLETE_NUMBER, INCOMPLETE_ESCAPE -> 
+				new IncompleteItemException(message, cause, true, isStackTraceWritable);
+		case MISSING_WHITESPACE, MISSING_COLON -> new MissingDelimiterException(message, cause, true, isStackTraceWritable);
+		case MISSING_BRACKET, MISSING_BRACE, MISSING_QUOTATION_MARK -> 
+				new MissingEndTagException(message, cause, true, isStackTraceWritable);
+		case MAX_DEPTH_EXCEEDED -> new MaxDepthExceededException(message, cause, true, isStackTraceWritable);
+		};
+		
+		exception.code = this;
+		
+		return exception;
+	}
+}
@@ -26,10 +26,36 @@ import java.lang.RuntimeException;
  * 	|-------MissingDelimiterException
  * 	|
  * 	|-------MissingEndTagException
+ * 	|
+ * 	|-------MaxDepthExceededException
+ * 
+ * Exceptions thrown by the parsers also carry a {@code JsonErrorCode} 
+ * and the offset in the context where the error was detected. The line
+ * and column are only computed from the context when asked for. 
  */
 public class JsonParserException extends RuntimeException {
 	private static final long serialVersionUID = 1L;
 	
+	/**
+	 * {@code Locator} computes the line and column of an offset in the 
+	 * context that an exception was thrown for. 
+	 */
+	@FunctionalInterface
+	public interface Locator {
+		/**
+		 * @param offset
+		 * @return long[], the line and column, both from 1, or 
+		 * 			{@code null} if they are unknown
+		 */
+		long[] locate(long offset);
+	}
+	
+	JsonErrorCode code = JsonErrorCode.UNKNOWN; /* set by {@code JsonErrorCode.newException()} */
+	private long offset = -1L;
+	private transient Locator locator; /* dropped once the line and column are computed */
+	private long line = 0L; /* 0 if not computed yet */
+	private long column = 0L;
+	
     /** Constructs a new runtime exception with {@code null} as its
      * detail message.  The cause is not initialized, and may subsequently be
      * initialized by a call to {@link #initCause}.
@@ -82,4 +108,94 @@ public class JsonParserException extends RuntimeException {
     public JsonParserException(Throwable cause) {
         super(cause);
     }
+
+    /**
+     * Constructs a new runtime exception with the specified detail
+     * message, cause, suppression enabled or disabled, and writable
+     * stack trace enabled or disabled.
+     *
+     * @param  message the detail message.
+     * @param cause the cause.  (A {@code null} value is permitted,
+     * and indicates that the cause is nonexistent or unknown.)
+     * @param enableSuppression whether or not suppression is enabled
+     *                          or disabled
+     * @param writableStackTrace whether or not the stack trace should
+     *                           be writable
+     */
+    public JsonParserException(String message, Throwable cause,
+    		boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+
+    /**
+     * {@code initLocation()} records where the error was detected. Like
+     * {@code initCause()}, it may be called at most once. 
+     * 
+     * @param offset in chars for {@code String} and {@code Reader} 
+     * 			contexts, and in bytes for UTF-8 contexts
+     * @param locator may be {@code null} if the line and column are 
+     * 			unknown
+     * @return JsonParserException
+     * @throws IllegalStateException if the location is already recorded
+     */
+    public JsonParserException initLocation(long offset, Locator locator)
+            throws IllegalStateException
+    {
+        if (this.offset >= 0) {
+            throw new IllegalStateException("Can't overwrite location. ");
+        }
+        
+        this.offset = offset;
+        this.locator = locator;
+        
+        return this;
+    }
+    public JsonErrorCode getCode() {
+        return this.code;
+    }
+    /**
+     * {@code getOffset()} returns where the error was detected in the 
+     * context, or -1 if unknown. 
+     * 
+     * @return long
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+    /**
+     * {@code getLine()} returns the line where the error was detected, 
+     * from 1, or -1 if unknown. Lines are separated by {@code '\n'}. 
+     * 
+     * @return long
+     */
+    public long getLine() {
+        locate();
+        
+        return this.line;
+    }
+    /**
+     * {@code getColumn()} returns the column where the error was 
+     * detected, from 1, in the same unit as {@code getOffset()}, or -1 
+     * if unknown. 
+     * 
+     * @return long
+     */
+    public long getColumn() {
+        locate();
+        
+        return this.column;
+    }
+    private synchronized void locate() {
+        if (line != 0) {
+            return;
+        }
+        
+        long[] location = (locator != null && offset >= 0) ? locator.locate(offset) : null;
+        
+        line = (location != null) ? location[0] : -1L;
+        column = (location != null) ? location[1] : -1L;
+        locator = null;
+        
+        return;
+    }
 }
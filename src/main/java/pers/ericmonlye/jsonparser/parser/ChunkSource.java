@@ -0,0 +1,130 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@code ChunkSource} is a UTF-8 encoded JSON context pushed in chunks
+ * by {@code JsonPushParser}.
+ *
+ * Only the bytes from the mark on, the start of the token being read,
+ * are kept. Reading beyond the bytes received so far never blocks:
+ * {@code isEnd()} throws {@code Underflow} until the end of the input
+ * is known, and the token is read again once more bytes are pushed.
+ */
+final class ChunkSource extends Utf8Source {
+	static final int DEFAULT_CAPACITY = 8192;
+
+	private byte[] window;
+	private long base; /* position of {@code window[0]} */
+	private int filled; /* number of bytes received into the window */
+	private long mark; /* bytes before this position may be dropped */
+	private boolean isEndOfInput;
+
+	/**
+	 * {@code Underflow} is thrown when a position beyond the bytes
+	 * received so far is read. It is a singleton without stack trace,
+	 * since it ends every token split across chunks.
+	 */
+	static final class Underflow extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		static final Underflow INSTANCE = new Underflow();
+
+		private Underflow() {
+			super("More input is needed. ", null, false, false);
+		}
+	}
+
+	/* constructors */
+	ChunkSource() {
+		super(Long.MAX_VALUE); /* unknown until the end of the input */
+		this.window = new byte[DEFAULT_CAPACITY];
+		this.base = 0L;
+		this.filled = 0;
+		this.mark = 0L;
+		this.isEndOfInput = false;
+	}
+
+	/* window manipulation methods */
+	/**
+	 * {@code append()} moves the remaining bytes of {@code chunk} into the
+	 * window, dropping the bytes before the mark if room is needed.
+	 *
+	 * @param chunk
+	 */
+	void append(ByteBuffer chunk) {
+		int count = chunk.remaining();
+
+		if (filled + count > window.length) {
+			int drop = (int)(mark - base);
+
+			System.arraycopy(window, drop, window, 0, filled - drop);
+			base += drop;
+			filled -= drop;
+		}
+		if (filled + count > window.length) {
+			byte[] grown = new byte[Math.max(window.length * 2, filled + count)];
+			System.arraycopy(window, 0, grown, 0, filled);
+			window = grown;
+		}
+
+		chunk.get(window, filled, count);
+		filled += count;
+
+		return;
+	}
+	void endOfInput() {
+		this.isEndOfInput = true;
+
+		return;
+	}
+	boolean isEndOfInput() {
+		return this.isEndOfInput;
+	}
+	/**
+	 * {@code mark()} keeps the bytes from {@code pos} on.
+	 *
+	 * @param pos
+	 */
+	void mark(long pos) {
+		assert pos >= mark && pos <= base + filled;
+		mark = pos;
+
+		return;
+	}
+	/**
+	 * {@code getEnd()} returns the position after the last byte received.
+	 *
+	 * @return long
+	 */
+	long getEnd() {
+		return base + filled;
+	}
+
+	/* overridden methods */
+	@Override
+	int byteAt(long pos) {
+		assert pos >= base && pos < base + filled;
+
+		return window[(int)(pos - base)];
+	}
+	@Override
+	boolean isEnd(long pos) {
+		if (pos < base + filled) {
+			return false;
+		}
+		if (isEndOfInput) {
+			return true;
+		}
+
+		throw Underflow.INSTANCE;
+	}
+	@Override
+	boolean isRetained() {
+		return false;
+	}
+	@Override
+	JsonSource duplicate() {
+		return null;
+	}
+}
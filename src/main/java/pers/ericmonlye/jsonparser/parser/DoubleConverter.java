@@ -0,0 +1,180 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.math.BigInteger;
+
+/**
+ * {@code DoubleConverter} converts a decimal number, given as a 64-bit
+ * mantissa and a decimal exponent, to the nearest {@code double} without
+ * going through a {@code String}.
+ *
+ * Exact cases are handled by Clinger's fast path, and the others by the
+ * Eisel-Lemire algorithm (D. Lemire, "Number Parsing at a Gigabyte per
+ * Second", 2021) with a table of 128-bit truncated powers of 5. When
+ * the result cannot be told for sure, {@code Double.NaN} is returned and
+ * the caller falls back to {@code Double.parseDouble()}.
+ */
+final class DoubleConverter {
+	private static final int MIN_POWER = -342; /* below this, any 64-bit mantissa rounds to 0 */
+	private static final int MAX_POWER = 308; /* above this, any non-zero mantissa overflows */
+	private static final int MANTISSA_BITS = 52;
+	private static final int MIN_EXPONENT = -1023;
+	private static final int INFINITE_POWER = 0x7FF;
+
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	/* {@code POWERS_OF_FIVE[2 * (q - MIN_POWER)]} and the next long are the high and low halves of 5^q */
+	private static final long[] POWERS_OF_FIVE = computePowersOfFive();
+
+	/* constructors */
+	private DoubleConverter() {
+		return;
+	}
+
+	/**
+	 * {@code toDouble()} converts {@code mantissa * 10^exponent}.
+	 *
+	 * @param isNegative
+	 * @param mantissa unsigned, at most 19 decimal digits
+	 * @param exponent
+	 * @param isTruncated whether non-zero digits were dropped after the
+	 * 			digits kept in {@code mantissa}
+	 * @return double, or {@code Double.NaN} if the slow path is needed
+	 */
+	static double toDouble(boolean isNegative, long mantissa, long exponent, boolean isTruncated) {
+		if (mantissa == 0) {
+			return isNegative ? -0.0 : 0.0;
+		}
+
+		if (!isTruncated) {
+			if (exponent >= -22 && exponent <= 22 && Long.compareUnsigned(mantissa, 1L << 53) <= 0) {
+				/* Clinger's fast path: both operands and the operation are exact. */
+				double result = (double)mantissa;
+				result = (exponent < 0) ? result / POWERS_OF_TEN[(int)-exponent] : result * POWERS_OF_TEN[(int)exponent];
+
+				return isNegative ? -result : result;
+			}
+
+			return eiselLemire(isNegative, mantissa, exponent);
+		}
+
+		/* The exact value lies between the kept digits and the kept digits plus 1. */
+		double lower = eiselLemire(isNegative, mantissa, exponent);
+		double upper = eiselLemire(isNegative, mantissa + 1, exponent);
+
+		return (lower == upper) ? lower : Double.NaN;
+	}
+
+	/* conversion */
+	private static double eiselLemire(boolean isNegative, long mantissa, long exponent) {
+		if (exponent < MIN_POWER) {
+			return isNegative ? -0.0 : 0.0;
+		}
+		if (exponent > MAX_POWER) {
+			return isNegative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		}
+
+		int q = (int)exponent;
+		int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+		long w = mantissa << leadingZeros;
+		int index = 2 * (q - MIN_POWER);
+
+		/* 128-bit product of {@code w} and the truncated 5^q */
+		long high = Math.unsignedMultiplyHigh(w, POWERS_OF_FIVE[index]);
+		long low = w * POWERS_OF_FIVE[index];
+		long precisionMask = 0xFFFFFFFFFFFFFFFFL >>> (MANTISSA_BITS + 3);
+		if ((high & precisionMask) == precisionMask) { /* the truncated bits may matter */
+			long secondHigh = Math.unsignedMultiplyHigh(w, POWERS_OF_FIVE[index + 1]);
+
+			low += secondHigh;
+			if (Long.compareUnsigned(secondHigh, low) > 0) {
+				++high;
+			}
+		}
+
+		int upperBit = (int)(high >>> 63);
+		int shift = upperBit + 64 - MANTISSA_BITS - 3;
+		long result = high >>> shift;
+		int power = (((152170 + 65536) * q) >> 16) + 63 + upperBit - leadingZeros - MIN_EXPONENT;
+
+		if (power <= 0) { /* subnormal */
+			if (-power + 1 >= 64) {
+				return isNegative ? -0.0 : 0.0;
+			}
+
+			result >>>= -power + 1;
+			result += (result & 1);
+			result >>>= 1;
+			power = (result < (1L << MANTISSA_BITS)) ? 0 : 1;
+
+			return assemble(isNegative, result, power);
+		}
+
+		if (Long.compareUnsigned(low, 1) <= 0 && q >= -4 && q <= 23 && (result & 3) == 1) {
+			/* Exactly halfway between two doubles: round to even. */
+			if ((result << shift) == high) {
+				result &= ~1L;
+			}
+		}
+
+		result += (result & 1);
+		result >>>= 1;
+		if (result >= (2L << MANTISSA_BITS)) {
+			result = 1L << MANTISSA_BITS;
+			++power;
+		}
+		result &= ~(1L << MANTISSA_BITS);
+
+		if (power >= INFINITE_POWER) {
+			return isNegative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		}
+
+		return assemble(isNegative, result, power);
+	}
+	private static double assemble(boolean isNegative, long mantissa, int power) {
+		long bits = mantissa | ((long)power << MANTISSA_BITS) | (isNegative ? (1L << 63) : 0L);
+
+		return Double.longBitsToDouble(bits);
+	}
+
+	/* table */
+	/**
+	 * {@code computePowersOfFive()} builds the normalized 128-bit powers of
+	 * 5 from 5^-342 to 5^308. Positive powers are truncated; negative
+	 * powers are 2^b / 5^-q rounded up, then truncated.
+	 *
+	 * @return long[]
+	 */
+	private static long[] computePowersOfFive() {
+		long[] table = new long[2 * (MAX_POWER - MIN_POWER + 1)];
+		BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+		BigInteger mask64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+		for (int q = MIN_POWER; q <= MAX_POWER; ++q) {
+			BigInteger power = BigInteger.valueOf(5).pow(Math.abs(q));
+			BigInteger normalized = null;
+
+			if (q < 0) {
+				int z = power.subtract(BigInteger.ONE).bitLength(); /* smallest z with 2^z >= 5^-q */
+				int b = (q >= -27) ? z + 127 : 2 * z + 2 * 64;
+
+				normalized = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+				while (normalized.compareTo(two128) >= 0) {
+					normalized = normalized.shiftRight(1);
+				}
+			}
+			else {
+				int bits = power.bitLength();
+
+				normalized = (bits <= 128) ? power.shiftLeft(128 - bits) : power.shiftRight(bits - 128);
+			}
+
+			int index = 2 * (q - MIN_POWER);
+			table[index] = normalized.shiftRight(64).longValue();
+			table[index + 1] = normalized.and(mask64).longValue();
+		}
+
+		return table;
+	}
+}
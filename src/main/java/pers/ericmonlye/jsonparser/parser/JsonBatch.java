@@ -0,0 +1,60 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@code JsonBatch} is the result of {@code JsonParsers.parseAll()}: the 
+ * parsed items, in the order of the contexts, and how fast they were 
+ * parsed. 
+ */
+public final class JsonBatch {
+	private final List<JsonValue> values;
+	private final long length; /* chars of {@code String} or bytes of {@code byte[]} contexts */
+	private final long elapsedNanos;
+	
+	/* constructors */
+	JsonBatch(List<JsonValue> values, long length, long elapsedNanos) {
+		this.values = values;
+		this.length = length;
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	/* user APIs */
+	public List<JsonValue> getValues() {
+		return this.values;
+	}
+	public int size() {
+		return values.size();
+	}
+	/**
+	 * {@code getLength()} returns the total length of the contexts, in 
+	 * chars for {@code String} and in bytes for {@code byte[]}. 
+	 * 
+	 * @return long
+	 */
+	public long getLength() {
+		return this.length;
+	}
+	/**
+	 * {@code getElapsedNanos()} returns the wall-clock time taken by the 
+	 * whole batch. 
+	 * 
+	 * @return long
+	 */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+	public double getItemsPerSecond() {
+		return values.size() * 1e9 / Math.max(elapsedNanos, 1L);
+	}
+	public double getLengthPerSecond() {
+		return length * 1e9 / Math.max(elapsedNanos, 1L);
+	}
+	
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT, "%d items of total length %d in %.3f ms (%.0f items/s, %.2f MB/s)", 
+				values.size(), length, elapsedNanos / 1e6, getItemsPerSecond(), getLengthPerSecond() / 1e6);
+	}
+}
@@ -0,0 +1,333 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+/**
+ * {@code JsonCursor} points at a value of a {@code JsonTape}. It moves
+ * in place, so a whole tape can be walked with a single cursor and no
+ * allocation; {@code copy()} keeps a position for later.
+ *
+ * Accessors of the wrong type throw {@code IllegalStateException}, like
+ * those of {@code JsonReader}.
+ */
+public final class JsonCursor {
+	private final JsonTape tape;
+	private int index; /* entry of the current value */
+	private int[] parents; /* entries of the enclosing containers */
+	private int depth;
+
+	/* constructors */
+	JsonCursor(JsonTape tape) {
+		this.tape = tape;
+		this.index = 0;
+		this.parents = new int[16];
+		this.depth = 0;
+	}
+
+	/* user APIs */
+	/**
+	 * {@code getType()} returns the type of the current value.
+	 *
+	 * @return JsonType
+	 */
+	public JsonType getType() {
+		return switch (tape.tagAt(index)) {
+		case 'n' -> JsonType.NULL;
+		case 't' -> JsonType.TRUE;
+		case 'f' -> JsonType.FALSE;
+		case 'l', 'd' -> JsonType.NUMBER;
+		case '"' -> JsonType.STRING;
+		case '[' -> JsonType.ARRAY;
+		case '{' -> JsonType.OBJECT;
+		default -> throw new JsonParserException("Unknown JSON type. ");
+		};
+	}
+	/**
+	 * {@code getDepth()} returns the number of arrays and objects that
+	 * enclose the current value, from the value the tape was read from.
+	 *
+	 * @return int
+	 */
+	public int getDepth() {
+		return this.depth;
+	}
+	/**
+	 * {@code isIntegral()} tells whether the current number is held
+	 * exactly as a {@code long}.
+	 *
+	 * @return boolean
+	 * @throws IllegalStateException if the current value is not a number
+	 */
+	public boolean isIntegral() {
+		return checkTag('l', 'd') == 'l';
+	}
+	/**
+	 * {@code getLong()} returns the current number as a {@code long}.
+	 *
+	 * @return long
+	 * @throws IllegalStateException if the current value is not a number
+	 * @throws ArithmeticException if the number is not an integer in the
+	 * 			range of {@code long}
+	 */
+	public long getLong() {
+		if (checkTag('l', 'd') == 'l') {
+			return tape.rawAt(index + 1);
+		}
+
+		double num = Double.longBitsToDouble(tape.rawAt(index + 1));
+		if (num != Math.rint(num) || num < -0x1p63 || num >= 0x1p63) {
+			throw new ArithmeticException("The number is not an integer in the range of long. ");
+		}
+
+		return (long)num;
+	}
+	/**
+	 * {@code getDouble()} returns the current number as the nearest
+	 * {@code double}.
+	 *
+	 * @return double
+	 * @throws IllegalStateException if the current value is not a number
+	 */
+	public double getDouble() {
+		if (checkTag('l', 'd') == 'l') {
+			return (double)tape.rawAt(index + 1);
+		}
+
+		return Double.longBitsToDouble(tape.rawAt(index + 1));
+	}
+	/**
+	 * {@code getString()} returns the current string.
+	 *
+	 * @return String
+	 * @throws IllegalStateException if the current value is not a string
+	 */
+	public String getString() {
+		checkTag('"', '"');
+
+		return tape.stringAt(index);
+	}
+	/**
+	 * {@code getKey()} returns the key of the current member.
+	 *
+	 * @return String
+	 * @throws IllegalStateException if the current value is not a member
+	 * 			of an object
+	 */
+	public String getKey() {
+		if (depth == 0 || tape.tagAt(parents[depth - 1]) != '{') {
+			throw new IllegalStateException("The current value is not a member of an object. ");
+		}
+
+		return tape.stringAt(index - 1);
+	}
+	/**
+	 * {@code size()} returns the number of elements or members of the
+	 * current array or object.
+	 *
+	 * @return int
+	 * @throws IllegalStateException if the current value is neither
+	 */
+	public int size() {
+		checkTag('[', '{');
+
+		int count = (int)(tape.payloadAt(index) >>> JsonTape.COUNT_SHIFT);
+		if (count < JsonTape.MAX_COUNT) {
+			return count;
+		}
+
+		/* saturated: count by walking */
+		int step = (tape.tagAt(index) == '{') ? 1 : 0; /* skip the keys */
+		count = 0;
+		for (int pos = index + 1; tape.tagAt(pos) != ']' && tape.tagAt(pos) != '}'; pos = tape.skip(pos + step)) {
+			++count;
+		}
+
+		return count;
+	}
+
+	/* navigation */
+	/**
+	 * {@code toFirst()} moves to the first element or member of the
+	 * current array or object.
+	 *
+	 * @return boolean {@code false} if it is empty, in which case the
+	 * 			cursor does not move
+	 * @throws IllegalStateException if the current value is neither
+	 */
+	public boolean toFirst() {
+		char tag = checkTag('[', '{');
+
+		int first = index + 1;
+		if (tape.tagAt(first) == ']' || tape.tagAt(first) == '}') {
+			return false;
+		}
+
+		enter((tag == '{') ? first + 1 : first);
+
+		return true;
+	}
+	/**
+	 * {@code toNext()} moves to the next element or member of the
+	 * enclosing array or object.
+	 *
+	 * @return boolean {@code false} if there is none, in which case the
+	 * 			cursor does not move
+	 */
+	public boolean toNext() {
+		if (depth == 0) {
+			return false;
+		}
+
+		int next = tape.skip(index);
+		if (tape.tagAt(next) == ']' || tape.tagAt(next) == '}') {
+			return false;
+		}
+
+		index = (tape.tagAt(parents[depth - 1]) == '{') ? next + 1 : next;
+
+		return true;
+	}
+	/**
+	 * {@code toParent()} moves to the enclosing array or object.
+	 *
+	 * @return boolean {@code false} at the root, in which case the
+	 * 			cursor does not move
+	 */
+	public boolean toParent() {
+		if (depth == 0) {
+			return false;
+		}
+
+		index = parents[--depth];
+
+		return true;
+	}
+	/**
+	 * {@code toElement()} moves to the element at {@code position} of the
+	 * current array.
+	 *
+	 * @param position
+	 * @return boolean {@code false} if there is no such element, in which
+	 * 			case the cursor does not move
+	 * @throws IllegalStateException if the current value is not an array
+	 */
+	public boolean toElement(int position) {
+		checkTag('[', '[');
+
+		int pos = index + 1;
+		for (int count = 0; count < position && tape.tagAt(pos) != ']'; ++count) {
+			pos = tape.skip(pos);
+		}
+		if (position < 0 || tape.tagAt(pos) == ']') {
+			return false;
+		}
+
+		enter(pos);
+
+		return true;
+	}
+	/**
+	 * {@code toMember()} moves to the value of {@code key} in the current
+	 * object. Keys are compared in place, without building a
+	 * {@code String}.
+	 *
+	 * @param key
+	 * @return boolean {@code false} if there is no such member, in which
+	 * 			case the cursor does not move
+	 * @throws IllegalStateException if the current value is not an object
+	 */
+	public boolean toMember(String key) {
+		checkTag('{', '{');
+
+		for (int pos = index + 1; tape.tagAt(pos) != '}'; pos = tape.skip(pos + 1)) {
+			if (tape.stringEquals(pos, key)) {
+				enter(pos + 1);
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+	/**
+	 * {@code copy()} returns a new cursor at the same position.
+	 *
+	 * @return JsonCursor
+	 */
+	public JsonCursor copy() {
+		JsonCursor result = new JsonCursor(tape);
+
+		result.index = index;
+		result.parents = Arrays.copyOf(parents, parents.length);
+		result.depth = depth;
+
+		return result;
+	}
+	/**
+	 * {@code toJsonValue()} builds the current value as a tree of
+	 * {@code JsonValue}.
+	 *
+	 * @return JsonValue
+	 */
+	public JsonValue toJsonValue() {
+		return buildValue(index);
+	}
+
+	/* tools */
+	private char checkTag(char first, char second) {
+		char tag = tape.tagAt(index);
+
+		if (tag != first && tag != second) {
+			throw new IllegalStateException("The current value is of type " + getType() + ". ");
+		}
+
+		return tag;
+	}
+	private void enter(int child) {
+		if (depth == parents.length) {
+			parents = Arrays.copyOf(parents, 2 * depth);
+		}
+		parents[depth++] = index;
+		index = child;
+
+		return;
+	}
+	private JsonValue buildValue(int pos) {
+		switch (tape.tagAt(pos)) {
+		case 'n':
+			return JsonValue.NULL;
+		case 't':
+			return JsonValue.TRUE;
+		case 'f':
+			return JsonValue.FALSE;
+		case 'l':
+			return new JsonValue(tape.rawAt(pos + 1));
+		case 'd':
+			return new JsonValue(Double.longBitsToDouble(tape.rawAt(pos + 1)));
+		case '"':
+			return new JsonValue(tape.stringAt(pos));
+		case '[':
+			ArrayList<JsonValue> arr = new ArrayList<JsonValue>();
+
+			for (int child = pos + 1; tape.tagAt(child) != ']'; child = tape.skip(child)) {
+				arr.add(buildValue(child));
+			}
+
+			return new JsonValue(arr);
+		case '{':
+			HashMap<String, JsonValue> obj = new HashMap<String, JsonValue>();
+
+			for (int child = pos + 1; tape.tagAt(child) != '}'; child = tape.skip(child + 1)) {
+				obj.put(tape.stringAt(child), buildValue(child + 1));
+			}
+
+			return new JsonValue(obj);
+		default:
+			throw new JsonParserException("Unknown JSON type. ");
+		}
+	}
+}
@@ -0,0 +1,317 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+/**
+ * {@code JsonDocument} is the text of a JSON context kept together with
+ * its tree, for editors that need the tree again after every edit.
+ *
+ * The tree records where each node lies in the text. {@code edit()}
+ * reparses only the smallest array, object or scalar around the edit,
+ * and splices the new node into the tree in place of the old one, so an
+ * edit costs about the size of that node rather than the size of the
+ * text. The items that follow the edit are moved in a time logarithmic
+ * in their number, see {@code JsonSpan}. The other nodes, including the
+ * arrays and objects around the edit, stay the same objects. If the edited node does not parse on its
+ * own, e.g. once a comma is typed in it, the containers around it are
+ * reparsed in turn, up to the whole text.
+ *
+ * The text is kept in a gap buffer at the last edit, so that edits
+ * close to each other move few chars. A document may not be used by
+ * several threads at once.
+ */
+public final class JsonDocument {
+	private static final int MIN_GAP = 1024; /* free chars after the text is copied */
+
+	private final JsonParser parser;
+	private char[] chars; /* the text, split by a gap at the last edit */
+	private int gapStart;
+	private int gapEnd;
+	private JsonSpan root;
+
+	/* constructors */
+	public JsonDocument(String text)
+			throws JsonParserException
+	{
+		this(new JsonParser(), text);
+	}
+	/**
+	 * The text is parsed, then reparsed after every edit, by
+	 * {@code parser} with its own settings, e.g.
+	 * {@code setBigDecimalEnabled()}. It is never parsed in parallel.
+	 *
+	 * @param parser
+	 * @param text
+	 * @throws JsonParserException
+	 * @throws IllegalArgumentException if {@code parser} has a projection
+	 */
+	public JsonDocument(JsonParser parser, String text)
+			throws JsonParserException, IllegalArgumentException
+	{
+		if (parser.getProjection() != JsonProjection.ALL) {
+			throw new IllegalArgumentException("A document is parsed as a whole, without projection. ");
+		}
+
+		this.parser = parser;
+		this.chars = new char[text.length() + MIN_GAP];
+		this.gapStart = text.length();
+		this.gapEnd = chars.length;
+		this.root = parser.parseSpans(text, 0);
+
+		text.getChars(0, text.length(), chars, 0);
+	}
+
+	/* user APIs */
+	public JsonValue getValue() {
+		return this.root.value;
+	}
+	public String getText() {
+		return substring(0, length());
+	}
+	public int length() {
+		return chars.length - (gapEnd - gapStart);
+	}
+	/**
+	 * {@code getSpan()} returns where the value {@code pointer} refers to
+	 * lies in the text, as its start and end, or {@code null} if there is
+	 * no such value.
+	 *
+	 * @param pointer
+	 * @return long[]
+	 */
+	public long[] getSpan(JsonPointer pointer) {
+		JsonSpan node = root;
+		long offset = root.start;
+
+		for (int index = 0; index < pointer.size() && node != null; ++index) {
+			JsonSpan parent = node;
+			int item = -1;
+
+			node = null;
+			if (!parent.isContainer()) {
+				break;
+			}
+
+			if (parent.value.getType() == JsonType.ARRAY) {
+				int element = pointer.indexAt(index);
+
+				if (element >= 0 && element < parent.children.size()) {
+					item = element;
+				}
+			}
+			else {
+				for (int member = 0; member < parent.children.size(); ++member) {
+					if (parent.children.get(member).key.equals(pointer.tokenAt(index))) {
+						item = member;
+						break;
+					}
+				}
+			}
+
+			if (item >= 0) {
+				node = parent.children.get(item);
+				offset += parent.startOf(item);
+			}
+		}
+
+		return (node != null) ? new long[] {offset, offset + node.length} : null;
+	}
+	/**
+	 * {@code edit()} replaces the {@code removed} chars from
+	 * {@code offset} on by {@code inserted}, and updates the tree. If the
+	 * edited text is malformed, the document is left as it was.
+	 *
+	 * @param offset
+	 * @param removed
+	 * @param inserted
+	 * @return JsonDocument
+	 * @throws JsonParserException
+	 * @throws IndexOutOfBoundsException
+	 */
+	public JsonDocument edit(int offset, int removed, String inserted)
+			throws JsonParserException, IndexOutOfBoundsException
+	{
+		Objects.checkFromIndexSize(offset, removed, length());
+
+		String removedText = substring(offset, offset + removed);
+
+		replace(offset, removed, inserted);
+		try {
+			reparse(offset, offset + removed, inserted.length() - removed);
+		}
+		catch (JsonParserException e) {
+			replace(offset, inserted.length(), removedText);
+
+			throw e;
+		}
+
+		return this;
+	}
+
+	/* tree update methods */
+	/**
+	 * {@code reparse()} updates the tree after the text from {@code from}
+	 * to {@code to}, as it was before the edit, has been replaced by
+	 * {@code delta} more chars. The nodes covering the edit are tried
+	 * from the innermost one out, and the first that parses on its own is
+	 * spliced into the tree. The root is reparsed with the whole text.
+	 *
+	 * @param from
+	 * @param to
+	 * @param delta
+	 * @throws JsonParserException
+	 */
+	private void reparse(long from, long to, long delta)
+			throws JsonParserException
+	{
+		/* the path from the root to the innermost node covering the edit */
+		JsonSpan[] nodes = new JsonSpan[16];
+		long[] offsets = new long[16];
+		int[] indexes = new int[16]; /* the index of each node in its parent */
+		int depth = 0;
+
+		if (!root.covers(root.start, from, to)) {
+			root = parser.parseSpans(getText(), 0);
+
+			return;
+		}
+		nodes[0] = root;
+		offsets[0] = root.start;
+
+		while (nodes[depth].isContainer()) {
+			JsonSpan parent = nodes[depth];
+			int index = parent.childAt(from - offsets[depth]);
+
+			if (index < 0) {
+				break;
+			}
+
+			JsonSpan child = parent.children.get(index);
+			long childOffset = offsets[depth] + parent.startOf(index);
+
+			if (!child.covers(childOffset, from, to)) {
+				break;
+			}
+
+			if (++depth == nodes.length) {
+				nodes = Arrays.copyOf(nodes, depth * 2);
+				offsets = Arrays.copyOf(offsets, depth * 2);
+				indexes = Arrays.copyOf(indexes, depth * 2);
+			}
+			nodes[depth] = child;
+			offsets[depth] = childOffset;
+			indexes[depth] = index;
+		}
+
+		for (int level = depth; level > 0; --level) {
+			long start = offsets[level];
+			JsonSpan span;
+
+			try {
+				span = parser.parseSpans(substring((int)start, (int)(start + nodes[level].length + delta)), level);
+			}
+			catch (JsonParserException e) {
+				continue; /* The edit may only be valid in a container around the node. */
+			}
+
+			splice(nodes, indexes, level, span, delta);
+
+			return;
+		}
+
+		root = parser.parseSpans(getText(), 0);
+
+		return;
+	}
+	/**
+	 * {@code splice()} puts {@code span}, reparsed from the start of
+	 * {@code nodes[level]}, in place of it, and moves whatever follows
+	 * the edit in the containers around it by {@code delta}. Each
+	 * container moves its following items at once, see
+	 * {@code JsonSpan.shift()}.
+	 *
+	 * @param nodes
+	 * @param indexes
+	 * @param level
+	 * @param span
+	 * @param delta
+	 */
+	private static void splice(JsonSpan[] nodes, int[] indexes, int level, JsonSpan span, long delta) {
+		JsonSpan parent = nodes[level - 1];
+		int index = indexes[level];
+
+		parent.shift(index, span.start); /* e.g. whitespace typed before a scalar */
+		parent.shift(index + 1, -span.start);
+		span.key = nodes[level].key;
+		parent.children.set(index, span);
+		if (parent.value.getType() == JsonType.ARRAY) {
+			parent.value.getArr().set(index, span.value);
+		}
+		else {
+			parent.value.getObj().put(span.key, span.value);
+		}
+
+		for (int up = level; up > 0; --up) {
+			nodes[up - 1].shift(indexes[up] + 1, delta);
+			nodes[up - 1].length += delta;
+		}
+
+		return;
+	}
+
+	/* gap buffer methods */
+	private void replace(int offset, int removed, String inserted) {
+		moveGap(offset);
+		gapEnd += removed;
+
+		if (gapEnd - gapStart < inserted.length()) {
+			int tail = chars.length - gapEnd;
+			char[] grown = new char[chars.length + Math.max(chars.length >> 1, inserted.length()) + MIN_GAP];
+
+			System.arraycopy(chars, 0, grown, 0, gapStart);
+			System.arraycopy(chars, gapEnd, grown, grown.length - tail, tail);
+			gapEnd = grown.length - tail;
+			chars = grown;
+		}
+
+		inserted.getChars(0, inserted.length(), chars, gapStart);
+		gapStart += inserted.length();
+
+		return;
+	}
+	private void moveGap(int pos) {
+		if (pos < gapStart) {
+			int count = gapStart - pos;
+
+			System.arraycopy(chars, pos, chars, gapEnd - count, count);
+			gapStart -= count;
+			gapEnd -= count;
+		}
+		else if (pos > gapStart) {
+			int count = pos - gapStart;
+
+			System.arraycopy(chars, gapEnd, chars, gapStart, count);
+			gapStart += count;
+			gapEnd += count;
+		}
+
+		return;
+	}
+	private String substring(int start, int end) {
+		if (end <= gapStart) {
+			return new String(chars, start, end - start);
+		}
+		if (start >= gapStart) {
+			return new String(chars, start + (gapEnd - gapStart), end - start);
+		}
+
+		char[] copy = new char[end - start];
+		System.arraycopy(chars, start, copy, 0, gapStart - start);
+		System.arraycopy(chars, gapEnd, copy, gapStart - start, end - gapStart);
+
+		return new String(copy);
+	}
+}
@@ -83,6 +83,17 @@ public class JsonGenerator {
 		return;
 	}
 	private void generateNumber() {
+		if (value.isIntegral()) { /* exact, and no formatter needed */
+			context += Long.toString(value.getLong());
+			
+			return;
+		}
+		if (value.isBigDecimal()) {
+			context += value.getBigDecimal().toString();
+			
+			return;
+		}
+		
 		DecimalFormat formatter = new DecimalFormat("#################E0", 
 											DecimalFormatSymbols.getInstance( Locale.ENGLISH ));
 		formatter.setRoundingMode(RoundingMode.DOWN); // turn off auto-rounding
@@ -0,0 +1,43 @@
+package pers.ericmonlye.jsonparser.parser;
+
+/**
+ * {@code JsonHandler} receives the events of a JSON context pushed by
+ * {@code JsonReader.parse(JsonHandler)}, in the order they appear in the
+ * context. Every method does nothing by default, so a handler only 
+ * overrides the events it needs. 
+ * 
+ * A member of an object is reported as {@code key()} followed by the 
+ * events of its value. 
+ */
+public interface JsonHandler {
+	default void startObject() {
+		return;
+	}
+	default void endObject() {
+		return;
+	}
+	default void startArray() {
+		return;
+	}
+	default void endArray() {
+		return;
+	}
+	default void key(String key) {
+		return;
+	}
+	default void number(double num) {
+		return;
+	}
+	default void string(String str) {
+		return;
+	}
+	/**
+	 * {@code literal()} reports {@code JsonType.NULL}, {@code JsonType.TRUE}
+	 * or {@code JsonType.FALSE}. 
+	 * 
+	 * @param type
+	 */
+	default void literal(JsonType type) {
+		return;
+	}
+}
@@ -1,36 +1,227 @@
 package pers.ericmonlye.jsonparser.parser;
 
-import java.lang.IndexOutOfBoundsException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import pers.ericmonlye.jsonparser.exception.*;
 
 /**
  * 
  */
-public class JsonParser {
-	private String context;
+public class JsonParser extends JsonTokenizer {
+	private static final long SLICE_SIZE = 1L << 16; /* chars of elements parsed by one task */
+	private static final int SMALL_OBJECT_SIZE = 16; /* keys checked for duplicates without hashing */
+	
 	private JsonValue value;
-	private int cur;
+	private boolean isBigDecimalEnabled; /* whether out-of-range numbers are kept as BigDecimal */
+	private boolean isLazyNumberEnabled; /* whether numbers are converted on first read */
+	private JsonScanner scanner;
+	private boolean isParallelEnabled; /* whether a large root array is parsed by several threads */
+	private JsonProjection projection; /* the values to build */
+	private JsonProjection itemProjection; /* the projection of the item at the cursor, {@code null} to skip it */
+	private Frame[] frames; /* the arrays and objects being parsed, reused by every parse */
+	private boolean isSpanEnabled; /* whether {@code span} records where {@code value} lies */
+	private JsonSpan span;
+	
+	/**
+	 * {@code Frame} is a nesting level of {@code parseJson()}: an open 
+	 * array or object, and the key of the member being parsed. 
+	 */
+	private static final class Frame {
+		ArrayList<JsonValue> array; /* {@code null} if the level is an object */
+		HashMap<String, JsonValue> object;
+		String key;
+		JsonProjection projection; /* the projection of the container */
+		long start; /* where the container starts, if spans are recorded */
+		ArrayList<JsonSpan> spans; /* the spans of the items handed over */
+		
+		/* {@code validateJson()} keeps no container, only the keys of objects */
+		boolean isArray;
+		int keyCount;
+		String[] keys; /* the first {@code SMALL_OBJECT_SIZE} keys */
+		HashSet<String> keySet; /* every key, once there are more */
+	}
 	
 	/* constructors */
 	public JsonParser() {
-		this.context = "";
-		this.value = new JsonValue(JsonType.NULL);
-		this.cur = 0;
+		super();
+		this.value = JsonValue.NULL;
+		this.isBigDecimalEnabled = false;
+		this.isLazyNumberEnabled = false;
+		this.scanner = JsonScanner.NONE;
+		this.isParallelEnabled = false;
+		this.projection = JsonProjection.ALL;
+		this.itemProjection = JsonProjection.ALL;
+		this.frames = new Frame[16];
+		this.isSpanEnabled = false;
+		this.span = null;
 	}
 	public JsonParser(String context) {
-		this.context = context;
-		this.value = new JsonValue(JsonType.NULL);
-		this.cur = 0;
+		super(new StringSource(context));
+		this.value = JsonValue.NULL;
+		this.isBigDecimalEnabled = false;
+		this.isLazyNumberEnabled = false;
+		this.scanner = JsonScanner.NONE;
+		this.isParallelEnabled = false;
+		this.projection = JsonProjection.ALL;
+		this.itemProjection = JsonProjection.ALL;
+		this.frames = new Frame[16];
+		this.isSpanEnabled = false;
+		this.span = null;
 	}
 	
 	/* user APIs */
 	public JsonValue getValue() {
 		return this.value;
 	}
+	/**
+	 * {@code setBigDecimalEnabled()} chooses how numbers out of range are
+	 * parsed. By default, integers out of the range of {@code long} are
+	 * rounded to {@code double}, and numbers out of the range of 
+	 * {@code double} throw {@code InvalidNumberException}. If enabled, 
+	 * both are kept exactly as {@code BigDecimal}. 
+	 * 
+	 * @param isEnabled
+	 * @return JsonParser
+	 */
+	public JsonParser setBigDecimalEnabled(boolean isEnabled) {
+		this.isBigDecimalEnabled = isEnabled;
+		
+		return this;
+	}
+	/**
+	 * {@code setLazyNumberEnabled()} chooses when numbers are converted. 
+	 * If enabled, numbers that are not {@code long} integers keep only 
+	 * their offsets into the context, and are converted the first time 
+	 * they are read. They are still checked while parsing, and those 
+	 * large enough to overflow are converted at once, so that the same 
+	 * exceptions are thrown. 
+	 * 
+	 * The nodes keep the context alive until they are converted. Streamed
+	 * contexts, which are discarded as they are read, are always 
+	 * converted while parsing. 
+	 * 
+	 * A {@code byte[]} or a {@code ByteBuffer} is not copied: the nodes 
+	 * read the caller's buffer when they are converted, so it must not be
+	 * modified or reused until every number of the tree has been read. 
+	 * 
+	 * @param isEnabled
+	 * @return JsonParser
+	 */
+	public JsonParser setLazyNumberEnabled(boolean isEnabled) {
+		this.isLazyNumberEnabled = isEnabled;
+		
+		return this;
+	}
+	/**
+	 * {@code setScanner()} chooses how UTF-8 byte arrays are pre-scanned
+	 * before they are parsed. See {@code JsonScanner}. Other contexts are
+	 * always read char by char. 
+	 * 
+	 * @param scanner
+	 * @return JsonParser
+	 */
+	public JsonParser setScanner(JsonScanner scanner) {
+		this.scanner = scanner;
+		
+		return this;
+	}
+	/**
+	 * {@code setParallelEnabled()} chooses whether a large root array is
+	 * parsed in parallel. If enabled, the elements of the root array are
+	 * first delimited by a quick scan of the context, which only tracks 
+	 * strings and nesting. Slices of elements are then parsed by tasks of
+	 * {@code ForkJoinPool.commonPool()}, and assembled in order. 
+	 * 
+	 * The result and the exceptions are the same as those of a sequential
+	 * parse: if any slice fails, the context is parsed again sequentially
+	 * to throw the first error. Streamed contexts, other roots and arrays
+	 * too small to be worth splitting are always parsed sequentially. 
+	 * 
+	 * @param isEnabled
+	 * @return JsonParser
+	 */
+	public JsonParser setParallelEnabled(boolean isEnabled) {
+		this.isParallelEnabled = isEnabled;
+		
+		return this;
+	}
+	/**
+	 * {@code setProjection()} restricts the values built by 
+	 * {@code parse()} to those selected by {@code projection}; 
+	 * {@code null} selects the whole context again. 
+	 * 
+	 * The other values are skipped as they are read. Skipped strings are 
+	 * not decoded, and skipped arrays and objects are only matched up to 
+	 * their ends, so errors inside them are not detected, and neither are
+	 * duplicates among the keys of skipped members. A projected context 
+	 * is never parsed in parallel. 
+	 * 
+	 * @param projection
+	 * @return JsonParser
+	 */
+	public JsonParser setProjection(JsonProjection projection) {
+		this.projection = (projection != null) ? projection : JsonProjection.ALL;
+		
+		return this;
+	}
+	JsonProjection getProjection() {
+		return this.projection;
+	}
+	/**
+	 * {@code setStackTraceEnabled()} sets whether syntax and encoding errors
+	 * fill in their stack traces. Without them, a malformed input costs
+	 * little more than the allocation of its exception, which still tells
+	 * its code, offset, line and column. 
+	 * 
+	 * @param isEnabled
+	 * @return JsonParser
+	 */
+	public JsonParser setStackTraceEnabled(boolean isEnabled) {
+		this.isStackTraceEnabled = isEnabled;
+		
+		return this;
+	}
+	/**
+	 * {@code setMaxDepth()} limits how deep arrays and objects may nest.
+	 * Opening one more throws {@code MaxDepthExceededException}. The 
+	 * default limit is 1000. 
+	 * 
+	 * Nesting never consumes the Java stack while parsing, so a higher
+	 * limit only costs heap. 
+	 * 
+	 * @param maxDepth
+	 * @return JsonParser
+	 * @throws IllegalArgumentException
+	 */
+	public JsonParser setMaxDepth(int maxDepth)
+			throws IllegalArgumentException
+	{
+		if (maxDepth < 0) {
+			throw new IllegalArgumentException("Negative depth limit. ");
+		}
+		
+		this.maxDepth = maxDepth;
+		
+		return this;
+	}
 	/**
 	 * {@code parse()} is the user API for parsing JSON context.
 	 * 
@@ -44,315 +235,524 @@ public class JsonParser {
 					MissingDelimiterException,
 					RootNotSingularException
 	{
-		rewind();
+		parseStartOfDocument();
 		
-		if (isEndOfContext()) {
-			throw new ExpectValueException("Empty input. ");
+		if (!isParallelEnabled || projection != JsonProjection.ALL || isSpanEnabled || !parseParallel()) {
+			parseJson(0);
 		}
 		
-		parseWhitespace();
-
-		if (isEndOfContext()) {
-			throw new ExpectValueException("The input context contains only whitespace. ");
-		}
+		parseEndOfDocument();
 		
-		parseJson();
+		return this;
+	}
+	public JsonParser parse(String context) {
+		this.context = new StringSource(context);
 		
-		if (!isEndOfContext()) {
-			if (!isCurWhitespace()) {
-				throw new MissingDelimiterException("Context not in JSON format. "
-								+ "Separate by whitespaces if more than 1 item is entered. ");
-			}
-
-			parseWhitespace();
+		return parse();
+	}
+	/**
+	 * {@code parseSpans()} parses {@code context} as a value nested in 
+	 * {@code baseDepth} arrays and objects, and also records where each 
+	 * node of the tree lies in {@code context}. The projection must be 
+	 * {@code JsonProjection.ALL}. 
+	 * 
+	 * @param context
+	 * @param baseDepth
+	 * @return JsonSpan, the span of the root
+	 */
+	JsonSpan parseSpans(String context, int baseDepth) {
+		assert projection == JsonProjection.ALL;
+		
+		int limit = maxDepth;
+		
+		isSpanEnabled = true;
+		maxDepth = Math.max(limit - baseDepth, 0);
+		try {
+			parse(context);
+		}
+		finally {
+			isSpanEnabled = false;
+			maxDepth = limit;
 		}
 		
-		if (!isEndOfContext()) {
-			/* 
-			 * Private parser functions should NOT deal with this exception.
-			 * This exception can be made into an interface of a future multi-parser.
-			 */
-			throw new RootNotSingularException("Extra context detected after the first valid JSON. ");
+		return span;
+	}
+	/**
+	 * {@code clear()} drops the context and the tree of the last parse, 
+	 * and whatever a failed parse left in the frames, so that a parser 
+	 * kept for reuse does not keep them alive. The settings and the 
+	 * buffers are kept. 
+	 * 
+	 * @return JsonParser
+	 */
+	JsonParser clear() {
+		context = new StringSource("");
+		rewind();
+		value = JsonValue.NULL;
+		span = null;
+		
+		for (Frame frame : frames) {
+			if (frame == null) {
+				break; /* frames are created in order */
+			}
+			
+			frame.array = null;
+			frame.object = null;
+			frame.key = null;
+			frame.spans = null;
+			if (frame.keys != null) { /* the keys checked for duplicates */
+				Arrays.fill(frame.keys, null);
+				frame.keySet.clear();
+			}
+			frame.keyCount = 0;
 		}
 		
 		return this;
 	}
-	public JsonParser parse(String context) {
-		this.context = context;
+	/**
+	 * {@code parse(byte[], int, int)} parses UTF-8 encoded JSON context
+	 * in place. Only the content of strings is decoded; structural chars,
+	 * numbers and literals are read directly from the bytes. 
+	 * 
+	 * @param context
+	 * @param offset
+	 * @param length
+	 * @return JsonParser
+	 * @throws IndexOutOfBoundsException
+	 */
+	public JsonParser parse(byte[] context, int offset, int length) {
+		this.context = new Utf8Source(context, offset, length);
 		
 		return parse();
 	}
-
-	/* cursor manipulation methods */
-	private void rewind() {
-		this.cur = 0;
+	public JsonParser parse(byte[] context) {
+		return parse(context, 0, context.length);
+	}
+	/**
+	 * {@code parse(ByteBuffer)} parses the remaining UTF-8 encoded bytes
+	 * of {@code context} in place, the same way as 
+	 * {@code parse(byte[], int, int)}. Heap and direct buffers are both
+	 * supported. The position and limit of {@code context} are not 
+	 * modified. 
+	 * 
+	 * @param context
+	 * @return JsonParser
+	 */
+	public JsonParser parse(ByteBuffer context) {
+		this.context = new Utf8Source(context);
 		
-		return;
+		return parse();
 	}
-	private boolean isEndOfContext() {
-		return cur >= context.length();
+	/**
+	 * {@code parse(Reader)} parses JSON context streamed from 
+	 * {@code reader}. The context is read through a window of fixed size,
+	 * which is refilled as the cursor moves forward, so the whole context
+	 * is never held in memory. The window only grows if a single number
+	 * or literal does not fit in it. 
+	 * 
+	 * A streamed context can be parsed only once. {@code reader} is read
+	 * up to its end and is not closed. 
+	 * 
+	 * @param reader
+	 * @return JsonParser
+	 * @throws UncheckedIOException
+	 */
+	public JsonParser parse(Reader reader) {
+		this.context = new ReaderSource(reader);
+		
+		return parse();
 	}
-	private char getCurChar() {
-		assert !isEndOfContext();
+	/**
+	 * {@code parse(InputStream)} parses UTF-8 encoded JSON context streamed
+	 * from {@code stream}, the same way as {@code parse(Reader)}. Malformed
+	 * UTF-8 input throws {@code InvalidCharacterException}. 
+	 * 
+	 * @param stream
+	 * @return JsonParser
+	 * @throws UncheckedIOException
+	 */
+	public JsonParser parse(InputStream stream) {
+		return parse(new InputStreamReader(stream, StandardCharsets.UTF_8.newDecoder()));
+	}
+	/**
+	 * {@code parse(Path)} parses the UTF-8 encoded JSON file at 
+	 * {@code path}. The file is memory-mapped and tokenized in place, so 
+	 * it is never read into the heap and the OS pages it in on demand. 
+	 * Files larger than 2 GB are mapped in several chunks. 
+	 * 
+	 * @param path
+	 * @return JsonParser
+	 * @throws UncheckedIOException
+	 */
+	public JsonParser parse(Path path) {
+		this.context = MappedSource.map(path);
 		
-		return context.charAt(cur);
+		return parse();
 	}
-
-	/* booleans */
-	private boolean isCurWhitespace() {
-		assert !isEndOfContext();
+	/**
+	 * {@code validate()} checks the JSON context exactly as {@code parse()}
+	 * does and throws the same exceptions, but builds no {@code JsonValue}.
+	 * Strings are checked without being decoded and numbers are only 
+	 * converted if they may be out of range, so a valid context costs no 
+	 * allocation, except for the keys of objects: keys missed by the key 
+	 * cache are decoded to detect duplicates, and objects of more than 16
+	 * members hash their keys. 
+	 * 
+	 * {@code getValue()} returns {@code JsonValue.NULL} after a 
+	 * validation. 
+	 * 
+	 * @return JsonParser
+	 * @throws ExpectValueException
+	 * @throws MissingDelimiterException
+	 * @throws RootNotSingularException
+	 */
+	public JsonParser validate()
+			throws	ExpectValueException,
+					MissingDelimiterException,
+					RootNotSingularException
+	{
+		value = JsonValue.NULL;
 		
-		char ch = getCurChar();
+		parseStartOfDocument();
+		validateJson();
+		parseEndOfDocument();
 		
-		return (ch == ' ' || ch == '\n' || ch == '\t' || ch == '\r');
+		return this;
 	}
-	private boolean isCurDigit() {
-		assert !isEndOfContext();
+	public JsonParser validate(String context) {
+		this.context = new StringSource(context);
 		
-		char ch = getCurChar();
+		return validate();
+	}
+	public JsonParser validate(byte[] context, int offset, int length) {
+		this.context = new Utf8Source(context, offset, length);
 		
-		return (ch >= '0' && ch <= '9');
+		return validate();
 	}
-
-	/* tool parsers */
-	private JsonParser parseWhitespace() {
-		while (!isEndOfContext() && isCurWhitespace()) {
-			++cur;
-		}
+	public JsonParser validate(byte[] context) {
+		return validate(context, 0, context.length);
+	}
+	public JsonParser validate(ByteBuffer context) {
+		this.context = new Utf8Source(context);
 		
-		return this;
+		return validate();
 	}
-	private JsonParser parseDigitComponent() {
-		while (!isEndOfContext() && isCurDigit()) {
-			++cur;
-		}
+	public JsonParser validate(Reader reader) {
+		this.context = new ReaderSource(reader);
 		
-		return this;
+		return validate();
 	}
-	private JsonParser parseExponentComponent()
-			throws IncompleteItemException
-	{
-		assert getCurChar() == 'e' || getCurChar() == 'E';
-		++cur;
+	public JsonParser validate(InputStream stream) {
+		return validate(new InputStreamReader(stream, StandardCharsets.UTF_8.newDecoder()));
+	}
+	public JsonParser validate(Path path) {
+		this.context = MappedSource.map(path);
 		
-		if (!isEndOfContext() && (getCurChar() == '+' || getCurChar() == '-')) {
-			++cur;
-		}
-		else if (isEndOfContext()) {
-			throw new IncompleteItemException("Incomplete exponential part. ");
-		}
+		return validate();
+	}
+	/**
+	 * {@code parseDocuments(Reader)} parses a sequence of JSON items 
+	 * streamed from {@code reader}, such as newline-delimited JSON or 
+	 * concatenated JSON, and returns them one at a time, as they are 
+	 * pulled from the returned {@code Stream}. 
+	 * 
+	 * Items are separated by whitespace, which may be left out after 
+	 * arrays, objects and strings. Blank lines are skipped, and an empty
+	 * context is an empty {@code Stream}. A malformed item throws the 
+	 * same exceptions as {@code parse()}, from the operation that reaches
+	 * it. 
+	 * 
+	 * The context is read through a single window, and the buffers of 
+	 * this parser are reused by every item. The parser must not parse 
+	 * anything else until the {@code Stream} is consumed. 
+	 * 
+	 * @param reader
+	 * @return Stream
+	 * @throws UncheckedIOException
+	 */
+	public Stream<JsonValue> parseDocuments(Reader reader) {
+		this.context = new ReaderSource(reader);
 		
-		if (!isEndOfContext() && isCurDigit()) {
-			parseDigitComponent();
-		}
-		else {
-			throw new IncompleteItemException("Incomplete exponential part. ");
-		}
+		return parseDocuments();
+	}
+	/**
+	 * {@code parseDocuments(InputStream)} parses a sequence of UTF-8 
+	 * encoded JSON items streamed from {@code stream}, the same way as 
+	 * {@code parseDocuments(Reader)}. 
+	 * 
+	 * @param stream
+	 * @return Stream
+	 * @throws UncheckedIOException
+	 */
+	public Stream<JsonValue> parseDocuments(InputStream stream) {
+		return parseDocuments(new InputStreamReader(stream, StandardCharsets.UTF_8.newDecoder()));
+	}
+	public Stream<JsonValue> parseDocuments(String context) {
+		this.context = new StringSource(context);
 		
-		return this;
+		return parseDocuments();
 	}
-	private JsonParser parseFractionalComponent()
-			throws IncompleteItemException
-	{
-		assert getCurChar() == '.';
-		++cur;
+	private Stream<JsonValue> parseDocuments() {
+		rewind();
+		context.useScanner(scanner);
+		context.setStackTraceEnabled(isStackTraceEnabled);
 		
-		if (!isEndOfContext() && isCurDigit()) {
-			parseDigitComponent();
-		}
-		else {
-			throw new IncompleteItemException("Incomplete fractional part. ");
-		}
+		Iterator<JsonValue> documents = new DocumentIterator();
 		
-		return this;
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(documents, 
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
 	}
-	private String parseCodepoint(long codepoint)
-			throws InvalidCharacterException 
-	{
-		String result = "";
+	
+	/* multi-document parsers */
+	/**
+	 * {@code DocumentIterator} parses the next item of the context each 
+	 * time {@code next()} is called. 
+	 */
+	private final class DocumentIterator implements Iterator<JsonValue> {
+		private final JsonSource documents = context; /* the context being iterated */
 		
-		if (codepoint <= 0x7F) {
-			byte[] byteArray = {(byte)codepoint};
+		@Override
+		public boolean hasNext() {
+			if (context != documents) {
+				throw new IllegalStateException("The parser has parsed another context. ");
+			}
 			
-			result = new String(byteArray, 0, 1, StandardCharsets.UTF_8);
-		}
-		else if (codepoint <= 0x7FF) {
-			byte[] byteArray = {
-					(byte)(0xC0 | ((codepoint >> 6) & 0xFF)),
-					(byte)(0x80 | (codepoint & 0x3F))
-				};
+			parseWhitespace();
 			
-			result = new String(byteArray, 0, 2, StandardCharsets.UTF_8);
+			return !isEndOfContext();
 		}
-		else if (codepoint <= 0xFFFF) {
-			byte[] byteArray = {
-					(byte)(0xE0 | ((codepoint >> 12) & 0xFF)),
-					(byte)(0x80 | ((codepoint >> 6) & 0x3F)),
-					(byte)(0x80 | (codepoint & 0x3F))
-				};
+		@Override
+		public JsonValue next()
+				throws JsonParserException, NoSuchElementException
+		{
+			if (!hasNext()) {
+				throw new NoSuchElementException("No more JSON items. ");
+			}
 			
-			result = new String(byteArray, 0, 3, StandardCharsets.UTF_8);
-		}
-		else if (codepoint <= 0x10FFFF) {
-			byte[] byteArray = {
-					(byte)(0xF0 | ((codepoint >> 18) & 0xFF)),
-					(byte)(0x80 | ((codepoint >> 12) & 0x3F)),
-					(byte)(0x80 | ((codepoint >> 6) & 0x3F)),
-					(byte)(0x80 | (codepoint & 0x3F))
-				};
-
-			result = new String(byteArray, 0, 4, StandardCharsets.UTF_8);
+			char ch = getCurChar();
+			boolean isDelimited = (ch == '[' || ch == '{' || ch == '\"'); /* items that end with a tag */
+			
+			parseJson(0);
+			
+			if (!isDelimited && !isEndOfContext() && !isCurWhitespace()) { // 123[]
+				throw error(JsonErrorCode.MISSING_WHITESPACE);
+			}
+			context.release(cur);
+			
+			return value;
 		}
-		else {
-			throw new InvalidCharacterException("Invalid Unicode codepoint. ");
+	}
+	
+	/* parallel parsers */
+	/**
+	 * {@code SliceTask} parses the elements {@code from} to {@code to} of
+	 * the root array, splitting them in halves until they are small 
+	 * enough for a single task. 
+	 */
+	private final class SliceTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final long[] bounds;
+		private final int from;
+		private final int to;
+		private final transient JsonValue[] elements; /* tasks are never serialized */
+		
+		SliceTask(long[] bounds, int from, int to, JsonValue[] elements) {
+			this.bounds = bounds;
+			this.from = from;
+			this.to = to;
+			this.elements = elements;
 		}
 		
-		return result;
+		@Override
+		protected void compute() {
+			if (to - from > 1 && bounds[to] - bounds[from] > SLICE_SIZE) {
+				int middle = (from + to) >>> 1;
+				
+				invokeAll(new SliceTask(bounds, from, middle, elements), new SliceTask(bounds, middle, to, elements));
+				
+				return;
+			}
+			
+			JsonParser slicer = new JsonParser();
+			
+			slicer.context = context.duplicate();
+			slicer.isBigDecimalEnabled = isBigDecimalEnabled;
+			slicer.isLazyNumberEnabled = isLazyNumberEnabled;
+			slicer.maxDepth = maxDepth;
+			slicer.isStackTraceEnabled = false; /* errors are thrown again by the sequential parse */
+			slicer.context.setStackTraceEnabled(false);
+			slicer.parseElements(bounds, from, to, elements);
+			
+			return;
+		}
 	}
-	private String parseUChar()
-			throws InvalidCharacterException, IncompleteItemException 
-	{
-		assert !isEndOfContext();
-		assert getCurChar() == 'u';
+	/**
+	 * {@code parseParallel()} parses the root array in parallel if it is
+	 * worth it, and leaves the cursor after it. On any error, nothing is
+	 * changed so that the caller parses the context again sequentially. 
+	 * 
+	 * @return boolean, whether the root has been parsed
+	 */
+	private boolean parseParallel() {
+		if (getCurChar() != '[' || isDepthExceeded(0) || context.duplicate() == null) {
+			return false;
+		}
 		
-		String result = "";
+		long[] bounds = context.findElementBounds(cur);
+		if (bounds == null || bounds[bounds.length - 1] - bounds[0] < 2 * SLICE_SIZE) {
+			return false;
+		}
 		
-		/* May throw NumberFormatException */
-		long highSurrogate = 0L;
+		JsonValue[] elements = new JsonValue[bounds.length - 1];
 		try {
-			highSurrogate = (long)Integer.parseInt(context.substring(cur + 1, cur + 5), 16);
+			ForkJoinPool.commonPool().invoke(new SliceTask(bounds, 0, elements.length, elements));
 		}
-		catch (IndexOutOfBoundsException | NumberFormatException e) {
-			throw new IncompleteItemException("Incomplete escape character. "
-								+ "Should only use hex-digits and exactly 4 digits are allowed.");
+		catch (JsonParserException e) {
+			return false; /* The first error of the context is thrown by the sequential parse. */
 		}
-		long codepoint = 0L;
 		
-		if (highSurrogate >= 0xD800 && highSurrogate <= 0xDBFF) {
-			if (cur + 7 >= context.length() || !context.substring(cur + 5, cur + 7).equals("\\u")) {
-				throw new InvalidCharacterException("Missing low surrogate. ");
-			}
+		cur = bounds[bounds.length - 1] + 1; /* skip ']' */
+		value = new JsonValue(new ArrayList<JsonValue>(Arrays.asList(elements)));
+		
+		return true;
+	}
+	/**
+	 * {@code parseElements()} parses the elements {@code from} to 
+	 * {@code to} of the root array into {@code elements}. Each element 
+	 * must end right before its bound. 
+	 * 
+	 * @param bounds
+	 * @param from
+	 * @param to
+	 * @param elements
+	 * @throws JsonParserException
+	 */
+	private void parseElements(long[] bounds, int from, int to, JsonValue[] elements)
+			throws JsonParserException
+	{
+		for (int index = from; index < to; ++index) {
+			cur = bounds[index] + 1; /* skip '[' or comma */
 			
-			/* May throw NumberFormatException */
-			long lowSurrogate = 0L;
-			try {
-				lowSurrogate = (long)Integer.parseInt(context.substring(cur + 7, cur + 11), 16);
-			}
-			catch (IndexOutOfBoundsException | NumberFormatException e) {
-				throw new IncompleteItemException("Incomplete escape character. "
-									+ "Should only use hex-digits and exactly 4 digits are allowed.");
+			parseWhitespace();
+			if (cur >= bounds[index + 1]) { // [1,,2]
+				throw error(JsonErrorCode.ARRAY_MISSING_ELEMENT);
 			}
 			
-			if (!(lowSurrogate >= 0xDC00 && lowSurrogate <= 0xDFFF)) {
-				throw new InvalidCharacterException("Low surrogate should be in range 0xDC00 - 0xDFFF. ");
+			parseJson(1);
+			
+			parseWhitespace();
+			if (cur != bounds[index + 1]) { // [1 2]
+				throw error(JsonErrorCode.ARRAY_MISSING_COMMA);
 			}
-			codepoint = 0x10000 + (highSurrogate - 0xD800) * 0x400 + (lowSurrogate - 0xDC00);
-
-			/* 
-			 * Cursor move to the last hex digit. 
-			 * {@code parseEscapeChar()} will move it 1 char further. 
-			 */ 
-			cur += 10; 
-		}
-		else {
-			codepoint = (long)highSurrogate;
-
-			/* 
-			 * Cursor move to the last hex digit. 
-			 * {@code parseEscapeChar()} will move it 1 char further. 
-			 */ 
-			cur += 4;
+			
+			elements[index] = value;
 		}
 		
-		result = parseCodepoint(codepoint);
-		
-		return result;
+		return;
 	}
-	private String parseEscapeChar() 
-			throws IncompleteItemException
+	
+	/* document boundary parsers */
+	/**
+	 * {@code parseStartOfDocument()} moves the cursor to the root item. 
+	 * 
+	 * @throws ExpectValueException
+	 */
+	private void parseStartOfDocument()
+			throws ExpectValueException
 	{
-		/* 
-		 * Only \u0000 - \u001F, \u0022 ('\"') and \u005C ('\\')
-		 * MUST be written in escape char. 
-		 * The other char in \u0020 - \u10FFFF are all legal in JSON string
-		 * but still CAN be written in escape char. 
-		 */
-		assert !isEndOfContext();
-		assert getCurChar() == '\\';
-		++cur;
-		
-		String result = "";
-		char ch = getCurChar();
+		rewind();
+		context.useScanner(scanner);
+		context.setStackTraceEnabled(isStackTraceEnabled);
 		
-		if (isEndOfContext() || ch == '\"') {
-			throw new IncompleteItemException("Incomplete escape character. ");
+		if (isEndOfContext()) {
+			throw error(JsonErrorCode.EMPTY_INPUT);
 		}
 		
-		result = switch (ch) {
-		case '\"' -> "\"";
-		case '\\' -> "\\";
-		case '/' -> "/";
-		case 'b' -> "\b";
-		case 'f' -> "\f";
-		case 'n' -> "\n";
-		case 'r' -> "\r";
-		case 't' -> "\t";
-		case 'u' -> parseUChar();
-		default -> {
-			throw new InvalidCharacterException("Unknown escape character. ");
+		parseWhitespace();
+
+		if (isEndOfContext()) {
+			throw error(JsonErrorCode.WHITESPACE_ONLY);
 		}
-		};
 		
-		++cur;
-		
-		return result;
+		return;
 	}
-	private String parseNormalChar()
-			throws InvalidCharacterException 
+	/**
+	 * {@code parseEndOfDocument()} checks that nothing but whitespace 
+	 * follows the root item. 
+	 * 
+	 * @throws MissingDelimiterException
+	 * @throws RootNotSingularException
+	 */
+	private void parseEndOfDocument()
+			throws MissingDelimiterException, RootNotSingularException
 	{
-		assert !isEndOfContext();
-		
-		String result = "";
-		
-		char ch = getCurChar();
-		if ((ch >= '\u0000' && ch <= '\u001F') || ch == '\"' || ch == '\\') {
-			throw new InvalidCharacterException("Illegal character detected. "
-							+ "\\u0000 - \\u001F, the backslash and quotation mark "
-							+ "should be entered as escape char.");
-		}
+		if (!isEndOfContext()) {
+			if (!isCurWhitespace()) {
+				throw error(JsonErrorCode.MISSING_WHITESPACE);
+			}
 
-		result += ch;
-		
-		++cur;
+			parseWhitespace();
+		}
 		
-		return result;
+		if (!isEndOfContext()) {
+			/* 
+			 * Private parser functions should NOT deal with this exception.
+			 * Contexts of several JSON items are read by {@code parseDocuments()}.
+			 */
+			throw error(JsonErrorCode.ROOT_NOT_SINGULAR);
+		}
 		
+		return;
 	}
-	private String parseRawString() 
-			throws IncompleteItemException, InvalidCharacterException, MissingEndTagException
+	
+	/* nesting level manipulation methods */
+	/**
+	 * {@code pushFrame()} returns the frame of a new nesting level inside 
+	 * {@code depth} open ones. 
+	 * 
+	 * @param depth
+	 * @return Frame
+	 * @throws MaxDepthExceededException
+	 */
+	private Frame pushFrame(int depth)
+			throws MaxDepthExceededException
 	{
-		assert !isEndOfContext();
-		assert getCurChar() == '\"';
-		++cur;
-		
-		String result = "";
+		if (isDepthExceeded(depth)) {
+			throw error(JsonErrorCode.MAX_DEPTH_EXCEEDED);
+		}
 		
-		for (char ch = '\0'; !isEndOfContext() && (ch = getCurChar()) != '\"'; /* ++cur is done by the subparsers */) {
-			result += switch (ch) {
-			case '\\' -> parseEscapeChar();
-			default -> parseNormalChar();
-			};
+		if (depth == frames.length) {
+			Frame[] grown = new Frame[frames.length * 2];
+			System.arraycopy(frames, 0, grown, 0, frames.length);
+			frames = grown;
+		}
+		if (frames[depth] == null) {
+			frames[depth] = new Frame();
 		}
 		
-		if (isEndOfContext()) {
-			throw new MissingEndTagException("Missing closing quotation mark. ");
+		return frames[depth];
+	}
+	/**
+	 * {@code popFrame()} leaves the container of {@code frame} in 
+	 * {@code value} and drops every reference held by {@code frame}. 
+	 * 
+	 * @param frame
+	 */
+	private void popFrame(Frame frame) {
+		value = (frame.array != null) ? new JsonValue(frame.array) : new JsonValue(frame.object);
+		if (isSpanEnabled) {
+			span = new JsonSpan(frame.start, cur, value, frame.spans);
 		}
-
-		++cur; /* skip ending '\"' */
 		
-		return result;
+		frame.array = null;
+		frame.object = null;
+		frame.key = null;
+		frame.spans = null;
+		
+		return;
 	}
-	private void parseObjectMember(HashMap<String, JsonValue> result)
+	private void parseObjectKey(Frame frame)
 			throws InvalidObjectException,
 					MissingDelimiterException, 
 					IncompleteItemException, 
@@ -362,30 +762,43 @@ public class JsonParser {
 		assert !isEndOfContext();
 		assert getCurChar() == '\"';
 		
-		String key = parseRawString();
-		if (result.containsKey(key)) {
-			throw new InvalidObjectException("Duplicate key items found. ");
+		String key = parseRawKey();
+		if (frame.object.containsKey(key)) {
+			throw error(JsonErrorCode.DUPLICATE_KEY);
 		}
 		
+		parseKeySeparator();
+		
+		frame.key = key;
+		itemProjection = frame.projection.member(key);
+		
+		return;
+	}
+	/**
+	 * {@code parseKeySeparator()} moves the cursor from the end of a key 
+	 * to its value. 
+	 * 
+	 * @throws InvalidObjectException
+	 * @throws MissingDelimiterException
+	 */
+	private void parseKeySeparator()
+			throws InvalidObjectException, MissingDelimiterException
+	{
 		parseWhitespace();
 		if (isEndOfContext()) { // {"key"\t
-			throw new InvalidObjectException("A key requires a corresponding value seqarated by colon. ");
+			throw error(JsonErrorCode.KEY_WITHOUT_COLON);
 		}
 		if (getCurChar() != ':') { // {"key"123
-			throw new MissingDelimiterException("Missing colon. ");
+			throw error(JsonErrorCode.MISSING_COLON);
 		}
 		
 		++cur; /* skip colon */
 		
 		parseWhitespace();
 		if (isEndOfContext()) { // {"key":\t
-			throw new InvalidObjectException("A key requires a corresponding value. ");
+			throw error(JsonErrorCode.KEY_WITHOUT_VALUE);
 		}
 		
-		JsonValue keyValue = parseJson().getValue();
-		
-		result.put(key, (JsonValue)keyValue.clone());
-		
 		return;
 	}
 	
@@ -401,27 +814,9 @@ public class JsonParser {
 	private JsonParser parseNull()
 			throws InvalidLiteralException, IncompleteItemException
 	{
-		assert !isEndOfContext();
-		assert getCurChar() == 'n';
-		/* 
-		 * {@code IndexOutOfBoundsException} may be thrown if {@code cur + 4}
-		 *  is greater than {@code length()} of this string.
-		 */
-		String item = "";
-		try {
-			item = context.substring(cur, cur + 4);
-		}
-		catch (IndexOutOfBoundsException e) {
-			throw new IncompleteItemException("The \"null\" item is incomplete. ");
-		}
-		
-		if (!item.equals("null")) {
-			throw new InvalidLiteralException("Misspelling \"null\" as \""
-					+ item + "\". ");
-		}
+		parseLiteral(JsonType.NULL);
 		
-		value.setValue();
-		cur += 4;
+		value = JsonValue.NULL;
 		
 		return this;
 	}
@@ -436,356 +831,637 @@ public class JsonParser {
 	private JsonParser parseTrue()
 			throws InvalidLiteralException, IncompleteItemException
 	{
-		assert !isEndOfContext();
-		assert getCurChar() == 't';
-		/* 
-		 * {@code IndexOutOfBoundsException} may be thrown if {@code cur + 4}
-		 *  is greater than {@code length()} of this string.
-		 */
-		String item = "";
-		try {
-			item = context.substring(cur, cur + 4);
+		parseLiteral(JsonType.TRUE);
+		
+		value = JsonValue.TRUE;
+		
+		return this;
+	}
+	/**
+	 * {@code parseFalse()} parses {@code JsonType.FALSE}, which in JSON
+	 * context is literally "false".
+	 * 
+	 * @return JsonParser
+	 * @throws InvalidLiteralException
+	 * @throws IncompleteItemException
+	 */
+	private JsonParser parseFalse()
+			throws InvalidLiteralException, IncompleteItemException
+	{
+		parseLiteral(JsonType.FALSE);
+		
+		value = JsonValue.FALSE;
+		
+		return this;
+	}
+	/**
+	 * {@code parseNumber()} parses {@code JsonType.NUMBER}. Integral 
+	 * literals in the range of {@code long} are kept as {@code long} 
+	 * without any conversion; the others are converted to {@code double},
+	 * or to {@code BigDecimal} if out of range and enabled. With lazy 
+	 * numbers, the others are only checked and keep their offsets 
+	 * instead, unless they may be out of range. 
+	 * 
+	 * @return JsonParser
+	 * @throws IncompleteItemException
+	 * @throws InvalidNumberException
+	 */
+	private JsonParser parseNumber()
+			throws IncompleteItemException, InvalidNumberException
+	{
+		long start = cur;
+		
+		if (isLazyNumberEnabled && context.isRetained()) {
+			checkNumberComponents();
+			
+			if (isLongNumber()) {
+				value = new JsonValue(toLong());
+				
+				return this;
+			}
+			if (!isNumberNearOverflow() && !(isBigDecimalEnabled && isIntegralNumber())) {
+				value = new JsonValue(context, start, cur);
+				
+				return this;
+			}
+			
+			cur = start; /* converted at once, from all of its digits */
+		}
+		
+		parseNumberComponents();
+		
+		if (isLongNumber()) {
+			value = new JsonValue(toLong());
+		}
+		else if (!isBigDecimalEnabled) {
+			value = new JsonValue(toNumber(start, cur));
 		}
-		catch (IndexOutOfBoundsException e) {
-			throw new IncompleteItemException("The \"true\" item is incomplete. ");
+		else if (isIntegralNumber()) {
+			value = new JsonValue(toBigDecimal(start, cur));
 		}
-		
-		if (!item.equals("true")) {
-			throw new InvalidLiteralException("Misspelling \"true\" as \""
-						+ item + "\". ");
+		else {
+			double result = convertNumber(start, cur);
+			
+			value = Double.isInfinite(result) ? new JsonValue(toBigDecimal(start, cur)) : new JsonValue(result);
 		}
 		
-		value.setValue(true);
-		cur += 4;
-		
 		return this;
 	}
 	/**
-	 * {@code parseFalse()} parses {@code JsonType.FALSE}, which in JSON
-	 * context is literally "false".
+	 * {@code parseString()} parses {@code JsonType.STRING}. 
 	 * 
 	 * @return JsonParser
-	 * @throws InvalidLiteralException
 	 * @throws IncompleteItemException
+	 * @throws InvalidCharacterException
+	 * @throws MissingEndTagException
 	 */
-	private JsonParser parseFalse()
-			throws InvalidLiteralException, IncompleteItemException
+	private JsonParser parseString()
+			throws IncompleteItemException, InvalidCharacterException, MissingEndTagException
 	{
-		assert !isEndOfContext();
-		assert getCurChar() == 'f';
 		/* 
-		 * {@code IndexOutOfBoundsException} may be thrown if {@code cur + 5}
-		 *  is greater than {@code length()} of this string.
+		 * Only \u0000 - \u001F, \u0022 ('\"') and \u005C ('\\')
+		 * MUST be written in escape char. 
+		 * The other char in \u0020 - \u10FFFF are all legal in JSON string
+		 * but still CAN be written in escape char. 
 		 */
-		String item = "";
-		try {
-			item = context.substring(cur, cur + 5);
-		}
-		catch (IndexOutOfBoundsException e) {
-			throw new IncompleteItemException("The \"false\" item is incomplete. ");
-		}
+		assert !isEndOfContext();
+		assert getCurChar() == '\"';
 		
-		if (!item.equals("false")) {
-			throw new InvalidLiteralException("Misspelling \"false\" as \""
-					+ item + "\". ");
-		}
+		String result = parseRawString();
 		
-		value.setValue(false);
-		cur += 5;
+		value = new JsonValue(result);
 		
 		return this;
 	}
 	/**
-	 * {@code parseLiteral(JsonType)} can deal with {@code JsonType.NULL}, 
-	 * {@code JsonType.TRUE} and {@code JsonType.FALSE}. 
+	 * {@code parseArrayStart()} parses {@code JsonType.ARRAY} up to its 
+	 * first element. An empty array is complete at once and left in 
+	 * {@code value}. 
 	 * 
-	 * @param type
-	 * @return JsonParser
-	 * @throws InvalidLiteralException
-	 * @throws IncompleteItemException
+	 * @param frame
+	 * @param projection
+	 * @return boolean, whether an element follows
+	 * @throws MissingEndTagException
 	 */
-	@SuppressWarnings("unused")
-	private JsonParser parseLiteral(JsonType type) 
-			throws InvalidLiteralException, IncompleteItemException
+	private boolean parseArrayStart(Frame frame, JsonProjection projection)
+			throws MissingEndTagException
 	{
 		assert !isEndOfContext();
-		String typeName = type.toString().toLowerCase();
-		int len = typeName.length();
+		assert getCurChar() == '[';
 		
-		assert getCurChar() == typeName.charAt(0);
-		/* 
-		 * {@code IndexOutOfBoundsException} may be thrown if {@code cur + len}
-		 *  is greater than {@code length()} of this string.
-		 */
-		String item = "";
-		try {
-			item = context.substring(cur, cur + len);
-		}
-		catch (IndexOutOfBoundsException e) {
-			throw new IncompleteItemException("The \"" + typeName + "\" item is incomplete. ");
-		}
+		++cur; /* skip '[' */
 		
-		if (!item.equals(typeName)) {
-			throw new InvalidLiteralException("Misspelling \"" + typeName + "\" as \""
-					+ item + "\". ");
+		parseWhitespace();
+		if (isEndOfContext()) { // [\t
+			throw error(JsonErrorCode.MISSING_BRACKET);
+		}
+		if (getCurChar() == ']') { // Empty array [].
+			++cur;
+			
+			value = new JsonValue(new ArrayList<JsonValue>());
+			
+			return false;
 		}
 		
-		value.clear();
-		value.setType(type);
-		cur += len;
+		frame.array = new ArrayList<JsonValue>();
+		frame.object = null; /* The frame may be left over from a failed parse. */
+		frame.projection = projection;
+		itemProjection = projection.element();
 		
-		return this;
+		return true;
 	}
 	/**
-	 * {@code parseNumber()} parses {@code JsonType.NUMBER}. 
+	 * {@code parseObjectStart()} parses {@code JsonType.OBJECT} up to the
+	 * value of its first member. An empty object is complete at once and
+	 * left in {@code value}. 
 	 * 
-	 * @return JsonParser
-	 * @throws IncompleteItemException
+	 * @param frame
+	 * @param projection
+	 * @return boolean, whether a member value follows
+	 * @throws MissingEndTagException
+	 * @throws InvalidObjectException
 	 */
-	private JsonParser parseNumber()
-			throws IncompleteItemException
+	private boolean parseObjectStart(Frame frame, JsonProjection projection)
+			throws MissingEndTagException, InvalidObjectException
 	{
 		assert !isEndOfContext();
-		assert getCurChar() == '-' || isCurDigit();
+		assert getCurChar() == '{';
 		
-		int tmpCur = cur;
+		++cur; /* skip '{' */
 		
-		if (getCurChar() == '-') {
-			++cur;
+		parseWhitespace();
+		if (isEndOfContext()) { // {\t
+			throw error(JsonErrorCode.MISSING_BRACE);
 		}
 		
-		if (!isEndOfContext() && getCurChar() >= '1' && getCurChar() <= '9') {
-			parseDigitComponent();
-		}
-		else if (!isEndOfContext() && getCurChar() == '0') {
+		char ch = getCurChar();
+		if (ch == '}') { // Empty object {}.
 			++cur;
+			
+			value = new JsonValue(new HashMap<String, JsonValue>());
+			
+			return false;
 		}
-		else { /* "-abcd", "-.3", "-"; positive numbers will never come here. */
-			throw new IncompleteItemException("There is no digit following the negative sign. ");
+		if (ch != '\"') { // {123:456}
+			throw error(JsonErrorCode.KEY_NOT_STRING);
 		}
 		
-		if (!isEndOfContext() && getCurChar() == '.') {
-			parseFractionalComponent();
+		frame.array = null; /* The frame may be left over from a failed parse. */
+		frame.object = new HashMap<String, JsonValue>();
+		frame.projection = projection;
+		parseObjectKey(frame);
+		
+		return true;
+	}
+	/**
+	 * {@code parseNextItem()} hands {@code value}, unless it is 
+	 * {@code null} for a skipped item, over to the container of 
+	 * {@code frame} and parses what follows: either a comma and the 
+	 * start of the next item, or the end of the container, which is then
+	 * left in {@code value}. 
+	 * 
+	 * @param frame
+	 * @return boolean, whether another item follows
+	 * @throws MissingEndTagException
+	 * @throws InvalidArrayException
+	 * @throws InvalidObjectException
+	 */
+	private boolean parseNextItem(Frame frame)
+			throws MissingEndTagException,
+					InvalidArrayException, 
+					InvalidObjectException
+	{ /* {@code parseObjectKey()} ensures that the keys are distinct from each other. */
+		boolean isArray = (frame.array != null);
+		
+		if (value == null) { /* skipped */
+		}
+		else if (isArray) {
+			frame.array.add(value);
+		}
+		else {
+			frame.object.put(frame.key, value);
+		}
+		if (isSpanEnabled) {
+			span.key = isArray ? null : frame.key;
+			frame.spans.add(span);
 		}
 		
-		if (!isEndOfContext() && (getCurChar() == 'e' || getCurChar() == 'E')) {
-			parseExponentComponent();
+		parseWhitespace();
+		if (isEndOfContext()) { // [1,2,3\t or {"key":123
+			throw error(isArray ? JsonErrorCode.MISSING_BRACKET : JsonErrorCode.MISSING_BRACE);
 		}
 		
-		value.setValue(Double.parseDouble(context.substring(tmpCur, cur)));
+		char ch = getCurChar();
+		if (ch == (isArray ? ']' : '}')) {
+			++cur;
+			
+			popFrame(frame);
+			
+			return false;
+		}
+		if (ch != ',') {
+			if (isArray) { // [1,2 \t 3]
+				throw error(JsonErrorCode.ARRAY_MISSING_COMMA);
+			}
+			
+			// {"key":123\t "key2":456}
+			throw error(JsonErrorCode.OBJECT_MISSING_COMMA);
+		}
 		
-		/* 
-		 * -0.0 is less than 0.0 in Java Double type, which is not the case
-		 * in JSON. Here we change signed 0s to positive 0s.
-		 */
-		double cache = value.getNum();
+		++cur; /* skip comma */
 		
-		if (cache == -0.0) {
-			value.setNum(0.0);
+		parseWhitespace();
+		if (isEndOfContext() || getCurChar() == (isArray ? ']' : '}')) { // [1,2,\t or {"key":123,\t}
+			if (isArray) {
+				throw error(JsonErrorCode.ARRAY_ENDING_COMMA);
+			}
+			
+			throw error(JsonErrorCode.OBJECT_ENDING_COMMA);
 		}
-
-		if (cache == Double.POSITIVE_INFINITY || cache == Double.NEGATIVE_INFINITY) {
-			throw new InvalidNumberException("The absolute value is too large. ");
+		if (!isArray) {
+			if (getCurChar() != '\"') { // {"key":123,456}
+				throw error(JsonErrorCode.KEY_NOT_STRING);
+			}
+			
+			parseObjectKey(frame);
+		}
+		else {
+			itemProjection = frame.projection.element();
 		}
 		
-		return this;
+		return true;
 	}
 	/**
-	 * {@code parseString()} parses {@code JsonType.STRING}. 
+	 * {@code skipValue()} moves the cursor past the value at the cursor 
+	 * without building it. Scalars are checked as usual, but strings are
+	 * not decoded; arrays and objects are only matched up to their ends. 
 	 * 
-	 * @return JsonParser
-	 * @throws IncompleteItemException
-	 * @throws InvalidCharacterException
 	 * @throws MissingEndTagException
+	 * @throws InvalidValueException
 	 */
-	private JsonParser parseString()
-			throws IncompleteItemException, InvalidCharacterException, MissingEndTagException
+	private void skipValue()
+			throws MissingEndTagException, InvalidValueException
 	{
-		/* 
-		 * Only \u0000 - \u001F, \u0022 ('\"') and \u005C ('\\')
-		 * MUST be written in escape char. 
-		 * The other char in \u0020 - \u10FFFF are all legal in JSON string
-		 * but still CAN be written in escape char. 
-		 */
-		assert !isEndOfContext();
-		assert getCurChar() == '\"';
-		
-		String result = parseRawString();
-		
-		value.setValue(result);
+		switch (getCurChar()) {
+		case 'n':
+			parseLiteral(JsonType.NULL);
+			break;
+		case 't':
+			parseLiteral(JsonType.TRUE);
+			break;
+		case 'f':
+			parseLiteral(JsonType.FALSE);
+			break;
+		case '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9':
+			validateNumber(); /* checked, and converted only if it may overflow */
+			break;
+		case '\"':
+			skipRawString();
+			break;
+		case '[', '{':
+			long end = context.skipContainer(cur);
+			
+			if (end < 0) {
+				throw error(getCurChar() == '[' ? JsonErrorCode.MISSING_BRACKET : JsonErrorCode.MISSING_BRACE);
+			}
+			cur = end;
+			break;
+		default:
+			throw error(JsonErrorCode.INVALID_VALUE);
+		}
 		
-		return this;
+		return;
 	}
 	/**
-	 * {@code parseArray()} parses {@code JsonType.ARRAY}. 
+	 * {@code parseJson()} parses a single JSON format string into JsonValue
+	 * and leaves it in {@code value}. 
 	 * 
+	 * The parser does not recurse into arrays and objects. Each open one
+	 * is kept in {@code frames} until it ends, so nesting is only limited
+	 * by {@code maxDepth} and never overflows the Java stack. Every node
+	 * is built once and handed over to its container as is. 
+	 * 
+	 * @param baseDepth the number of arrays and objects around the value
 	 * @return JsonParser
-	 * @throws MissingEndTagException
 	 * @throws InvalidValueException
 	 * @throws ExpectValueException
-	 * @throws IndexOutOfBoundsException
-	 * @throws InvalidArrayException
+	 * @throws MaxDepthExceededException
 	 */
-	private JsonParser parseArray() 
-			throws MissingEndTagException,
-					InvalidArrayException, 
-					InvalidValueException, 
-					ExpectValueException
+	private JsonParser parseJson(int baseDepth)
+			throws InvalidValueException, 
+					ExpectValueException, 
+					MaxDepthExceededException
 	{
-		assert !isEndOfContext();
-		assert getCurChar() == '[';
+		int depth = baseDepth; /* the number of open arrays and objects */
 		
-		ArrayList<JsonValue> result = new ArrayList<JsonValue>();
-		char ch = '\0';
-		
-		do {
-			++cur; /* skip comma or '[' */
+		itemProjection = projection; /* Slices of a root array are never projected. */
+		while (true) {
+			assert !isEndOfContext();
+			context.release(cur); /* Nothing before this item is accessed any more. */
 			
-			parseWhitespace();
-			if (isEndOfContext()) {
-				if (result.size() == 0) { // [\t
-					throw new MissingEndTagException("Missing ending bracket. ");
-				}
+			boolean isOpened = false;
+			JsonProjection selected = itemProjection;
+			long start = cur;
+			char ch = getCurChar();
+			
+			if (depth > baseDepth 
+					&& (selected == null || (!selected.isComplete() && ch != '[' && ch != '{'))) {
+				skipValue();
 				
-				// [1,2,\t
-				throw new InvalidArrayException("JSON dose not allow ending commas. ");
-			}
-			ch = getCurChar(); /* This line is necessary for the empty array [] to pass the test.
-			 					* Empty array will invoke {@code break}, and the {@code while}
-			 					* statement will not be triggered, so we must {@code getCurChar()}
-			 					* here before the empty array goes out of {@code do...while}. */
-			if (ch == ']') {
-				if (result.size() != 0) { // [1,2,]
-					throw new InvalidArrayException("JSON dose not allow ending commas. ");
+				value = null; /* nothing to hand over to the container */
+			}
+			else {
+				switch (ch) {
+				case 'n':
+					parseNull();
+					break;
+				case 't':
+					parseTrue();
+					break;
+				case 'f':
+					parseFalse();
+					break;
+				case '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9':
+					parseNumber();
+					break;
+				case '\"':
+					parseString();
+					break;
+				case '[':
+					isOpened = parseArrayStart(pushFrame(depth), selected);
+					break;
+				case '{':
+					isOpened = parseObjectStart(pushFrame(depth), selected);
+					break;
+				default:
+					throw error(JsonErrorCode.INVALID_VALUE);
+				}
+			}
+			
+			if (isOpened) {
+				if (isSpanEnabled) {
+					frames[depth].start = start;
+					frames[depth].spans = new ArrayList<JsonSpan>();
 				}
 				
-				break; // Empty array [].
+				++depth;
+				continue; /* parse the first item */
+			}
+			if (isSpanEnabled) { /* a scalar, or an empty array or object */
+				span = new JsonSpan(start, cur, value, (ch == '[' || ch == '{') ? new ArrayList<JsonSpan>(0) : null);
 			}
 			
-			result.add((JsonValue)(parseJson().getValue().clone()));
+			/* {@code value} is complete: close every container ending right after it. */
+			while (depth > baseDepth && !parseNextItem(frames[depth - 1])) {
+				--depth;
+			}
 			
-			parseWhitespace();
-			if (isEndOfContext()) { // [1,2,3\t
-				throw new MissingEndTagException("Missing ending bracket. ");
+			if (depth == baseDepth) {
+				return this;
 			}
 		}
-		while ((ch = getCurChar()) == ',');
+	}
+	
+	/* JSON item validators */
+	/**
+	 * {@code validateNumber()} checks {@code JsonType.NUMBER} as 
+	 * {@code parseNumber()} does. Only numbers that may be out of the 
+	 * range of {@code double} are converted, to {@code BigDecimal} if 
+	 * enabled and needed. 
+	 * 
+	 * @throws IncompleteItemException
+	 * @throws InvalidNumberException
+	 */
+	private void validateNumber()
+			throws IncompleteItemException, InvalidNumberException
+	{
+		long start = cur;
 		
-		if (ch != ']' ) { // [1,2 \t 3]
-			throw new InvalidArrayException("Missing comma. ");
+		checkNumberComponents();
+		
+		if (isNumberNearOverflow()) {
+			cur = start;
+			parseNumberComponents();
+			
+			if (!isBigDecimalEnabled) {
+				toNumber(start, cur);
+			}
+			else if (Double.isInfinite(convertNumber(start, cur))) {
+				toBigDecimal(start, cur);
+			}
 		}
 		
-		++cur;
+		return;
+	}
+	/**
+	 * {@code validateObjectKey()} checks the key starting at the current 
+	 * quotation mark against the other keys of the object of 
+	 * {@code frame}, and moves the cursor to its value. 
+	 * 
+	 * @param frame
+	 * @throws InvalidObjectException
+	 * @throws MissingDelimiterException
+	 */
+	private void validateObjectKey(Frame frame)
+			throws InvalidObjectException, MissingDelimiterException
+	{
+		assert !isEndOfContext();
+		assert getCurChar() == '\"';
+		
+		String key = parseRawKey();
+		if (frame.keyCount < SMALL_OBJECT_SIZE) {
+			for (int index = 0; index < frame.keyCount; ++index) {
+				if (frame.keys[index].equals(key)) {
+					throw error(JsonErrorCode.DUPLICATE_KEY);
+				}
+			}
+			
+			frame.keys[frame.keyCount] = key;
+		}
+		else {
+			if (frame.keyCount == SMALL_OBJECT_SIZE) {
+				frame.keySet.clear();
+				for (String small : frame.keys) {
+					frame.keySet.add(small);
+				}
+			}
+			if (!frame.keySet.add(key)) {
+				throw error(JsonErrorCode.DUPLICATE_KEY);
+			}
+		}
+		++frame.keyCount;
 		
-		value.setValue(result);
+		parseKeySeparator();
 		
-		return this;
+		return;
 	}
 	/**
-	 * {@code parseObject()} parses {@code JsonType.OBJECT}.
+	 * {@code validateContainerStart()} checks an array or object up to its
+	 * first item, as {@code parseArrayStart()} and 
+	 * {@code parseObjectStart()} do. 
 	 * 
-	 * @return JsonValue
+	 * @param frame
+	 * @param isArray
+	 * @return boolean, whether an item follows
 	 * @throws MissingEndTagException
 	 * @throws InvalidObjectException
-	 * @throws InvalidValueException
-	 * @throws ExpectValueException
 	 */
-	private JsonParser parseObject()
-			throws MissingEndTagException,
-					InvalidObjectException, 
-					InvalidValueException, 
-					ExpectValueException
-	{ /* {@code parseObjectMember()} ensures that the keys are distinct from each other. */
-		assert !isEndOfContext();
-		assert getCurChar() == '{';
+	private boolean validateContainerStart(Frame frame, boolean isArray)
+			throws MissingEndTagException, InvalidObjectException
+	{
+		++cur; /* skip '[' or '{' */
 		
-		HashMap<String, JsonValue> result = new HashMap<String, JsonValue>();
-		char ch = '\0';
+		parseWhitespace();
+		if (isEndOfContext()) { // [\t or {\t
+			throw error(isArray ? JsonErrorCode.MISSING_BRACKET : JsonErrorCode.MISSING_BRACE);
+		}
 		
-		do {
-			++cur; /* skip comma or '{' */
+		char ch = getCurChar();
+		if (ch == (isArray ? ']' : '}')) { // Empty array or object.
+			++cur;
 			
-			parseWhitespace();
-			if (isEndOfContext()) {
-				if (result.size() == 0) { // {\t
-					throw new MissingEndTagException("Missing ending brace. ");
-				}
-				
-				// {"key":123,\t
-				throw new InvalidObjectException("JSON dose not allow ending commas. ");
-			}
-			ch = getCurChar();/* This line is necessary for the empty object {} to pass the test.
-							   * Empty object will invoke {@code break}, and the {@code while}
-							   * statement will not be triggered, so we must {@code getCurChar()}
-							   * here before the empty object goes out of {@code do...while}. */
-			if (ch == '}') {
-				if (result.size() != 0) { // {"key":123,\t}
-					throw new InvalidObjectException("JSON dose not allow ending commas. ");
-				}
-				
-				break; // Empty object {}.
-			}
+			return false;
+		}
+		
+		frame.isArray = isArray;
+		if (!isArray) {
 			if (ch != '\"') { // {123:456}
-				throw new InvalidObjectException("Object key must be a string surrounded by quotation marks. ");
+				throw error(JsonErrorCode.KEY_NOT_STRING);
 			}
 			
-			parseObjectMember(result);
-			
-			parseWhitespace();
-			if (isEndOfContext()) { // {"key":123
-				throw new MissingEndTagException("Missing ending brace. ");
+			if (frame.keys == null) {
+				frame.keys = new String[SMALL_OBJECT_SIZE];
+				frame.keySet = new HashSet<String>();
 			}
+			frame.keyCount = 0;
+			validateObjectKey(frame);
 		}
-		while ((ch = getCurChar()) == ',');
 		
-		if (ch != '}' ) { // {"key":123\t "key2":456}
-			throw new InvalidObjectException("Missing comma. ");
+		return true;
+	}
+	/**
+	 * {@code validateNextItem()} checks what follows an item of the array
+	 * or object of {@code frame}, as {@code parseNextItem()} does. 
+	 * 
+	 * @param frame
+	 * @return boolean, whether another item follows
+	 * @throws MissingEndTagException
+	 * @throws InvalidArrayException
+	 * @throws InvalidObjectException
+	 */
+	private boolean validateNextItem(Frame frame)
+			throws MissingEndTagException,
+					InvalidArrayException, 
+					InvalidObjectException
+	{
+		boolean isArray = frame.isArray;
+		
+		parseWhitespace();
+		if (isEndOfContext()) { // [1,2,3\t or {"key":123
+			throw error(isArray ? JsonErrorCode.MISSING_BRACKET : JsonErrorCode.MISSING_BRACE);
 		}
 		
-		++cur;
+		char ch = getCurChar();
+		if (ch == (isArray ? ']' : '}')) {
+			++cur;
+			
+			if (!isArray) { /* Do not keep the keys alive. */
+				Arrays.fill(frame.keys, 0, Math.min(frame.keyCount, SMALL_OBJECT_SIZE), null);
+				if (frame.keyCount > SMALL_OBJECT_SIZE) {
+					frame.keySet.clear();
+				}
+			}
+			
+			return false;
+		}
+		if (ch != ',') {
+			if (isArray) { // [1,2 \t 3]
+				throw error(JsonErrorCode.ARRAY_MISSING_COMMA);
+			}
+			
+			// {"key":123\t "key2":456}
+			throw error(JsonErrorCode.OBJECT_MISSING_COMMA);
+		}
 		
-		value.setValue(result);
+		++cur; /* skip comma */
 		
-		return this;
+		parseWhitespace();
+		if (isEndOfContext() || getCurChar() == (isArray ? ']' : '}')) { // [1,2,\t or {"key":123,\t}
+			if (isArray) {
+				throw error(JsonErrorCode.ARRAY_ENDING_COMMA);
+			}
+			
+			throw error(JsonErrorCode.OBJECT_ENDING_COMMA);
+		}
+		if (!isArray) {
+			if (getCurChar() != '\"') { // {"key":123,456}
+				throw error(JsonErrorCode.KEY_NOT_STRING);
+			}
+			
+			validateObjectKey(frame);
+		}
+		
+		return true;
 	}
 	/**
-	 * {@code parseJson()} parses a single JSON format string into JsonValue. 
+	 * {@code validateJson()} checks a single JSON item as 
+	 * {@code parseJson(0)} does, in the same order, without building it.
 	 * 
-	 * @return JsonParser
 	 * @throws InvalidValueException
 	 * @throws ExpectValueException
+	 * @throws MaxDepthExceededException
 	 */
-	private JsonParser parseJson()
-			throws InvalidValueException, ExpectValueException
+	private void validateJson()
+			throws InvalidValueException, 
+					ExpectValueException, 
+					MaxDepthExceededException
 	{
-		assert !isEndOfContext();
+		int depth = 0; /* the number of open arrays and objects */
 		
-		switch (getCurChar()) {
-		case 'n':
-			parseNull();
-			break;
-		case 't':
-			parseTrue();
-			break;
-		case 'f':
-			parseFalse();
-			break;
-		case '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9':
-			parseNumber();
-			break;
-		case '\"':
-			parseString();
-			break;
-		case '[':
-			parseArray();
-			break;
-		case '{':
-			parseObject();
-			break;
-		default:
-			throw new InvalidValueException("Invalid JSON context. ");
+		while (true) {
+			assert !isEndOfContext();
+			context.release(cur); /* Nothing before this item is accessed any more. */
+			
+			boolean isOpened = false;
+			
+			switch (getCurChar()) {
+			case 'n':
+				parseLiteral(JsonType.NULL);
+				break;
+			case 't':
+				parseLiteral(JsonType.TRUE);
+				break;
+			case 'f':
+				parseLiteral(JsonType.FALSE);
+				break;
+			case '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9':
+				validateNumber();
+				break;
+			case '\"':
+				skipRawString();
+				break;
+			case '[':
+				isOpened = validateContainerStart(pushFrame(depth), true);
+				break;
+			case '{':
+				isOpened = validateContainerStart(pushFrame(depth), false);
+				break;
+			default:
+				throw error(JsonErrorCode.INVALID_VALUE);
+			}
+			
+			if (isOpened) {
+				++depth;
+				continue; /* check the first item */
+			}
+			
+			while (depth > 0 && !validateNextItem(frames[depth - 1])) {
+				--depth;
+			}
+			
+			if (depth == 0) {
+				return;
+			}
 		}
-		
-		return this;
 	}
 }
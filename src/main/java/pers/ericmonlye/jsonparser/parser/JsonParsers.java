@@ -0,0 +1,111 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+/**
+ * {@code JsonParsers} parses batches of independent JSON contexts on 
+ * every core. It is thread-safe. 
+ * 
+ * A {@code JsonParser} holds the state of a single parse, so it cannot 
+ * be shared between threads. Instead, each thread of 
+ * {@code ForkJoinPool.commonPool()} keeps its own parser, whose buffers 
+ * stay warm from one context to the next, and from one batch to the 
+ * next. The parser is cleared after each context, so that it keeps 
+ * neither the context nor the tree alive. 
+ */
+public final class JsonParsers {
+	private static final ThreadLocal<JsonParser> PARSERS = ThreadLocal.withInitial(JsonParser::new);
+	
+	/* constructors */
+	private JsonParsers() {
+	}
+	
+	/* user APIs */
+	/**
+	 * {@code parseAll(Collection)} parses every context of 
+	 * {@code contexts} in parallel, with the default options of 
+	 * {@code JsonParser}. The items are returned in the order of 
+	 * {@code contexts}. 
+	 * 
+	 * If some contexts are malformed, all of them are still parsed, then
+	 * the exception of the first malformed one is thrown. 
+	 * 
+	 * @param contexts
+	 * @return JsonBatch
+	 * @throws JsonParserException
+	 */
+	public static JsonBatch parseAll(Collection<String> contexts)
+			throws JsonParserException
+	{
+		String[] array = contexts.toArray(new String[0]);
+		long length = 0L;
+		for (String context : array) {
+			length += context.length();
+		}
+		
+		return parseAll(array, length, (parser, context) -> parser.parse(context));
+	}
+	/**
+	 * {@code parseAll(Stream)} parses every UTF-8 encoded context of 
+	 * {@code contexts} in place, the same way as 
+	 * {@code parseAll(Collection)}. {@code contexts} is consumed before 
+	 * the parse begins. 
+	 * 
+	 * @param contexts
+	 * @return JsonBatch
+	 * @throws JsonParserException
+	 */
+	public static JsonBatch parseAll(Stream<byte[]> contexts)
+			throws JsonParserException
+	{
+		byte[][] array = contexts.toArray(byte[][]::new);
+		long length = 0L;
+		for (byte[] context : array) {
+			length += context.length;
+		}
+		
+		return parseAll(array, length, (parser, context) -> parser.parse(context));
+	}
+	
+	/* batch parser */
+	@FunctionalInterface
+	private interface Parse<T> {
+		JsonParser apply(JsonParser parser, T context);
+	}
+	private static <T> JsonBatch parseAll(T[] contexts, long length, Parse<T> parse)
+			throws JsonParserException
+	{
+		JsonValue[] values = new JsonValue[contexts.length];
+		JsonParserException[] errors = new JsonParserException[contexts.length];
+		long start = System.nanoTime();
+		
+		IntStream.range(0, contexts.length).parallel().forEach(index -> {
+			JsonParser parser = PARSERS.get();
+			
+			try {
+				values[index] = parse.apply(parser, contexts[index]).getValue();
+			}
+			catch (JsonParserException e) {
+				errors[index] = e;
+			}
+			finally {
+				parser.clear();
+			}
+		});
+		
+		long elapsedNanos = System.nanoTime() - start;
+		
+		for (JsonParserException error : errors) {
+			if (error != null) {
+				throw error;
+			}
+		}
+		
+		return new JsonBatch(Arrays.asList(values), length, elapsedNanos);
+	}
+}
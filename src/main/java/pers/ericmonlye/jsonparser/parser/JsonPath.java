@@ -0,0 +1,735 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@code JsonPath} is a JSONPath query compiled once and evaluated
+ * against any number of {@code JsonValue} trees.
+ *
+ * The supported subset follows RFC 9535. A query starts with {@code $},
+ * the root, and is followed by segments:
+ * <ul>
+ * <li>{@code .name}, {@code .*} and {@code [selectors]}, which select
+ * children of the current nodes;</li>
+ * <li>{@code ..name}, {@code ..*} and {@code ..[selectors]}, which
+ * select descendants of the current nodes, themselves included.</li>
+ * </ul>
+ * Selectors are separated by commas: names {@code 'name'} or
+ * {@code "name"}, the wildcard {@code *}, indexes {@code 2} and
+ * {@code -1}, slices {@code start:end:step} and filters
+ * {@code ?(expression)}. A filter keeps the children for which the
+ * expression holds; it compares paths from the child {@code @} or the
+ * root {@code $}, made of names and indexes only, with each other or
+ * with literals by {@code ==, !=, <, <=, >, >=}, tests a path for
+ * existence, and combines them by {@code &&, ||, !} and parentheses.
+ * For example {@code $.items[?(@.price < 10 && @.tags[0] == 'new')].sku}.
+ *
+ * Members of objects are selected in the iteration order of their
+ * {@code HashMap}. A query is immutable, so it may be shared by threads.
+ */
+public final class JsonPath {
+	/* comparison operators */
+	private static final int EQUAL = 0;
+	private static final int NOT_EQUAL = 1;
+	private static final int LESS = 2;
+	private static final int LESS_EQUAL = 3;
+	private static final int GREATER = 4;
+	private static final int GREATER_EQUAL = 5;
+
+	private final String path;
+	private final Segment[] segments;
+
+	/* compiled query */
+	/**
+	 * {@code Selector} adds the children of {@code node} it selects to
+	 * {@code result}.
+	 */
+	private interface Selector {
+		void select(JsonValue root, JsonValue node, List<JsonValue> result);
+	}
+	/**
+	 * {@code Segment} applies its selectors to every current node, or to
+	 * every node of their subtrees if it is a descendant segment.
+	 */
+	private static final class Segment {
+		final Selector[] selectors;
+		final boolean isDescendant;
+
+		Segment(Selector[] selectors, boolean isDescendant) {
+			this.selectors = selectors;
+			this.isDescendant = isDescendant;
+		}
+	}
+	/**
+	 * {@code Condition} is a compiled filter expression, tested against a
+	 * child {@code current} of a node of the tree {@code root}.
+	 */
+	private interface Condition {
+		boolean test(JsonValue root, JsonValue current);
+	}
+	/**
+	 * {@code Operand} is a side of a comparison: a literal or a singular
+	 * path. It evaluates to {@code null} if the path selects nothing.
+	 */
+	private interface Operand {
+		JsonValue evaluate(JsonValue root, JsonValue current);
+	}
+
+	/* constructors */
+	private JsonPath(String path, Segment[] segments) {
+		this.path = path;
+		this.segments = segments;
+	}
+
+	/* user APIs */
+	/**
+	 * {@code compile()} compiles {@code path}.
+	 *
+	 * @param path
+	 * @return JsonPath
+	 * @throws IllegalArgumentException if the path is malformed or out of
+	 * 			the supported subset
+	 */
+	public static JsonPath compile(String path)
+			throws IllegalArgumentException
+	{
+		return new JsonPath(path, new Compiler(path).compileQuery());
+	}
+	/**
+	 * {@code select()} returns the nodes of {@code root} selected by this
+	 * query, in order. Nothing is copied: the nodes belong to the tree.
+	 *
+	 * @param root
+	 * @return List
+	 */
+	public List<JsonValue> select(JsonValue root) {
+		List<JsonValue> nodes = new ArrayList<JsonValue>();
+		nodes.add(root);
+
+		for (Segment segment : segments) {
+			List<JsonValue> selected = new ArrayList<JsonValue>();
+
+			for (JsonValue node : nodes) {
+				if (segment.isDescendant) {
+					selectDescendants(root, node, segment.selectors, selected);
+				}
+				else {
+					for (Selector selector : segment.selectors) {
+						selector.select(root, node, selected);
+					}
+				}
+			}
+			nodes = selected;
+		}
+
+		return nodes;
+	}
+	/**
+	 * {@code selectFirst()} returns the first node selected by this query,
+	 * or {@code null} if there is none.
+	 *
+	 * @param root
+	 * @return JsonValue
+	 */
+	public JsonValue selectFirst(JsonValue root) {
+		List<JsonValue> nodes = select(root);
+
+		return nodes.isEmpty() ? null : nodes.get(0);
+	}
+
+	/* evaluation methods */
+	/**
+	 * {@code selectDescendants()} applies {@code selectors} to
+	 * {@code node} and each of its descendants, in document order. The
+	 * subtree is walked with an explicit stack, so that deep trees do not
+	 * overflow the Java stack.
+	 *
+	 * @param root
+	 * @param node
+	 * @param selectors
+	 * @param result
+	 */
+	private static void selectDescendants(JsonValue root, JsonValue node, Selector[] selectors, List<JsonValue> result) {
+		ArrayDeque<JsonValue> pending = new ArrayDeque<JsonValue>();
+		pending.push(node);
+
+		while (!pending.isEmpty()) {
+			JsonValue visited = pending.pop();
+
+			for (Selector selector : selectors) {
+				selector.select(root, visited, result);
+			}
+
+			List<JsonValue> children = new ArrayList<JsonValue>(children(visited));
+			for (int index = children.size() - 1; index >= 0; --index) {
+				pending.push(children.get(index));
+			}
+		}
+
+		return;
+	}
+	private static Collection<JsonValue> children(JsonValue node) {
+		switch (node.getType()) {
+		case ARRAY:
+			return node.getArr();
+		case OBJECT:
+			return node.getObj().values();
+		default:
+			return List.of();
+		}
+	}
+	/**
+	 * {@code compare()} applies {@code operator} to two operands, either
+	 * of which may be {@code null} when its path selects nothing. Only
+	 * two missing values are equal to each other, and only numbers and
+	 * strings are ordered.
+	 *
+	 * @param left
+	 * @param operator
+	 * @param right
+	 * @return boolean
+	 */
+	private static boolean compare(JsonValue left, int operator, JsonValue right) {
+		switch (operator) {
+		case EQUAL:
+			return isEqual(left, right);
+		case NOT_EQUAL:
+			return !isEqual(left, right);
+		case LESS:
+			return isLess(left, right);
+		case LESS_EQUAL:
+			return isLess(left, right) || isEqual(left, right);
+		case GREATER:
+			return isLess(right, left);
+		case GREATER_EQUAL:
+			return isLess(right, left) || isEqual(left, right);
+		default:
+			throw new IllegalStateException("Unknown comparison operator. ");
+		}
+	}
+	private static boolean isEqual(JsonValue left, JsonValue right) {
+		return (left == null || right == null) ? left == right : left.equals(right);
+	}
+	private static boolean isLess(JsonValue left, JsonValue right) {
+		if (left == null || right == null || left.getType() != right.getType()) {
+			return false;
+		}
+
+		switch (left.getType()) {
+		case NUMBER:
+			return left.compareNumber(right) < 0;
+		case STRING:
+			return left.getStr().compareTo(right.getStr()) < 0;
+		default:
+			return false;
+		}
+	}
+
+	/* selectors */
+	private static Selector name(String name) {
+		return (root, node, result) -> {
+			if (node.getType() == JsonType.OBJECT) {
+				JsonValue member = node.getObjValue(name);
+
+				if (member != null) {
+					result.add(member);
+				}
+			}
+		};
+	}
+	private static Selector wildcard() {
+		return (root, node, result) -> {
+			if (node.getType() == JsonType.ARRAY) {
+				result.addAll(node.getArr());
+			}
+			else if (node.getType() == JsonType.OBJECT) {
+				result.addAll(node.getObj().values());
+			}
+		};
+	}
+	private static Selector index(int index) {
+		return (root, node, result) -> {
+			if (node.getType() == JsonType.ARRAY) {
+				int size = node.getArr().size();
+				int element = (index < 0) ? size + index : index;
+
+				if (element >= 0 && element < size) {
+					result.add(node.getArrElem(element));
+				}
+			}
+		};
+	}
+	/**
+	 * {@code slice()} selects the elements from {@code start} up to
+	 * {@code end}, excluded, every {@code step} elements. Negative bounds
+	 * count from the end, and {@code null} bounds stand for the whole
+	 * array in the direction of {@code step}.
+	 *
+	 * @param start
+	 * @param end
+	 * @param step
+	 * @return Selector
+	 */
+	private static Selector slice(Integer start, Integer end, int step) {
+		return (root, node, result) -> {
+			if (node.getType() != JsonType.ARRAY || step == 0) {
+				return;
+			}
+
+			ArrayList<JsonValue> elements = node.getArr();
+			int size = elements.size();
+
+			if (step > 0) {
+				int lower = bound(start, 0, size, 0, size);
+				int upper = bound(end, size, size, 0, size);
+
+				for (int element = lower; element < upper; element += step) {
+					result.add(elements.get(element));
+				}
+			}
+			else {
+				int upper = bound(start, size - 1, size, -1, size - 1);
+				int lower = bound(end, -size - 1, size, -1, size - 1);
+
+				for (int element = upper; element > lower; element += step) {
+					result.add(elements.get(element));
+				}
+			}
+		};
+	}
+	private static int bound(Integer value, int byDefault, int size, int min, int max) {
+		long normalized = (value == null) ? byDefault : (value < 0) ? (long)size + value : value;
+
+		return (int)Math.max(min, Math.min(max, normalized));
+	}
+	private static Selector filter(Condition condition) {
+		return (root, node, result) -> {
+			for (JsonValue child : children(node)) {
+				if (condition.test(root, child)) {
+					result.add(child);
+				}
+			}
+		};
+	}
+
+	/**
+	 * {@code Compiler} reads a query with a cursor, by recursive descent.
+	 */
+	private static final class Compiler {
+		private final String path;
+		private int pos;
+
+		Compiler(String path) {
+			this.path = path;
+			this.pos = 0;
+		}
+
+		Segment[] compileQuery() {
+			expect('$');
+
+			ArrayList<Segment> segments = new ArrayList<Segment>();
+			while (pos < path.length()) {
+				segments.add(compileSegment());
+			}
+
+			return segments.toArray(new Segment[0]);
+		}
+		private Segment compileSegment() {
+			if (path.startsWith("..", pos)) {
+				pos += 2;
+
+				return new Segment(compileSelectors(peek() == '['), true);
+			}
+			if (peek() == '.') {
+				++pos;
+
+				return new Segment(compileSelectors(false), false);
+			}
+			if (peek() == '[') {
+				return new Segment(compileSelectors(true), false);
+			}
+
+			throw invalid();
+		}
+		/**
+		 * {@code compileSelectors()} reads a bracketed list of selectors,
+		 * or the single name or wildcard after a dot.
+		 */
+		private Selector[] compileSelectors(boolean isBracketed) {
+			if (!isBracketed) {
+				if (peek() == '*') {
+					++pos;
+
+					return new Selector[] {wildcard()};
+				}
+
+				return new Selector[] {name(readName())};
+			}
+
+			expect('[');
+
+			ArrayList<Selector> selectors = new ArrayList<Selector>();
+			do {
+				skipBlanks();
+				selectors.add(compileSelector());
+				skipBlanks();
+			} while (accept(','));
+			expect(']');
+
+			return selectors.toArray(new Selector[0]);
+		}
+		private Selector compileSelector() {
+			char ch = peek();
+
+			if (ch == '\'' || ch == '\"') {
+				return name(readString());
+			}
+			if (ch == '*') {
+				++pos;
+
+				return wildcard();
+			}
+			if (ch == '?') {
+				++pos;
+				skipBlanks();
+
+				return filter(compileOr());
+			}
+
+			Integer start = readInteger();
+			skipBlanks();
+			if (!accept(':')) {
+				if (start == null) {
+					throw invalid();
+				}
+
+				return index(start);
+			}
+
+			skipBlanks();
+			Integer end = readInteger();
+			skipBlanks();
+
+			int step = 1;
+			if (accept(':')) {
+				skipBlanks();
+				Integer given = readInteger();
+
+				step = (given != null) ? given : 1;
+			}
+
+			return slice(start, end, step);
+		}
+
+		/* filter expressions */
+		private Condition compileOr() {
+			Condition condition = compileAnd();
+
+			for (skipBlanks(); path.startsWith("||", pos); skipBlanks()) {
+				pos += 2;
+
+				Condition left = condition;
+				Condition right = compileAnd();
+				condition = (root, current) -> left.test(root, current) || right.test(root, current);
+			}
+
+			return condition;
+		}
+		private Condition compileAnd() {
+			Condition condition = compileUnary();
+
+			for (skipBlanks(); path.startsWith("&&", pos); skipBlanks()) {
+				pos += 2;
+
+				Condition left = condition;
+				Condition right = compileUnary();
+				condition = (root, current) -> left.test(root, current) && right.test(root, current);
+			}
+
+			return condition;
+		}
+		private Condition compileUnary() {
+			skipBlanks();
+
+			if (peek() == '!' && !path.startsWith("!=", pos)) {
+				++pos;
+
+				Condition negated = compileUnary();
+
+				return (root, current) -> !negated.test(root, current);
+			}
+			if (accept('(')) {
+				Condition grouped = compileOr();
+
+				skipBlanks();
+				expect(')');
+
+				return grouped;
+			}
+
+			return compileComparison();
+		}
+		private Condition compileComparison() {
+			boolean isPath = (peek() == '@' || peek() == '$');
+			Operand left = compileOperand();
+
+			skipBlanks();
+			int operator = readOperator();
+			if (operator < 0) {
+				if (!isPath) { /* a literal alone is not a condition */
+					throw invalid();
+				}
+
+				return (root, current) -> left.evaluate(root, current) != null;
+			}
+
+			skipBlanks();
+			Operand right = compileOperand();
+
+			return (root, current) -> compare(left.evaluate(root, current), operator, right.evaluate(root, current));
+		}
+		private int readOperator() {
+			String[] operators = {"==", "!=", "<=", ">=", "<", ">"};
+			int[] codes = {EQUAL, NOT_EQUAL, LESS_EQUAL, GREATER_EQUAL, LESS, GREATER};
+
+			for (int index = 0; index < operators.length; ++index) {
+				if (path.startsWith(operators[index], pos)) {
+					pos += operators[index].length();
+
+					return codes[index];
+				}
+			}
+
+			return -1;
+		}
+		/**
+		 * {@code compileOperand()} reads a literal, or a singular path made
+		 * of names and indexes from {@code @} or {@code $}.
+		 */
+		private Operand compileOperand() {
+			char ch = peek();
+
+			if (ch == '@' || ch == '$') {
+				boolean isRelative = (ch == '@');
+				ArrayList<Object> steps = new ArrayList<Object>(); /* names and indexes */
+
+				for (++pos; peek() == '.' || peek() == '['; ) {
+					if (accept('.')) {
+						steps.add(readName());
+						continue;
+					}
+
+					expect('[');
+					skipBlanks();
+					if (peek() == '\'' || peek() == '\"') {
+						steps.add(readString());
+					}
+					else {
+						Integer index = readInteger();
+
+						if (index == null) {
+							throw invalid();
+						}
+						steps.add(index);
+					}
+					skipBlanks();
+					expect(']');
+				}
+
+				Object[] compiled = steps.toArray();
+				return (root, current) -> walk(isRelative ? current : root, compiled);
+			}
+
+			JsonValue literal = readLiteral();
+			return (root, current) -> literal;
+		}
+		private JsonValue readLiteral() {
+			char ch = peek();
+
+			if (ch == '\'' || ch == '\"') {
+				return new JsonValue(readString());
+			}
+			for (String name : new String[] {"true", "false", "null"}) {
+				if (path.startsWith(name, pos)) {
+					pos += name.length();
+
+					return name.equals("true") ? JsonValue.TRUE : name.equals("false") ? JsonValue.FALSE : JsonValue.NULL;
+				}
+			}
+
+			int start = pos;
+			while (pos < path.length() && "+-.eE0123456789".indexOf(path.charAt(pos)) >= 0) {
+				++pos;
+			}
+			try {
+				return new JsonParser().parse(path.substring(start, pos)).getValue();
+			}
+			catch (RuntimeException e) { /* JsonParserException, or nothing to parse */
+				pos = start;
+				throw invalid();
+			}
+		}
+
+		/* lexical methods */
+		private char peek() {
+			return (pos < path.length()) ? path.charAt(pos) : '\0';
+		}
+		private boolean accept(char ch) {
+			if (peek() != ch) {
+				return false;
+			}
+
+			++pos;
+			return true;
+		}
+		private void expect(char ch) {
+			if (!accept(ch)) {
+				throw invalid();
+			}
+
+			return;
+		}
+		private void skipBlanks() {
+			while (peek() == ' ' || peek() == '\t') {
+				++pos;
+			}
+
+			return;
+		}
+		/**
+		 * {@code readName()} reads a member name after a dot: letters,
+		 * digits, {@code _} and any non-ASCII char.
+		 */
+		private String readName() {
+			int start = pos;
+
+			for (char ch = peek(); Character.isLetterOrDigit(ch) || ch == '_' || ch >= 0x80; ch = peek()) {
+				++pos;
+			}
+			if (pos == start) {
+				throw invalid();
+			}
+
+			return path.substring(start, pos);
+		}
+		/**
+		 * {@code readString()} reads a name or string literal quoted by
+		 * {@code '} or {@code "}, with the escape chars of JSON strings and
+		 * {@code \'}.
+		 */
+		private String readString() {
+			char quote = path.charAt(pos++);
+			StringBuilder string = new StringBuilder();
+
+			for (char ch = peek(); ch != quote; ch = peek()) {
+				if (pos >= path.length()) {
+					throw invalid();
+				}
+				++pos;
+				if (ch != '\\') {
+					string.append(ch);
+					continue;
+				}
+
+				char escaped = peek();
+				++pos;
+				switch (escaped) {
+				case '\'', '\"', '\\', '/' -> string.append(escaped);
+				case 'b' -> string.append('\b');
+				case 'f' -> string.append('\f');
+				case 'n' -> string.append('\n');
+				case 'r' -> string.append('\r');
+				case 't' -> string.append('\t');
+				case 'u' -> {
+					if (pos + 4 > path.length()) {
+						throw invalid();
+					}
+					try {
+						string.append((char)Integer.parseInt(path.substring(pos, pos + 4), 16));
+					}
+					catch (NumberFormatException e) {
+						throw invalid();
+					}
+					pos += 4;
+				}
+				default -> throw invalid();
+				}
+			}
+			++pos; /* skip the closing quote */
+
+			return string.toString();
+		}
+		/**
+		 * {@code readInteger()} reads an optionally negative integer, or
+		 * returns {@code null} if there is none at the cursor.
+		 */
+		private Integer readInteger() {
+			int start = pos;
+
+			accept('-');
+			while (peek() >= '0' && peek() <= '9') {
+				++pos;
+			}
+			if (pos == start || (pos == start + 1 && path.charAt(start) == '-')) {
+				pos = start;
+				return null;
+			}
+
+			try {
+				return Integer.valueOf(path.substring(start, pos));
+			}
+			catch (NumberFormatException e) { /* out of the range of int */
+				pos = start;
+				throw invalid();
+			}
+		}
+		private IllegalArgumentException invalid() {
+			return new IllegalArgumentException("Invalid JSON path at position " + pos + ": " + path);
+		}
+	}
+
+	/**
+	 * {@code walk()} follows {@code steps}, names and indexes, from
+	 * {@code node}, and returns {@code null} if one of them is missing.
+	 *
+	 * @param node
+	 * @param steps
+	 * @return JsonValue
+	 */
+	private static JsonValue walk(JsonValue node, Object[] steps) {
+		for (int index = 0; index < steps.length && node != null; ++index) {
+			if (steps[index] instanceof String name) {
+				node = (node.getType() == JsonType.OBJECT) ? node.getObjValue(name) : null;
+			}
+			else if (node.getType() == JsonType.ARRAY) {
+				int size = node.getArr().size();
+				int element = (Integer)steps[index];
+				
+				element = (element < 0) ? size + element : element;
+				node = (element >= 0 && element < size) ? node.getArrElem(element) : null;
+			}
+			else {
+				node = null;
+			}
+		}
+
+		return node;
+	}
+
+	/* overridden methods */
+	@Override
+	public String toString() {
+		return this.path;
+	}
+	@Override
+	public boolean equals(Object other) {
+		return (other instanceof JsonPath) && path.equals(((JsonPath)other).path);
+	}
+	@Override
+	public int hashCode() {
+		return path.hashCode();
+	}
+}
@@ -0,0 +1,175 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.ArrayList;
+
+/**
+ * {@code JsonPointer} is a JSON Pointer (RFC 6901), such as
+ * {@code /items/0/price}, compiled once and evaluated against any
+ * number of {@code JsonValue} trees.
+ *
+ * The reference tokens are unescaped ({@code ~1} is {@code /} and
+ * {@code ~0} is {@code ~}) and their array indexes are parsed by
+ * {@code compile()}, so evaluating a pointer is a plain walk down the
+ * tree. A pointer is immutable, so it may be shared by threads.
+ */
+public final class JsonPointer {
+	private final String pointer;
+	private final String[] tokens;
+	private final int[] indexes; /* the tokens as array indexes, -1 if they are not */
+
+	/* constructors */
+	private JsonPointer(String pointer, String[] tokens, int[] indexes) {
+		this.pointer = pointer;
+		this.tokens = tokens;
+		this.indexes = indexes;
+	}
+
+	/* user APIs */
+	/**
+	 * {@code compile()} compiles {@code pointer}. The empty pointer
+	 * refers to the whole tree.
+	 *
+	 * @param pointer
+	 * @return JsonPointer
+	 * @throws IllegalArgumentException if the pointer is malformed
+	 */
+	public static JsonPointer compile(String pointer)
+			throws IllegalArgumentException
+	{
+		if (!pointer.isEmpty() && pointer.charAt(0) != '/') {
+			throw new IllegalArgumentException("A JSON pointer must start with '/': " + pointer);
+		}
+
+		ArrayList<String> tokens = new ArrayList<String>();
+		StringBuilder token = new StringBuilder();
+
+		for (int pos = 1; pos <= pointer.length(); ++pos) {
+			char ch = (pos < pointer.length()) ? pointer.charAt(pos) : '/';
+
+			if (ch == '/') {
+				tokens.add(token.toString());
+				token.setLength(0);
+			}
+			else if (ch != '~') {
+				token.append(ch);
+			}
+			else if (pos + 1 < pointer.length() && pointer.charAt(pos + 1) == '0') {
+				token.append('~');
+				++pos;
+			}
+			else if (pos + 1 < pointer.length() && pointer.charAt(pos + 1) == '1') {
+				token.append('/');
+				++pos;
+			}
+			else {
+				throw new IllegalArgumentException("Invalid escape in JSON pointer: " + pointer);
+			}
+		}
+		if (pointer.isEmpty()) {
+			tokens.clear();
+		}
+
+		int[] indexes = new int[tokens.size()];
+		for (int index = 0; index < indexes.length; ++index) {
+			indexes[index] = toIndex(tokens.get(index));
+		}
+
+		return new JsonPointer(pointer, tokens.toArray(new String[0]), indexes);
+	}
+	/**
+	 * {@code get()} returns the value {@code root} refers to, or
+	 * {@code null} if there is none.
+	 *
+	 * @param root
+	 * @return JsonValue
+	 */
+	public JsonValue get(JsonValue root) {
+		JsonValue node = root;
+
+		for (int index = 0; index < tokens.length && node != null; ++index) {
+			switch (node.getType()) {
+			case OBJECT:
+				node = node.getObjValue(tokens[index]);
+				break;
+			case ARRAY:
+				int element = indexes[index];
+
+				node = (element >= 0 && element < node.getArr().size()) ? node.getArrElem(element) : null;
+				break;
+			default:
+				node = null;
+			}
+		}
+
+		return node;
+	}
+	/**
+	 * {@code contains()} tells whether {@code root} has a value at this
+	 * pointer. A {@code null} literal is a value.
+	 *
+	 * @param root
+	 * @return boolean
+	 */
+	public boolean contains(JsonValue root) {
+		return get(root) != null;
+	}
+
+	/* reference token accessors */
+	int size() {
+		return this.tokens.length;
+	}
+	String tokenAt(int index) {
+		return this.tokens[index];
+	}
+	/**
+	 * {@code indexAt()} returns the reference token at {@code index} as an
+	 * array index, or -1 if it is not one.
+	 *
+	 * @param index
+	 * @return int
+	 */
+	int indexAt(int index) {
+		return this.indexes[index];
+	}
+
+	/* tool methods */
+	/**
+	 * {@code toIndex()} returns {@code token} as an array index: digits
+	 * without leading zeros, in the range of {@code int}. Any other token,
+	 * such as {@code -}, the element after the last one, is -1.
+	 *
+	 * @param token
+	 * @return int
+	 */
+	private static int toIndex(String token) {
+		if (token.isEmpty() || token.length() > 10 || (token.charAt(0) == '0' && token.length() > 1)) {
+			return -1;
+		}
+
+		long index = 0;
+		for (int pos = 0; pos < token.length(); ++pos) {
+			char ch = token.charAt(pos);
+
+			if (ch < '0' || ch > '9') {
+				return -1;
+			}
+			index = index * 10 + (ch - '0');
+		}
+
+		return (index <= Integer.MAX_VALUE) ? (int)index : -1;
+	}
+
+	/* overridden methods */
+	@Override
+	public String toString() {
+		return this.pointer;
+	}
+	@Override
+	public boolean equals(Object other) {
+		return (other instanceof JsonPointer) && pointer.equals(((JsonPointer)other).pointer);
+	}
+	@Override
+	public int hashCode() {
+		return pointer.hashCode();
+	}
+}
@@ -0,0 +1,236 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * {@code JsonProjection} is a set of JSON paths compiled for
+ * {@code JsonParser.setProjection()}, which then only builds the values
+ * selected by one of the paths. The other values are skipped as they
+ * are read.
+ *
+ * A path starts with {@code $}, the root, followed by steps:
+ * {@code .name} or {@code ["name"]} selects a member of an object,
+ * {@code .*} every member and {@code [*]} every element of an array.
+ * For example {@code $.user.id} and {@code $.items[*].price}. A
+ * selected value is built as a whole, and the arrays and objects on the
+ * way to it are built with the selected items only.
+ *
+ * A projection is immutable, so it may be shared by parsers of
+ * different threads.
+ */
+public final class JsonProjection {
+	/* kinds of {@code Step} */
+	private static final int MEMBER = 0;
+	private static final int ANY_MEMBER = 1;
+	private static final int ANY_ELEMENT = 2;
+
+	/** {@code ALL} selects the whole context. */
+	public static final JsonProjection ALL = new JsonProjection(true);
+
+	private boolean isComplete; /* whether the whole value is selected */
+	private final HashMap<String, JsonProjection> members;
+	private JsonProjection anyMember; /* {@code null} if no path has {@code .*} here */
+	private JsonProjection anyElement; /* {@code null} if no path has {@code [*]} here */
+	private final ArrayList<Step[]> anyMemberPaths; /* the steps after {@code .*}, for members added later */
+
+	/**
+	 * {@code Step} is a step of a path: its kind and, for
+	 * {@code MEMBER}, the name of the member.
+	 */
+	private static final class Step {
+		final int kind;
+		final String name;
+
+		Step(int kind, String name) {
+			this.kind = kind;
+			this.name = name;
+		}
+	}
+
+	/* constructors */
+	private JsonProjection(boolean isComplete) {
+		this.isComplete = isComplete;
+		this.members = new HashMap<String, JsonProjection>();
+		this.anyMember = null;
+		this.anyElement = null;
+		this.anyMemberPaths = new ArrayList<Step[]>();
+	}
+
+	/* user APIs */
+	/**
+	 * {@code of()} compiles {@code paths} into a projection.
+	 *
+	 * @param paths
+	 * @return JsonProjection
+	 * @throws IllegalArgumentException if a path is malformed
+	 */
+	public static JsonProjection of(String... paths)
+			throws IllegalArgumentException
+	{
+		return of(Arrays.asList(paths));
+	}
+	public static JsonProjection of(Collection<String> paths)
+			throws IllegalArgumentException
+	{
+		JsonProjection root = new JsonProjection(false);
+
+		for (String path : paths) {
+			root.add(compile(path), 0);
+		}
+
+		return root;
+	}
+	public boolean isComplete() {
+		return this.isComplete;
+	}
+
+	/* projection navigation methods */
+	/**
+	 * {@code member()} returns the projection of the member {@code key}
+	 * of an object selected by this projection, or {@code null} if the
+	 * member is not selected.
+	 *
+	 * @param key
+	 * @return JsonProjection
+	 */
+	JsonProjection member(String key) {
+		if (isComplete) {
+			return this;
+		}
+
+		JsonProjection member = members.get(key);
+
+		return (member != null) ? member : anyMember;
+	}
+	/**
+	 * {@code element()} returns the projection of the elements of an
+	 * array selected by this projection, or {@code null} if they are not
+	 * selected.
+	 *
+	 * @return JsonProjection
+	 */
+	JsonProjection element() {
+		return isComplete ? this : anyElement;
+	}
+
+	/* compilation methods */
+	/**
+	 * {@code add()} selects the values reached from this projection by
+	 * the steps of {@code path} from {@code from} on. A member selected
+	 * both by name and by {@code .*} gets the steps of both, so the paths
+	 * after {@code .*} are kept for the members named later.
+	 *
+	 * @param path
+	 * @param from
+	 */
+	private void add(Step[] path, int from) {
+		if (from == path.length) {
+			isComplete = true;
+
+			return;
+		}
+
+		Step step = path[from];
+		switch (step.kind) {
+		case MEMBER:
+			JsonProjection member = members.get(step.name);
+
+			if (member == null) {
+				member = new JsonProjection(false);
+				for (Step[] anyPath : anyMemberPaths) {
+					member.add(anyPath, 0);
+				}
+				members.put(step.name, member);
+			}
+			member.add(path, from + 1);
+			break;
+		case ANY_MEMBER:
+			Step[] rest = Arrays.copyOfRange(path, from + 1, path.length);
+
+			if (anyMember == null) {
+				anyMember = new JsonProjection(false);
+			}
+			anyMember.add(rest, 0);
+			for (JsonProjection named : members.values()) {
+				named.add(rest, 0);
+			}
+			anyMemberPaths.add(rest);
+			break;
+		case ANY_ELEMENT:
+			if (anyElement == null) {
+				anyElement = new JsonProjection(false);
+			}
+			anyElement.add(path, from + 1);
+			break;
+		default:
+			throw new IllegalStateException("Unknown path step. ");
+		}
+
+		return;
+	}
+	/**
+	 * {@code compile()} splits {@code path} into its steps.
+	 *
+	 * @param path
+	 * @return Step[]
+	 * @throws IllegalArgumentException
+	 */
+	private static Step[] compile(String path)
+			throws IllegalArgumentException
+	{
+		if (path.isEmpty() || path.charAt(0) != '$') {
+			throw new IllegalArgumentException("A JSON path must start with '$': " + path);
+		}
+
+		ArrayList<Step> steps = new ArrayList<Step>();
+		int pos = 1;
+
+		while (pos < path.length()) {
+			if (path.startsWith(".*", pos)) {
+				steps.add(new Step(ANY_MEMBER, null));
+				pos += 2;
+			}
+			else if (path.startsWith("[*]", pos)) {
+				steps.add(new Step(ANY_ELEMENT, null));
+				pos += 3;
+			}
+			else if (path.charAt(pos) == '.') {
+				int end = ++pos;
+
+				while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+					++end;
+				}
+				if (end == pos) {
+					throw new IllegalArgumentException("Missing member name in JSON path: " + path);
+				}
+
+				steps.add(new Step(MEMBER, path.substring(pos, end)));
+				pos = end;
+			}
+			else if (path.startsWith("[\"", pos)) {
+				StringBuilder name = new StringBuilder();
+
+				for (pos += 2; pos < path.length() && path.charAt(pos) != '\"'; ++pos) {
+					if (path.charAt(pos) == '\\' && pos + 1 < path.length()) {
+						++pos; /* \" and \\ */
+					}
+					name.append(path.charAt(pos));
+				}
+				if (!path.startsWith("\"]", pos)) {
+					throw new IllegalArgumentException("Unclosed member name in JSON path: " + path);
+				}
+
+				steps.add(new Step(MEMBER, name.toString()));
+				pos += 2;
+			}
+			else {
+				throw new IllegalArgumentException("Unsupported step in JSON path: " + path);
+			}
+		}
+
+		return steps.toArray(new Step[0]);
+	}
+}
@@ -0,0 +1,261 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.nio.ByteBuffer;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+/**
+ * {@code JsonPushParser} is a non-blocking parser of a single UTF-8
+ * encoded JSON context received in chunks, e.g. by a selector thread.
+ * Each {@code feed()} reads every token completed by its chunk and
+ * reports it to a {@code JsonHandler} at once, the same way as
+ * {@code JsonReader.parse(JsonHandler)}, and then returns without
+ * waiting for more input. The context is checked exactly as by
+ * {@code JsonReader}, and a malformed one throws the same exceptions.
+ *
+ * Only the token being read is kept between chunks. A token cut short
+ * by the end of a chunk, in the middle of a string, an escape char or a
+ * number, is read again from its start once the chunks that complete it
+ * have arrived. Until then, new bytes are only scanned for its end, so
+ * the cost stays linear in the length of the input however it is split.
+ * A number at the root only ends with {@code endOfInput()}, which also
+ * checks that nothing follows the root.
+ *
+ * A push parser may not be used by several threads at once.
+ */
+public final class JsonPushParser {
+	/* states of the scan for the end of a pending token */
+	private static final int READING = 0; /* no pending token */
+	private static final int SCAN_BETWEEN = 1;
+	private static final int SCAN_STRING = 2;
+	private static final int SCAN_ESCAPE = 3;
+	private static final int SCAN_SCALAR = 4;
+	private static final int SCAN_ANY = 5; /* any new byte may complete it */
+
+	private final JsonHandler handler;
+	private final ChunkSource source;
+	private final JsonReader reader;
+	private int scanState;
+	private long scanPos; /* the next position to scan */
+	private boolean isFailed;
+
+	/* constructors */
+	public JsonPushParser(JsonHandler handler) {
+		this.handler = handler;
+		this.source = new ChunkSource();
+		this.reader = new JsonReader(source);
+		this.scanState = READING;
+		this.scanPos = 0L;
+		this.isFailed = false;
+	}
+
+	/* user APIs */
+	/**
+	 * {@code feed()} takes the remaining bytes of {@code chunk}, whose
+	 * position is moved to its limit, and reports the tokens they
+	 * complete. A multi-byte UTF-8 sequence may be split across chunks.
+	 *
+	 * @param chunk
+	 * @return JsonPushParser
+	 * @throws JsonParserException
+	 * @throws IllegalStateException if the parser has failed, or the end
+	 * 			of the input has already been pushed
+	 */
+	public JsonPushParser feed(ByteBuffer chunk)
+			throws JsonParserException, IllegalStateException
+	{
+		checkOpen();
+		source.append(chunk);
+		readTokens();
+
+		return this;
+	}
+	public JsonPushParser feed(byte[] chunk)
+			throws JsonParserException, IllegalStateException
+	{
+		return feed(ByteBuffer.wrap(chunk));
+	}
+	/**
+	 * {@code endOfInput()} tells that no more chunks follow, reports the
+	 * last tokens and checks that the context is complete.
+	 *
+	 * @return JsonPushParser
+	 * @throws JsonParserException
+	 * @throws IllegalStateException if the parser has failed, or the end
+	 * 			of the input has already been pushed
+	 */
+	public JsonPushParser endOfInput()
+			throws JsonParserException, IllegalStateException
+	{
+		checkOpen();
+		source.endOfInput();
+		readTokens();
+
+		return this;
+	}
+	/**
+	 * {@code setStackTraceEnabled()} sets whether syntax errors fill in
+	 * their stack traces. See {@code JsonReader.setStackTraceEnabled()}.
+	 *
+	 * @param isEnabled
+	 * @return JsonPushParser
+	 */
+	public JsonPushParser setStackTraceEnabled(boolean isEnabled) {
+		reader.setStackTraceEnabled(isEnabled);
+
+		return this;
+	}
+	/**
+	 * {@code setMaxDepth()} limits how deep arrays and objects may nest.
+	 * See {@code JsonReader.setMaxDepth()}.
+	 *
+	 * @param maxDepth
+	 * @return JsonPushParser
+	 * @throws IllegalArgumentException
+	 */
+	public JsonPushParser setMaxDepth(int maxDepth)
+			throws IllegalArgumentException
+	{
+		reader.setMaxDepth(maxDepth);
+
+		return this;
+	}
+	/**
+	 * {@code isRootComplete()} tells whether the whole root value has
+	 * been reported. Only whitespace may follow it.
+	 *
+	 * @return boolean
+	 */
+	public boolean isRootComplete() {
+		return reader.getDepth() == 0 && reader.getToken() != null;
+	}
+	/**
+	 * {@code isDone()} tells whether the end of the input has been
+	 * pushed and the context has been checked.
+	 *
+	 * @return boolean
+	 */
+	public boolean isDone() {
+		return reader.getToken() == JsonToken.END_DOCUMENT;
+	}
+
+	/* token readers */
+	private void checkOpen() {
+		if (isFailed) {
+			throw new IllegalStateException("The push parser has failed. ");
+		}
+		if (source.isEndOfInput()) {
+			throw new IllegalStateException("The end of the input has already been pushed. ");
+		}
+
+		return;
+	}
+	/**
+	 * {@code readTokens()} reads and reports tokens until the end of the
+	 * bytes received so far. A pending token is only read again once
+	 * {@code scan()} has found its end.
+	 *
+	 * @throws JsonParserException
+	 */
+	private void readTokens()
+			throws JsonParserException
+	{
+		try {
+			if (scanState != READING && !scan()) {
+				return;
+			}
+			scanState = READING;
+
+			while (reader.getToken() != JsonToken.END_DOCUMENT) {
+				source.mark(reader.cur); /* Nothing before the next token is read again. */
+				reader.saveState();
+
+				JsonToken next;
+				try {
+					next = reader.nextToken();
+				}
+				catch (ChunkSource.Underflow e) {
+					reader.restoreState();
+					scanState = SCAN_BETWEEN;
+					scanPos = reader.cur;
+
+					/*
+					 * The token may end within the bytes just read, when
+					 * the reader looks past it, e.g. for a low surrogate.
+					 * Then any new byte may complete it.
+					 */
+					if (scan()) {
+						scanState = SCAN_ANY;
+						scanPos = source.getEnd();
+					}
+
+					return;
+				}
+
+				if (next != JsonToken.END_DOCUMENT) {
+					reader.push(next, handler);
+				}
+			}
+		}
+		catch (RuntimeException e) {
+			isFailed = true;
+
+			throw e;
+		}
+
+		return;
+	}
+	/**
+	 * {@code scan()} goes on scanning the new bytes for the end of the
+	 * pending token: the closing quotation mark of a string, the
+	 * delimiter after a number or literal, or a structural char.
+	 *
+	 * @return whether the pending token may be read again
+	 */
+	private boolean scan() {
+		for (long end = source.getEnd(); scanPos < end; ++scanPos) {
+			int ch = source.byteAt(scanPos);
+
+			switch (scanState) {
+			case SCAN_BETWEEN:
+				if (ch == '\"') {
+					scanState = SCAN_STRING;
+				}
+				else if (ch == '[' || ch == ']' || ch == '{' || ch == '}') {
+					++scanPos;
+					return true;
+				}
+				else if (!isSeparator(ch)) {
+					scanState = SCAN_SCALAR;
+				}
+				break;
+			case SCAN_STRING:
+				if (ch == '\\') {
+					scanState = SCAN_ESCAPE;
+				}
+				else if (ch == '\"') {
+					++scanPos;
+					return true;
+				}
+				break;
+			case SCAN_ESCAPE:
+				scanState = SCAN_STRING;
+				break;
+			case SCAN_SCALAR:
+				if (isSeparator(ch) || ch == '\"' || ch == '[' || ch == ']' || ch == '{' || ch == '}') {
+					return true;
+				}
+				break;
+			case SCAN_ANY:
+				return true;
+			default:
+				throw new IllegalStateException("Unknown scan state. ");
+			}
+		}
+
+		return source.isEndOfInput();
+	}
+	private static boolean isSeparator(int ch) {
+		return (ch == ' ' || ch == '\n' || ch == '\t' || ch == '\r' || ch == ',' || ch == ':');
+	}
+}
@@ -0,0 +1,571 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+/**
+ * {@code JsonReader} is a pull reader over a single JSON context. Each
+ * call of {@code nextToken()} reads one token with the same cursor logic
+ * as {@code JsonParser}, and throws the same exceptions for the same
+ * malformed context, but no {@code JsonValue} is ever built.
+ *
+ * Strings and keys are decoded into a reused buffer and only become a
+ * {@code String} when {@code getString()} is called. Numbers are only
+ * converted when {@code getDouble()} is called.
+ *
+ * Duplicate keys are not detected by the reader, since that requires
+ * keeping every key of an object.
+ */
+public class JsonReader extends JsonTokenizer {
+	/* states of a nesting level, kept in {@code states} */
+	private static final int ROOT_START = 0;
+	private static final int ROOT_END = 1;
+	private static final int DOCUMENT_END = 2;
+	private static final int ARRAY_FIRST = 3;
+	private static final int ARRAY_NEXT = 4;
+	private static final int OBJECT_FIRST = 5;
+	private static final int OBJECT_VALUE = 6;
+	private static final int OBJECT_NEXT = 7;
+
+	private int[] states; /* {@code states[0]} is the root level */
+	private int depth;
+	private JsonToken token;
+	private long numberStart;
+	private long numberEnd;
+	private boolean hasText; /* {@code buffer} holds the current string or key */
+	private boolean isSkipping;
+	private long savedCur; /* the state before the last {@code saveState()} */
+	private int savedDepth;
+	private int savedState;
+	private JsonToken savedToken;
+
+	/* constructors */
+	public JsonReader(String context) {
+		this(new StringSource(context));
+	}
+	public JsonReader(byte[] context, int offset, int length) {
+		this(new Utf8Source(context, offset, length));
+	}
+	public JsonReader(byte[] context) {
+		this(new Utf8Source(context, 0, context.length));
+	}
+	public JsonReader(ByteBuffer context) {
+		this(new Utf8Source(context));
+	}
+	public JsonReader(Reader reader) {
+		this(new ReaderSource(reader));
+	}
+	public JsonReader(InputStream stream) {
+		this(new ReaderSource(new InputStreamReader(stream, StandardCharsets.UTF_8.newDecoder())));
+	}
+	/**
+	 * The file at {@code path} is memory-mapped and read in place, the 
+	 * same way as {@code JsonParser.parse(Path)}. 
+	 * 
+	 * @param path
+	 * @throws UncheckedIOException
+	 */
+	public JsonReader(Path path) {
+		this(MappedSource.map(path));
+	}
+	JsonReader(JsonSource context) {
+		super(context);
+		this.states = new int[16];
+		this.depth = 0;
+		this.token = null;
+		this.numberStart = 0L;
+		this.numberEnd = 0L;
+		this.hasText = false;
+		this.isSkipping = false;
+		this.savedCur = 0L;
+		this.savedDepth = 0;
+		this.savedState = ROOT_START;
+		this.savedToken = null;
+
+		this.states[0] = ROOT_START;
+	}
+
+	/* user APIs */
+	/**
+	 * {@code nextToken()} reads the next token of the context. Once the
+	 * root value has been read, it checks that nothing but whitespace
+	 * follows and returns {@code JsonToken.END_DOCUMENT}, and keeps
+	 * returning it from then on.
+	 *
+	 * @return JsonToken
+	 * @throws JsonParserException
+	 */
+	public JsonToken nextToken()
+			throws JsonParserException
+	{
+		hasText = false;
+
+		return switch (states[depth]) {
+		case ROOT_START -> readRoot();
+		case ROOT_END -> readEndOfDocument();
+		case DOCUMENT_END -> token;
+		case ARRAY_FIRST -> readFirstElement();
+		case ARRAY_NEXT -> readNextElement();
+		case OBJECT_FIRST -> readFirstMember();
+		case OBJECT_VALUE -> readMemberValue();
+		case OBJECT_NEXT -> readNextMember();
+		default -> throw new JsonParserException("Unknown reader state. ");
+		};
+	}
+	/**
+	 * {@code setScanner()} chooses how a UTF-8 byte array is pre-scanned
+	 * before it is read. See {@code JsonScanner}. Other contexts are 
+	 * always read char by char. It must be called before the first 
+	 * token is read. 
+	 * 
+	 * @param scanner
+	 * @return JsonReader
+	 */
+	public JsonReader setScanner(JsonScanner scanner) {
+		context.useScanner(scanner);
+		
+		return this;
+	}
+	/**
+	 * {@code setStackTraceEnabled()} sets whether syntax and encoding errors
+	 * fill in their stack traces. Without them, a malformed input costs
+	 * little more than the allocation of its exception, which still tells
+	 * its code, offset, line and column. 
+	 * 
+	 * @param isEnabled
+	 * @return JsonReader
+	 */
+	public JsonReader setStackTraceEnabled(boolean isEnabled) {
+		this.isStackTraceEnabled = isEnabled;
+		context.setStackTraceEnabled(isEnabled);
+		
+		return this;
+	}
+	/**
+	 * {@code setMaxDepth()} limits how deep arrays and objects may nest.
+	 * Opening one more throws {@code MaxDepthExceededException}. The 
+	 * default limit is 1000. 
+	 * 
+	 * @param maxDepth
+	 * @return JsonReader
+	 * @throws IllegalArgumentException
+	 */
+	public JsonReader setMaxDepth(int maxDepth)
+			throws IllegalArgumentException
+	{
+		if (maxDepth < 0) {
+			throw new IllegalArgumentException("Negative depth limit. ");
+		}
+		
+		this.maxDepth = maxDepth;
+		
+		return this;
+	}
+	/**
+	 * {@code getToken()} returns the last token read, or {@code null} if
+	 * {@code nextToken()} has not been called yet.
+	 *
+	 * @return JsonToken
+	 */
+	public JsonToken getToken() {
+		return this.token;
+	}
+	/**
+	 * {@code getDepth()} returns the number of objects and arrays that
+	 * enclose the cursor.
+	 *
+	 * @return int
+	 */
+	public int getDepth() {
+		return this.depth;
+	}
+	/**
+	 * {@code getString()} returns the current {@code JsonToken.STRING} or
+	 * {@code JsonToken.KEY}.
+	 *
+	 * @return String
+	 * @throws IllegalStateException if the current token is neither, or
+	 * 			it has been skipped by {@code skipValue()}
+	 */
+	public String getString() {
+		if (!hasText) {
+			throw new IllegalStateException("The current token is not a decoded string or key. ");
+		}
+
+		return buffer.toString();
+	}
+	/**
+	 * {@code getDouble()} converts the current {@code JsonToken.NUMBER}.
+	 *
+	 * @return double
+	 * @throws InvalidNumberException
+	 * @throws IllegalStateException if the current token is not a number
+	 */
+	public double getDouble()
+			throws InvalidNumberException
+	{
+		if (token != JsonToken.NUMBER) {
+			throw new IllegalStateException("The current token is not a number. ");
+		}
+
+		return toNumber(numberStart, numberEnd);
+	}
+	/**
+	 * {@code skipValue()} skips the value that the current token belongs
+	 * to. After {@code JsonToken.KEY}, the value of the member is skipped.
+	 * After {@code JsonToken.START_OBJECT} or {@code JsonToken.START_ARRAY},
+	 * everything up to the matching end token is skipped. Other tokens
+	 * are values on their own, so nothing is skipped.
+	 *
+	 * Skipped tokens are checked as usual, but strings are not decoded.
+	 *
+	 * @return JsonReader
+	 * @throws JsonParserException
+	 */
+	public JsonReader skipValue()
+			throws JsonParserException
+	{
+		isSkipping = true;
+
+		try {
+			if (token == JsonToken.KEY) {
+				nextToken();
+			}
+
+			if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+				int targetDepth = depth - 1;
+
+				while (depth > targetDepth) {
+					nextToken();
+				}
+			}
+		}
+		finally {
+			isSkipping = false;
+		}
+
+		return this;
+	}
+	/**
+	 * {@code readTape()} reads the next value into a {@code JsonTape}. 
+	 * It may be the root, or a value nested anywhere in the context, e.g.
+	 * right after a {@code JsonToken.KEY}. The value is checked exactly 
+	 * as by {@code nextToken()}, and if it is the root, the end of the 
+	 * document is checked too. 
+	 * 
+	 * @return JsonTape
+	 * @throws JsonParserException
+	 * @throws IllegalStateException if the next token does not start a
+	 * 			value
+	 */
+	public JsonTape readTape()
+			throws JsonParserException
+	{
+		return new JsonTape(this);
+	}
+	/**
+	 * {@code parse(JsonHandler)} reads the rest of the context and pushes
+	 * every token to {@code handler} instead of building a tree. The 
+	 * context is checked exactly as by {@code nextToken()}. 
+	 * 
+	 * @param handler
+	 * @return JsonReader
+	 * @throws JsonParserException
+	 */
+	public JsonReader parse(JsonHandler handler)
+			throws JsonParserException
+	{
+		for (JsonToken next = nextToken(); next != JsonToken.END_DOCUMENT; next = nextToken()) {
+			push(next, handler);
+		}
+		
+		return this;
+	}
+
+	/* push methods */
+	/**
+	 * {@code push()} reports the token {@code next}, just read, to 
+	 * {@code handler}. 
+	 * 
+	 * @param next
+	 * @param handler
+	 * @throws JsonParserException
+	 */
+	void push(JsonToken next, JsonHandler handler)
+			throws JsonParserException
+	{
+		switch (next) {
+		case START_OBJECT -> handler.startObject();
+		case END_OBJECT -> handler.endObject();
+		case START_ARRAY -> handler.startArray();
+		case END_ARRAY -> handler.endArray();
+		case KEY -> handler.key(getString());
+		case NULL -> handler.literal(JsonType.NULL);
+		case TRUE -> handler.literal(JsonType.TRUE);
+		case FALSE -> handler.literal(JsonType.FALSE);
+		case NUMBER -> handler.number(getDouble());
+		case STRING -> handler.string(getString());
+		default -> throw new JsonParserException("Unknown JSON token. ");
+		}
+		
+		return;
+	}
+	/**
+	 * {@code saveState()} remembers the cursor and the state of the 
+	 * current nesting level, which is all that {@code nextToken()} 
+	 * changes before a token is complete. {@code restoreState()} goes 
+	 * back to them, so that a token cut short by the end of the bytes 
+	 * received so far is read again from its start. 
+	 */
+	void saveState() {
+		savedCur = cur;
+		savedDepth = depth;
+		savedState = states[depth];
+		savedToken = token;
+		
+		return;
+	}
+	void restoreState() {
+		cur = savedCur;
+		depth = savedDepth;
+		states[depth] = savedState;
+		token = savedToken;
+		hasText = false;
+		
+		return;
+	}
+
+	/* nesting level manipulation methods */
+	private JsonToken startContainer(int state, JsonToken token)
+			throws MaxDepthExceededException
+	{
+		if (isDepthExceeded(depth)) {
+			throw error(JsonErrorCode.MAX_DEPTH_EXCEEDED);
+		}
+		
+		++cur; /* skip '[' or '{' */
+
+		if (++depth == states.length) {
+			int[] grown = new int[states.length * 2];
+			System.arraycopy(states, 0, grown, 0, states.length);
+			states = grown;
+		}
+		states[depth] = state;
+
+		return this.token = token;
+	}
+	private JsonToken endContainer(JsonToken token) {
+		++cur; /* skip ']' or '}' */
+		--depth;
+
+		return this.token = token;
+	}
+
+	/* token readers */
+	private JsonToken readRoot()
+			throws ExpectValueException
+	{
+		if (isEndOfContext()) {
+			throw error(JsonErrorCode.EMPTY_INPUT);
+		}
+
+		parseWhitespace();
+
+		if (isEndOfContext()) {
+			throw error(JsonErrorCode.WHITESPACE_ONLY);
+		}
+
+		states[0] = ROOT_END;
+
+		return readValue();
+	}
+	private JsonToken readEndOfDocument()
+			throws MissingDelimiterException, RootNotSingularException
+	{
+		if (!isEndOfContext()) {
+			if (!isCurWhitespace()) {
+				throw error(JsonErrorCode.MISSING_WHITESPACE);
+			}
+
+			parseWhitespace();
+		}
+
+		if (!isEndOfContext()) {
+			throw error(JsonErrorCode.ROOT_NOT_SINGULAR);
+		}
+
+		states[0] = DOCUMENT_END;
+
+		return this.token = JsonToken.END_DOCUMENT;
+	}
+	private JsonToken readFirstElement()
+			throws MissingEndTagException
+	{
+		parseWhitespace();
+		if (isEndOfContext()) { // [\t
+			throw error(JsonErrorCode.MISSING_BRACKET);
+		}
+		if (getCurChar() == ']') { // Empty array [].
+			return endContainer(JsonToken.END_ARRAY);
+		}
+
+		states[depth] = ARRAY_NEXT;
+
+		return readValue();
+	}
+	private JsonToken readNextElement()
+			throws MissingEndTagException, InvalidArrayException
+	{
+		parseWhitespace();
+		if (isEndOfContext()) { // [1,2,3\t
+			throw error(JsonErrorCode.MISSING_BRACKET);
+		}
+
+		char ch = getCurChar();
+		if (ch == ']') {
+			return endContainer(JsonToken.END_ARRAY);
+		}
+		if (ch != ',') { // [1,2 \t 3]
+			throw error(JsonErrorCode.ARRAY_MISSING_COMMA);
+		}
+
+		++cur; /* skip comma */
+
+		parseWhitespace();
+		if (isEndOfContext() || getCurChar() == ']') { // [1,2,\t or [1,2,]
+			throw error(JsonErrorCode.ARRAY_ENDING_COMMA);
+		}
+
+		return readValue();
+	}
+	private JsonToken readFirstMember()
+			throws MissingEndTagException, InvalidObjectException
+	{
+		parseWhitespace();
+		if (isEndOfContext()) { // {\t
+			throw error(JsonErrorCode.MISSING_BRACE);
+		}
+		if (getCurChar() == '}') { // Empty object {}.
+			return endContainer(JsonToken.END_OBJECT);
+		}
+
+		return readKey();
+	}
+	private JsonToken readMemberValue()
+			throws InvalidObjectException, MissingDelimiterException
+	{
+		parseWhitespace();
+		if (isEndOfContext()) { // {"key"\t
+			throw error(JsonErrorCode.KEY_WITHOUT_COLON);
+		}
+		if (getCurChar() != ':') { // {"key"123
+			throw error(JsonErrorCode.MISSING_COLON);
+		}
+
+		++cur; /* skip colon */
+
+		parseWhitespace();
+		if (isEndOfContext()) { // {"key":\t
+			throw error(JsonErrorCode.KEY_WITHOUT_VALUE);
+		}
+
+		states[depth] = OBJECT_NEXT;
+
+		return readValue();
+	}
+	private JsonToken readNextMember()
+			throws MissingEndTagException, InvalidObjectException
+	{
+		parseWhitespace();
+		if (isEndOfContext()) { // {"key":123
+			throw error(JsonErrorCode.MISSING_BRACE);
+		}
+
+		char ch = getCurChar();
+		if (ch == '}') {
+			return endContainer(JsonToken.END_OBJECT);
+		}
+		if (ch != ',') { // {"key":123\t "key2":456}
+			throw error(JsonErrorCode.OBJECT_MISSING_COMMA);
+		}
+
+		++cur; /* skip comma */
+
+		parseWhitespace();
+		if (isEndOfContext() || getCurChar() == '}') { // {"key":123,\t or {"key":123,\t}
+			throw error(JsonErrorCode.OBJECT_ENDING_COMMA);
+		}
+
+		return readKey();
+	}
+	private JsonToken readKey()
+			throws InvalidObjectException
+	{
+		if (getCurChar() != '\"') { // {123:456}
+			throw error(JsonErrorCode.KEY_NOT_STRING);
+		}
+
+		context.release(cur); /* Nothing before this key is accessed any more. */
+		readString();
+		states[depth] = OBJECT_VALUE;
+
+		return this.token = JsonToken.KEY;
+	}
+	private void readString() {
+		if (isSkipping) {
+			skipRawString();
+		}
+		else {
+			parseBufferedString();
+			hasText = true;
+		}
+
+		return;
+	}
+	/**
+	 * {@code readValue()} reads the first token of a value, which is the
+	 * whole value unless it is an object or an array.
+	 *
+	 * @return JsonToken
+	 * @throws InvalidValueException
+	 */
+	private JsonToken readValue()
+			throws InvalidValueException
+	{
+		assert !isEndOfContext();
+		context.release(cur); /* Nothing before this item is accessed any more. */
+
+		switch (getCurChar()) {
+		case 'n':
+			parseLiteral(JsonType.NULL);
+			return this.token = JsonToken.NULL;
+		case 't':
+			parseLiteral(JsonType.TRUE);
+			return this.token = JsonToken.TRUE;
+		case 'f':
+			parseLiteral(JsonType.FALSE);
+			return this.token = JsonToken.FALSE;
+		case '-', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9':
+			numberStart = cur;
+			parseNumberComponents();
+			numberEnd = cur;
+			return this.token = JsonToken.NUMBER;
+		case '\"':
+			readString();
+			return this.token = JsonToken.STRING;
+		case '[':
+			return startContainer(ARRAY_FIRST, JsonToken.START_ARRAY);
+		case '{':
+			return startContainer(OBJECT_FIRST, JsonToken.START_OBJECT);
+		default:
+			throw error(JsonErrorCode.INVALID_VALUE);
+		}
+	}
+}
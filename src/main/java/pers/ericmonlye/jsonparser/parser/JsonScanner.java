@@ -0,0 +1,40 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.lang.String;
+
+/**
+ * {@code JsonScanner} chooses how UTF-8 byte arrays are pre-scanned
+ * before they are tokenized.
+ *
+ * With {@code SCALAR} or {@code VECTOR}, the whole context is first
+ * classified 64 bytes at a time into a structural index: the positions
+ * of structural chars, string starts and scalar starts outside strings.
+ * The tokenizer then jumps over whitespace through the index instead
+ * of testing it char by char. {@code VECTOR} classifies the bytes with
+ * the incubating Vector API, which requires the JVM option
+ * {@code --add-modules jdk.incubator.vector}; without it,
+ * {@code SCALAR} is used instead.
+ */
+public enum JsonScanner {
+	NONE(0, "NONE"),
+	SCALAR(1, "SCALAR"),
+	VECTOR(2, "VECTOR");
+
+	public final int scannerValue;
+	public final String scannerName;
+
+	private JsonScanner(int scannerValue, String scannerName) {
+		this.scannerValue = scannerValue;
+		this.scannerName = scannerName;
+	}
+
+	/**
+	 * Overridden {@code toString()} method is a descriptive method
+	 * for an {@code enum} variable. To get the precise name of the
+	 * {@code enum} variable, always use {@code name()} method.
+	 */
+	@Override
+	public String toString() {
+		return this.scannerName;
+	}
+}
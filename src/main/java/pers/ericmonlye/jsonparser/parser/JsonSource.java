@@ -0,0 +1,305 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.Arrays;
+
+import pers.ericmonlye.jsonparser.exception.JsonParserException;
+
+/**
+ * {@code JsonSource} is the JSON context as seen by {@code JsonParser}. 
+ * Positions are offsets from the beginning of the context. They are 
+ * {@code long} because a streamed context may exceed 2 GB. 
+ * 
+ * Outside strings the JSON grammar only uses ASCII chars, so 
+ * {@code charAt()} is only required to be exact for those. Any other 
+ * char may be reported as an arbitrary non-ASCII char. The content of 
+ * strings is decoded in bulk by {@code decode()}. 
+ * 
+ * A source is also the {@code Locator} of the errors found in it, so 
+ * that lines and columns are only counted for errors actually read. 
+ */
+abstract class JsonSource implements JsonParserException.Locator {
+	private boolean isStackTraceEnabled = true; /* whether encoding errors fill in their stack traces */
+	
+	/**
+	 * {@code isEnd()} checks whether {@code pos} is beyond the end of 
+	 * this context. A streamed context may read more input to find out. 
+	 * Once {@code isEnd(pos)} returns {@code false}, every position from
+	 * the last released one up to {@code pos} is accessible. 
+	 * 
+	 * @param pos
+	 * @return boolean
+	 */
+	abstract boolean isEnd(long pos);
+	/**
+	 * {@code charAt()} returns the char at {@code pos}. 
+	 * 
+	 * @param pos
+	 * @return char
+	 */
+	abstract char charAt(long pos);
+	/**
+	 * {@code substring()} returns the text between {@code start} and 
+	 * {@code end} as is, for numbers and error messages. 
+	 * 
+	 * @param start
+	 * @param end
+	 * @return String
+	 * @throws IndexOutOfBoundsException
+	 */
+	abstract String substring(long start, long end);
+	/**
+	 * {@code decode()} returns the content of a string between 
+	 * {@code start} and {@code end}, which contains no escape char. 
+	 * 
+	 * @param start
+	 * @param end
+	 * @return String
+	 * @throws InvalidCharacterException
+	 */
+	abstract String decode(long start, long end);
+	/**
+	 * {@code decode()} appends the content of a string between 
+	 * {@code start} and {@code end}, which contains no escape char, 
+	 * to {@code buffer}. 
+	 * 
+	 * @param buffer
+	 * @param start
+	 * @param end
+	 * @throws InvalidCharacterException
+	 */
+	abstract void decode(StringBuilder buffer, long start, long end);
+	/**
+	 * {@code skipWhitespace()} returns the first position from 
+	 * {@code pos} on that is not whitespace, or the end of the context. 
+	 * {@code pos} is never inside a string. 
+	 * 
+	 * @param pos
+	 * @return long
+	 */
+	long skipWhitespace(long pos) {
+		while (!isEnd(pos)) {
+			char ch = charAt(pos);
+			
+			if (ch != ' ' && ch != '\n' && ch != '\t' && ch != '\r') {
+				break;
+			}
+			++pos;
+		}
+		
+		return pos;
+	}
+	/**
+	 * {@code skipStringChars()} returns a position from {@code pos} up to
+	 * {@code limit}, before which there is no quotation mark, backslash 
+	 * or control char. It is only a hint: contexts that cannot scan 
+	 * ahead cheaply return {@code pos}, and the caller goes on char by 
+	 * char. 
+	 * 
+	 * @param pos
+	 * @param limit
+	 * @return long
+	 */
+	long skipStringChars(long pos, long limit) {
+		return pos;
+	}
+	/**
+	 * {@code skipContainer()} returns the position right after the end of
+	 * the array or object opened at {@code pos}, or -1 if the context 
+	 * ends first. Only brackets, braces and the bounds of strings are 
+	 * looked at: nothing is decoded or checked in between. 
+	 * 
+	 * @param pos
+	 * @return long
+	 */
+	long skipContainer(long pos) {
+		int depth = 0;
+		
+		for (; !isEnd(pos); ++pos) {
+			release(pos);
+			
+			char ch = charAt(pos);
+			if (ch == '\"') {
+				do { /* up to the closing quotation mark */
+					pos = skipStringChars(pos + 1, Long.MAX_VALUE);
+					if (isEnd(pos)) {
+						return -1L;
+					}
+					release(pos);
+					
+					ch = charAt(pos);
+					if (ch == '\\') {
+						++pos; /* skip the escaped char */
+					}
+				} while (ch != '\"');
+			}
+			else if (ch == '[' || ch == '{') {
+				++depth;
+			}
+			else if ((ch == ']' || ch == '}') && --depth == 0) {
+				return pos + 1;
+			}
+		}
+		
+		return -1L;
+	}
+	/**
+	 * {@code findElementBounds()} returns the positions of the opening 
+	 * bracket of the array at {@code start}, of the commas between its 
+	 * elements and of its ending bracket. Only strings, escapes and 
+	 * nesting are tracked, so the elements themselves are unchecked. 
+	 * 
+	 * @param start
+	 * @return long[], or {@code null} if the array is not closed
+	 */
+	long[] findElementBounds(long start) {
+		assert charAt(start) == '[';
+		
+		long[] bounds = new long[64];
+		int count = 0;
+		int depth = 0;
+		
+		for (long pos = start; !isEnd(pos); ++pos) {
+			char ch = charAt(pos);
+			boolean isBound = false;
+			
+			if (ch == '\"') {
+				do { /* up to the closing quotation mark */
+					pos = skipStringChars(pos + 1, Long.MAX_VALUE);
+					if (isEnd(pos)) {
+						return null;
+					}
+					
+					ch = charAt(pos);
+					if (ch == '\\') {
+						++pos; /* skip the escaped char */
+					}
+				} while (ch != '\"');
+			}
+			else if (ch == '[' || ch == '{') {
+				isBound = (++depth == 1);
+			}
+			else if (ch == ',') {
+				isBound = (depth == 1);
+			}
+			else if ((ch == ']' || ch == '}') && --depth == 0) {
+				return (ch == ']') ? Arrays.copyOf(addBound(bounds, count, pos), count + 1) : null;
+			}
+			
+			if (isBound) {
+				bounds = addBound(bounds, count++, pos);
+			}
+		}
+		
+		return null;
+	}
+	/**
+	 * {@code addBound()} puts {@code pos} at {@code count} in 
+	 * {@code bounds}, which is grown if it is full. 
+	 * 
+	 * @param bounds
+	 * @param count
+	 * @param pos
+	 * @return long[], {@code bounds} or its grown copy
+	 */
+	static long[] addBound(long[] bounds, int count, long pos) {
+		if (count == bounds.length) {
+			bounds = Arrays.copyOf(bounds, 2 * count);
+		}
+		bounds[count] = pos;
+		
+		return bounds;
+	}
+	/**
+	 * {@code readEightDigits()} returns the value of the 8 chars from 
+	 * {@code pos} on if all of them are decimal digits, or -1 otherwise. 
+	 * Contexts that cannot read 8 chars at once always return -1. 
+	 * 
+	 * @param pos
+	 * @return long
+	 */
+	long readEightDigits(long pos) {
+		return -1L;
+	}
+	/**
+	 * {@code useScanner()} asks this context to pre-scan itself with 
+	 * {@code scanner}. Contexts that cannot be pre-scanned ignore it. 
+	 * 
+	 * @param scanner
+	 */
+	void useScanner(JsonScanner scanner) {
+		return;
+	}
+	/**
+	 * {@code setStackTraceEnabled()} tells this context whether the 
+	 * encoding errors it finds fill in their stack traces, as the syntax 
+	 * errors of the tokenizer reading it do. 
+	 * 
+	 * @param isEnabled
+	 */
+	void setStackTraceEnabled(boolean isEnabled) {
+		this.isStackTraceEnabled = isEnabled;
+		
+		return;
+	}
+	boolean isStackTraceEnabled() {
+		return this.isStackTraceEnabled;
+	}
+	/**
+	 * {@code duplicate()} returns another view of this context, which 
+	 * shares the content but none of the mutable state, so that it can 
+	 * be read by another thread at the same time. Streamed contexts 
+	 * cannot be shared and return {@code null}. 
+	 * 
+	 * @return JsonSource
+	 */
+	JsonSource duplicate() {
+		return null;
+	}
+	/**
+	 * {@code release()} tells this context that positions before 
+	 * {@code pos} will not be accessed again, so a streamed context may 
+	 * discard them. 
+	 * 
+	 * @param pos
+	 */
+	void release(long pos) {
+		return;
+	}
+	/**
+	 * {@code isRetained()} tells whether every position stays accessible
+	 * after the parse, so that nodes may keep offsets into this context.
+	 * A streamed context discards what it has released. 
+	 * 
+	 * @return boolean
+	 */
+	boolean isRetained() {
+		return true;
+	}
+	/**
+	 * {@code locate()} counts the lines from the beginning of the context 
+	 * up to {@code offset}. Columns count the positions from the 
+	 * beginning of the line, so they are bytes for UTF-8 contexts. 
+	 * 
+	 * @param offset
+	 * @return long[], {@code null} if the beginning of the context is 
+	 * 			no longer accessible
+	 */
+	@Override
+	public long[] locate(long offset) {
+		if (!isRetained()) {
+			return null;
+		}
+		
+		long line = 1;
+		long lineStart = 0;
+		
+		for (long pos = 0; pos < offset && !isEnd(pos); ++pos) {
+			if (charAt(pos) == '\n') {
+				++line;
+				lineStart = pos + 1;
+			}
+		}
+		
+		return new long[] {line, offset - lineStart + 1};
+	}
+}
@@ -0,0 +1,135 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.ArrayList;
+
+/**
+ * {@code JsonSpan} records where a node of a tree parsed by
+ * {@code JsonParser.parseSpans()} lies in its context, and the spans of
+ * its items in the order of the context.
+ *
+ * The starts of the items are relative to the start of their container,
+ * and kept by the container in a Fenwick tree over the gaps between
+ * them. An edit moves all the items that follow it in a container by
+ * changing a single gap, in a time logarithmic in the number of items,
+ * and never moves those nested in them.
+ */
+final class JsonSpan {
+	long start; /* relative to the context for the root; items are placed by {@code startOf()} */
+	long length;
+	JsonValue value;
+	String key; /* the key of an object member, {@code null} otherwise */
+	ArrayList<JsonSpan> children; /* {@code null} for scalars */
+	private long[] gaps; /* Fenwick tree, 1-based, of the gaps between the starts of {@code children} */
+
+	/* constructors */
+	/**
+	 * The starts of {@code children}, absolute so far, are taken relative
+	 * to {@code start}.
+	 *
+	 * @param start
+	 * @param end
+	 * @param value
+	 * @param children
+	 */
+	JsonSpan(long start, long end, JsonValue value, ArrayList<JsonSpan> children) {
+		this.start = start;
+		this.length = end - start;
+		this.value = value;
+		this.key = null;
+		this.children = children;
+		this.gaps = null;
+
+		if (children != null) {
+			gaps = new long[children.size() + 1];
+
+			long previous = start;
+			for (int index = 0; index < children.size(); ++index) {
+				gaps[index + 1] = children.get(index).start - previous;
+				previous = children.get(index).start;
+			}
+			for (int node = 1; node < gaps.length; ++node) { /* built in place, in linear time */
+				int parent = node + (node & -node);
+
+				if (parent < gaps.length) {
+					gaps[parent] += gaps[node];
+				}
+			}
+		}
+	}
+
+	/* span navigation methods */
+	boolean isContainer() {
+		return this.children != null;
+	}
+	/**
+	 * {@code covers()} tells whether an edit from {@code from} to
+	 * {@code to} lies within this span, which starts at {@code offset}.
+	 * The edit must leave the brackets of an array or object alone, while
+	 * a scalar may also be edited at its ends, e.g. to append a digit.
+	 *
+	 * @param offset
+	 * @param from
+	 * @param to
+	 * @return boolean
+	 */
+	boolean covers(long offset, long from, long to) {
+		if (isContainer()) {
+			return from > offset && to < offset + length;
+		}
+
+		return from >= offset && to <= offset + length;
+	}
+	/**
+	 * {@code startOf()} returns where the item at {@code index} starts,
+	 * relative to the start of this span.
+	 *
+	 * @param index
+	 * @return long
+	 */
+	long startOf(int index) {
+		long result = 0L;
+
+		for (int node = index + 1; node > 0; node -= node & -node) {
+			result += gaps[node];
+		}
+
+		return result;
+	}
+	/**
+	 * {@code shift()} moves the item at {@code index} and every item
+	 * after it by {@code delta}.
+	 *
+	 * @param index
+	 * @param delta
+	 */
+	void shift(int index, long delta) {
+		for (int node = index + 1; node < gaps.length; node += node & -node) {
+			gaps[node] += delta;
+		}
+
+		return;
+	}
+	/**
+	 * {@code childAt()} returns the index of the last item starting at or
+	 * before {@code pos}, or -1 if there is none. The starts increase
+	 * with the index, so the tree is descended like a binary search.
+	 *
+	 * @param pos relative to the start of this span
+	 * @return int
+	 */
+	int childAt(long pos) {
+		int count = 0; /* the items known to start at or before {@code pos} */
+		long sum = 0L;
+
+		for (int step = Integer.highestOneBit(gaps.length); step > 0; step >>= 1) {
+			int next = count + step;
+
+			if (next < gaps.length && sum + gaps[next] <= pos) {
+				count = next;
+				sum += gaps[next];
+			}
+		}
+
+		return count - 1;
+	}
+}
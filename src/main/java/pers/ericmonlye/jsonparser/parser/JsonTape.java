@@ -0,0 +1,222 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.Arrays;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+/**
+ * {@code JsonTape} is a JSON value laid out flat in a {@code long[]}
+ * tape, with the content of strings and keys in a side {@code char[]},
+ * instead of a tree of {@code JsonValue}. A whole document takes a few
+ * arrays, however many items it has, and is read in order of memory.
+ * It is built by {@code JsonReader.readTape()} and navigated by
+ * {@code JsonCursor}.
+ *
+ * Every item takes one entry, whose top 8 bits are a tag and the other 56
+ * bits a payload:
+ *
+ * 		'n', 't', 'f'	literals, no payload;
+ * 		'l', 'd'		numbers; the next entry holds the {@code long} or the
+ * 						bits of the {@code double};
+ * 		'"'				strings and keys; the payload is the offset of the
+ * 						length in {@code strings}, followed by the content;
+ * 		'[', '{'		the payload is the index after the matching end
+ * 						(low 32 bits) and the number of elements or members
+ * 						(next 24 bits, saturated);
+ * 		']', '}'		the payload is the index of the matching start.
+ *
+ * The members of an object are laid out as a key followed by its value.
+ */
+public final class JsonTape {
+	static final int TAG_SHIFT = 56;
+	static final long PAYLOAD_MASK = (1L << TAG_SHIFT) - 1;
+	static final long INDEX_MASK = 0xFFFFFFFFL;
+	static final int COUNT_SHIFT = 32;
+	static final int MAX_COUNT = 0xFFFFFF; /* counts at or above this are found by walking */
+
+	private long[] tape;
+	private int length;
+	private char[] strings;
+	private int stringsLength;
+
+	/* constructors */
+	/**
+	 * Reads the next value of {@code reader} into a new tape.
+	 *
+	 * @param reader
+	 * @throws JsonParserException
+	 * @throws IllegalStateException if the next token of {@code reader}
+	 * 			does not start a value
+	 */
+	JsonTape(JsonReader reader) {
+		this.tape = new long[64];
+		this.length = 0;
+		this.strings = new char[256];
+		this.stringsLength = 0;
+
+		int[] starts = new int[16]; /* starts of the containers being read */
+		int[] counts = new int[16];
+		int level = -1;
+		int baseDepth = reader.getDepth();
+
+		do {
+			JsonToken token = reader.nextToken();
+
+			if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+				if (level < 0) {
+					throw new IllegalStateException("There is no value left to read. ");
+				}
+
+				int start = starts[level];
+				long count = Math.min(counts[level], MAX_COUNT);
+
+				append((token == JsonToken.END_OBJECT) ? '}' : ']', start);
+				tape[start] |= (count << COUNT_SHIFT) | length;
+				--level;
+
+				continue;
+			}
+			if (token == JsonToken.END_DOCUMENT) {
+				throw new IllegalStateException("There is no value left to read. ");
+			}
+			if (token == JsonToken.KEY && level < 0) {
+				throw new IllegalStateException("The next token is a key, not a value. ");
+			}
+
+			/* Keys are counted for objects, values for arrays. */
+			if (level >= 0 && (token == JsonToken.KEY || tagAt(starts[level]) == '[')) {
+				++counts[level];
+			}
+
+			switch (token) {
+			case START_OBJECT, START_ARRAY -> {
+				if (++level == starts.length) {
+					starts = Arrays.copyOf(starts, 2 * level);
+					counts = Arrays.copyOf(counts, 2 * level);
+				}
+				starts[level] = length;
+				counts[level] = 0;
+				append((token == JsonToken.START_OBJECT) ? '{' : '[', 0L);
+			}
+			case KEY, STRING -> appendString(reader.buffer);
+			case NULL -> append('n', 0L);
+			case TRUE -> append('t', 0L);
+			case FALSE -> append('f', 0L);
+			case NUMBER -> {
+				if (reader.isLongNumber()) {
+					append('l', 0L);
+					appendRaw(reader.toLong());
+				}
+				else {
+					double number = reader.getDouble();
+
+					append('d', 0L);
+					appendRaw(Double.doubleToRawLongBits(number));
+				}
+			}
+			default -> throw new JsonParserException("Unknown JSON token. ");
+			}
+		}
+		while (reader.getDepth() > baseDepth);
+
+		if (baseDepth == 0) { /* the root value: check the end of the document */
+			reader.nextToken();
+		}
+	}
+
+	/* tape manipulation methods */
+	private void append(char tag, long payload) {
+		appendRaw(((long)tag << TAG_SHIFT) | payload);
+
+		return;
+	}
+	private void appendRaw(long entry) {
+		if (length == tape.length) {
+			tape = Arrays.copyOf(tape, 2 * length);
+		}
+		tape[length++] = entry;
+
+		return;
+	}
+	private void appendString(StringBuilder content) {
+		int size = content.length();
+
+		if (stringsLength + size + 2 > strings.length) {
+			strings = Arrays.copyOf(strings, Math.max(2 * strings.length, stringsLength + size + 2));
+		}
+
+		append('"', stringsLength);
+		strings[stringsLength++] = (char)(size >>> 16);
+		strings[stringsLength++] = (char)size;
+		content.getChars(0, size, strings, stringsLength);
+		stringsLength += size;
+
+		return;
+	}
+
+	/* tape access methods */
+	char tagAt(int index) {
+		return (char)(tape[index] >>> TAG_SHIFT);
+	}
+	long payloadAt(int index) {
+		return tape[index] & PAYLOAD_MASK;
+	}
+	long rawAt(int index) {
+		return tape[index];
+	}
+	/**
+	 * {@code skip()} returns the index after the item at {@code index}.
+	 *
+	 * @param index
+	 * @return int
+	 */
+	int skip(int index) {
+		return switch (tagAt(index)) {
+		case '[', '{' -> (int)(payloadAt(index) & INDEX_MASK);
+		case 'l', 'd' -> index + 2;
+		default -> index + 1;
+		};
+	}
+	int stringLength(int index) {
+		int offset = (int)payloadAt(index);
+
+		return (strings[offset] << 16) | strings[offset + 1];
+	}
+	String stringAt(int index) {
+		return new String(strings, (int)payloadAt(index) + 2, stringLength(index));
+	}
+	boolean stringEquals(int index, String other) {
+		int size = stringLength(index);
+
+		if (size != other.length()) {
+			return false;
+		}
+
+		int offset = (int)payloadAt(index) + 2;
+		for (int pos = 0; pos < size; ++pos) {
+			if (strings[offset + pos] != other.charAt(pos)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/* user APIs */
+	/**
+	 * {@code getRoot()} returns a new cursor at the value of this tape.
+	 *
+	 * @return JsonCursor
+	 */
+	public JsonCursor getRoot() {
+		return new JsonCursor(this);
+	}
+	/**
+	 * {@code getLength()} returns the number of entries of the tape.
+	 *
+	 * @return int
+	 */
+	public int getLength() {
+		return this.length;
+	}
+}
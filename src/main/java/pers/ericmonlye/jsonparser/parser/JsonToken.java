@@ -0,0 +1,39 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.lang.String;
+
+/**
+ * {@code JsonToken} is the kind of token returned by 
+ * {@code JsonReader.nextToken()}. 
+ */
+public enum JsonToken {
+	START_OBJECT(1, "START_OBJECT"),
+	END_OBJECT(2, "END_OBJECT"),
+	START_ARRAY(3, "START_ARRAY"),
+	END_ARRAY(4, "END_ARRAY"),
+	KEY(5, "KEY"),
+	NULL(6, "NULL"),
+	TRUE(7, "TRUE"),
+	FALSE(8, "FALSE"),
+	NUMBER(9, "NUMBER"),
+	STRING(10, "STRING"),
+	END_DOCUMENT(11, "END_DOCUMENT");
+	
+	public final int tokenValue;
+	public final String tokenName;
+	
+	private JsonToken(int tokenValue, String tokenName) {
+		this.tokenValue = tokenValue;
+		this.tokenName = tokenName;
+	}
+	
+	/**
+	 * Overridden {@code toString()} method is a descriptive method
+	 * for an {@code enum} variable. To get the precise name of the
+	 * {@code enum} variable, always use {@code name()} method.
+	 */
+	@Override
+	public String toString() {
+		return this.tokenName;
+	}
+}
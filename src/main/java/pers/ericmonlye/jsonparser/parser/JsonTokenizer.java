@@ -0,0 +1,887 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.lang.IndexOutOfBoundsException;
+import java.math.BigDecimal;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+/**
+ * {@code JsonTokenizer} holds the cursor over a JSON context and the
+ * parsers of single tokens: whitespace, literals, numbers and strings.
+ * {@code JsonParser} builds trees on top of it and {@code JsonReader}
+ * reads the same tokens one at a time. 
+ */
+abstract class JsonTokenizer {
+	static final int MAX_RUN_LENGTH = 4096;
+	static final int DEFAULT_MAX_DEPTH = 1000;
+	
+	JsonSource context;
+	long cur;
+	StringBuilder buffer; /* reused by every string decoded by this tokenizer */
+	KeyCache keys; /* reused by every key decoded by this tokenizer */
+	int maxDepth; /* the deepest nesting of arrays and objects accepted */
+	boolean isStackTraceEnabled; /* whether syntax errors fill in their stack traces */
+	
+	/* the last number checked by {@code parseNumberComponents()} */
+	private boolean isNumberNegative;
+	private boolean isNumberIntegral; /* whether there is neither fractional nor exponential part */
+	private long numberMantissa; /* unsigned, the first 19 significant digits */
+	private int numberDigits; /* significant digits in {@code numberMantissa} */
+	private long numberExponent; /* decimal exponent of the last digit kept */
+	private boolean isNumberTruncated; /* whether non-zero digits were dropped */
+	
+	/* constructors */
+	JsonTokenizer() {
+		this.context = new StringSource("");
+		this.cur = 0;
+		this.buffer = new StringBuilder();
+		this.keys = new KeyCache();
+		this.maxDepth = DEFAULT_MAX_DEPTH;
+		this.isStackTraceEnabled = true;
+	}
+	JsonTokenizer(JsonSource context) {
+		this.context = context;
+		this.cur = 0;
+		this.buffer = new StringBuilder();
+		this.keys = new KeyCache();
+		this.maxDepth = DEFAULT_MAX_DEPTH;
+		this.isStackTraceEnabled = true;
+	}
+	
+	/* cursor manipulation methods */
+	void rewind() {
+		this.cur = 0;
+		
+		return;
+	}
+	boolean isEndOfContext() {
+		return context.isEnd(cur);
+	}
+	char getCurChar() {
+		assert !isEndOfContext();
+		
+		return context.charAt(cur);
+	}
+
+	/* errors */
+	/**
+	 * {@code error()} builds the exception of {@code code} located at 
+	 * the cursor. Its line and column are only counted if asked for. 
+	 * 
+	 * @param code
+	 * @return JsonParserException
+	 */
+	JsonParserException error(JsonErrorCode code) {
+		return error(code, code.codeMessage);
+	}
+	JsonParserException error(JsonErrorCode code, String message) {
+		return code.newException(message, isStackTraceEnabled).initLocation(cur, context);
+	}
+
+	/* booleans */
+	boolean isCurWhitespace() {
+		assert !isEndOfContext();
+		
+		char ch = getCurChar();
+		
+		return (ch == ' ' || ch == '\n' || ch == '\t' || ch == '\r');
+	}
+	/**
+	 * {@code isDepthExceeded()} returns whether an array or object opened
+	 * inside {@code depth} open ones nests deeper than {@code maxDepth}.
+	 * 
+	 * @param depth
+	 * @return boolean
+	 */
+	boolean isDepthExceeded(int depth) {
+		return depth >= maxDepth;
+	}
+	boolean isCurDigit() {
+		assert !isEndOfContext();
+		
+		char ch = getCurChar();
+		
+		return (ch >= '0' && ch <= '9');
+	}
+
+	/* tool parsers */
+	JsonTokenizer parseWhitespace() {
+		cur = context.skipWhitespace(cur);
+		
+		return this;
+	}
+	/**
+	 * {@code parseDigitComponent()} moves the cursor past a run of digits
+	 * of the integral or fractional part and accumulates them into the
+	 * mantissa of the number being checked. 
+	 * 
+	 * @param isFractional
+	 * @return JsonTokenizer
+	 */
+	JsonTokenizer parseDigitComponent(boolean isFractional) {
+		while (true) {
+			long eightDigits = (numberDigits <= 19 - 8) ? context.readEightDigits(cur) : -1L;
+			
+			if (eightDigits >= 0) { /* all 8 digits fit in the mantissa */
+				if (numberMantissa == 0) {
+					for (long rest = eightDigits; rest != 0; rest /= 10) {
+						++numberDigits;
+					}
+				}
+				else {
+					numberDigits += 8;
+				}
+				numberMantissa = numberMantissa * 100_000_000L + eightDigits;
+				if (isFractional) {
+					numberExponent -= 8;
+				}
+				
+				cur += 8;
+				continue;
+			}
+			if (isEndOfContext() || !isCurDigit()) {
+				break;
+			}
+			
+			int digit = getCurChar() - '0';
+			
+			if (numberDigits < 19) {
+				numberMantissa = numberMantissa * 10 + digit;
+				if (numberMantissa != 0) { /* leading 0s are not significant */
+					++numberDigits;
+				}
+				if (isFractional) {
+					--numberExponent;
+				}
+			}
+			else {
+				if (!isFractional) {
+					++numberExponent;
+				}
+				if (digit != 0) {
+					isNumberTruncated = true;
+				}
+			}
+			
+			++cur;
+		}
+		
+		return this;
+	}
+	JsonTokenizer parseExponentComponent()
+			throws IncompleteItemException
+	{
+		assert getCurChar() == 'e' || getCurChar() == 'E';
+		++cur;
+		isNumberIntegral = false;
+		
+		boolean isNegative = false;
+		if (!isEndOfContext() && (getCurChar() == '+' || getCurChar() == '-')) {
+			isNegative = (getCurChar() == '-');
+			++cur;
+		}
+		else if (isEndOfContext()) {
+			throw error(JsonErrorCode.INCOMPLETE_NUMBER, "Incomplete exponential part. ");
+		}
+		
+		if (!isEndOfContext() && isCurDigit()) {
+			long exponent = 0;
+			
+			while (!isEndOfContext() && isCurDigit()) {
+				if (exponent < 1_000_000_000L) { /* far beyond any double, and no overflow */
+					exponent = exponent * 10 + (getCurChar() - '0');
+				}
+				++cur;
+			}
+			
+			numberExponent += (isNegative ? -exponent : exponent);
+		}
+		else {
+			throw error(JsonErrorCode.INCOMPLETE_NUMBER, "Incomplete exponential part. ");
+		}
+		
+		return this;
+	}
+	JsonTokenizer parseFractionalComponent()
+			throws IncompleteItemException
+	{
+		assert getCurChar() == '.';
+		++cur;
+		isNumberIntegral = false;
+		
+		if (!isEndOfContext() && isCurDigit()) {
+			parseDigitComponent(true);
+		}
+		else {
+			throw error(JsonErrorCode.INCOMPLETE_NUMBER, "Incomplete fractional part. ");
+		}
+		
+		return this;
+	}
+	/**
+	 * {@code parseHexDigits()} reads the 4 hex-digits starting at 
+	 * {@code pos} without moving the cursor. 
+	 * 
+	 * @param pos
+	 * @return the value of the digits, or -1 if they are incomplete
+	 */
+	long parseHexDigits(long pos) {
+		if (context.isEnd(pos + 3)) {
+			return -1L;
+		}
+		
+		long result = 0L;
+		for (long index = pos; index < pos + 4; ++index) {
+			char ch = context.charAt(index);
+			int digit = 0;
+			if (ch >= '0' && ch <= '9') {
+				digit = ch - '0';
+			}
+			else if (ch >= 'a' && ch <= 'f') {
+				digit = ch - 'a' + 10;
+			}
+			else if (ch >= 'A' && ch <= 'F') {
+				digit = ch - 'A' + 10;
+			}
+			else {
+				return -1L;
+			}
+			
+			result = (result << 4) | digit;
+		}
+		
+		return result;
+	}
+	JsonTokenizer parseCodepoint(long codepoint)
+			throws InvalidCharacterException 
+	{
+		if (codepoint > 0x10FFFF) {
+			throw error(JsonErrorCode.INVALID_CODEPOINT);
+		}
+		
+		if (codepoint >= 0xD800 && codepoint <= 0xDFFF) {
+			/* 
+			 * A lone low surrogate is not a Unicode scalar value and has no
+			 * UTF-8 form. Replace it by U+FFFD as a UTF-8 decoder would. 
+			 */
+			buffer.append('\uFFFD');
+		}
+		else {
+			buffer.appendCodePoint((int)codepoint);
+		}
+		
+		return this;
+	}
+	JsonTokenizer parseUChar()
+			throws InvalidCharacterException, IncompleteItemException 
+	{
+		assert !isEndOfContext();
+		assert getCurChar() == 'u';
+		
+		long highSurrogate = parseHexDigits(cur + 1);
+		if (highSurrogate < 0) {
+			throw error(JsonErrorCode.INCOMPLETE_ESCAPE, "Incomplete escape character. "
+								+ "Should only use hex-digits and exactly 4 digits are allowed.");
+		}
+		long codepoint = 0L;
+		
+		if (highSurrogate >= 0xD800 && highSurrogate <= 0xDBFF) {
+			if (context.isEnd(cur + 7) 
+					|| context.charAt(cur + 5) != '\\' || context.charAt(cur + 6) != 'u') {
+				throw error(JsonErrorCode.MISSING_LOW_SURROGATE);
+			}
+			
+			long lowSurrogate = parseHexDigits(cur + 7);
+			if (lowSurrogate < 0) {
+				throw error(JsonErrorCode.INCOMPLETE_ESCAPE, "Incomplete escape character. "
+									+ "Should only use hex-digits and exactly 4 digits are allowed.");
+			}
+			
+			if (!(lowSurrogate >= 0xDC00 && lowSurrogate <= 0xDFFF)) {
+				throw error(JsonErrorCode.INVALID_LOW_SURROGATE);
+			}
+			codepoint = 0x10000 + (highSurrogate - 0xD800) * 0x400 + (lowSurrogate - 0xDC00);
+
+			/* 
+			 * Cursor move to the last hex digit. 
+			 * {@code parseEscapeChar()} will move it 1 char further. 
+			 */ 
+			cur += 10; 
+		}
+		else {
+			codepoint = highSurrogate;
+
+			/* 
+			 * Cursor move to the last hex digit. 
+			 * {@code parseEscapeChar()} will move it 1 char further. 
+			 */ 
+			cur += 4;
+		}
+		
+		return parseCodepoint(codepoint);
+	}
+	JsonTokenizer parseEscapeChar() 
+			throws IncompleteItemException
+	{
+		/* 
+		 * Only \u0000 - \u001F, \u0022 ('\"') and \u005C ('\\')
+		 * MUST be written in escape char. 
+		 * The other char in \u0020 - \u10FFFF are all legal in JSON string
+		 * but still CAN be written in escape char. 
+		 */
+		assert !isEndOfContext();
+		assert getCurChar() == '\\';
+		++cur;
+		
+		if (isEndOfContext() || getCurChar() == '\"') {
+			throw error(JsonErrorCode.INCOMPLETE_ESCAPE);
+		}
+		
+		switch (getCurChar()) {
+		case '\\' -> buffer.append('\\');
+		case '/' -> buffer.append('/');
+		case 'b' -> buffer.append('\b');
+		case 'f' -> buffer.append('\f');
+		case 'n' -> buffer.append('\n');
+		case 'r' -> buffer.append('\r');
+		case 't' -> buffer.append('\t');
+		case 'u' -> parseUChar();
+		default -> {
+			throw error(JsonErrorCode.UNKNOWN_ESCAPE);
+		}
+		}
+		
+		++cur;
+		
+		return this;
+	}
+	/**
+	 * {@code parseStringContent()} moves the cursor from the opening 
+	 * quotation mark of a string to the closing one. Runs of unescaped 
+	 * chars are copied in bulk, so the cost is linear in the length of 
+	 * the input. If {@code isDecoded}, the runs before escape chars and the
+	 * escape chars themselves are collected in {@code buffer}, which is 
+	 * reused across strings. Runs longer than {@code MAX_RUN_LENGTH} are 
+	 * flushed to {@code buffer} as well. 
+	 * 
+	 * @param isDecoded
+	 * @return the start of the last run, which is not decoded yet
+	 * @throws IncompleteItemException
+	 * @throws InvalidCharacterException
+	 * @throws MissingEndTagException
+	 */
+	private long parseStringContent(boolean isDecoded) 
+			throws IncompleteItemException, InvalidCharacterException, MissingEndTagException
+	{
+		assert !isEndOfContext();
+		assert getCurChar() == '\"';
+		++cur;
+		
+		buffer.setLength(0);
+		
+		long runStart = cur;
+		for (char ch = '\0'; !isEndOfContext() && (ch = getCurChar()) != '\"'; /* ++cur is done in the loop body */) {
+			if (ch == '\\') {
+				if (isDecoded) {
+					context.decode(buffer, runStart, cur);
+				}
+				parseEscapeChar();
+				runStart = cur;
+				context.release(cur);
+			}
+			else if (ch <= '\u001F') {
+				throw error(JsonErrorCode.ILLEGAL_CHARACTER);
+			}
+			else {
+				if (cur - runStart >= MAX_RUN_LENGTH && ch < 0x80) {
+					/* 
+					 * Flush long runs at an ASCII char, so that a streamed 
+					 * context never keeps a whole string in its window. 
+					 */
+					if (isDecoded) {
+						context.decode(buffer, runStart, cur);
+					}
+					runStart = cur;
+					context.release(cur);
+				}
+				
+				cur = context.skipStringChars(cur + 1, runStart + MAX_RUN_LENGTH);
+			}
+		}
+		
+		if (isEndOfContext()) {
+			throw error(JsonErrorCode.MISSING_QUOTATION_MARK);
+		}
+		
+		return runStart;
+	}
+	/**
+	 * {@code parseRawString()} decodes the string starting at the current 
+	 * quotation mark. A string without escape chars is taken as a single
+	 * {@code decode()} of the context; otherwise it is built in 
+	 * {@code buffer}. 
+	 * 
+	 * @return String
+	 * @throws IncompleteItemException
+	 * @throws InvalidCharacterException
+	 * @throws MissingEndTagException
+	 */
+	String parseRawString() 
+			throws IncompleteItemException, InvalidCharacterException, MissingEndTagException
+	{
+		long runStart = parseStringContent(true);
+		
+		/* Every escape char or flushed run appends at least 1 char to the buffer. */
+		String result = "";
+		if (buffer.length() == 0) {
+			result = context.decode(runStart, cur);
+		}
+		else {
+			context.decode(buffer, runStart, cur);
+			result = buffer.toString();
+		}
+
+		++cur; /* skip ending '\"' */
+		
+		return result;
+	}
+	/**
+	 * {@code parseRawKey()} decodes the object key starting at the current
+	 * quotation mark, the same way as {@code parseRawString()}. Short 
+	 * keys without escape chars are looked up in {@code keys} first, so a
+	 * repeated key is returned as the same {@code String}. 
+	 * 
+	 * @return String
+	 * @throws IncompleteItemException
+	 * @throws InvalidCharacterException
+	 * @throws MissingEndTagException
+	 */
+	String parseRawKey() 
+			throws IncompleteItemException, InvalidCharacterException, MissingEndTagException
+	{
+		long runStart = parseStringContent(true);
+		
+		String result = "";
+		if (buffer.length() == 0) {
+			result = keys.intern(context, runStart, cur);
+			if (result == null) {
+				result = context.decode(runStart, cur);
+			}
+		}
+		else {
+			context.decode(buffer, runStart, cur);
+			result = buffer.toString();
+		}
+		
+		++cur; /* skip ending '\"' */
+		
+		return result;
+	}
+	/**
+	 * {@code parseBufferedString()} decodes the string starting at the 
+	 * current quotation mark into {@code buffer} without creating a 
+	 * {@code String}. 
+	 * 
+	 * @return JsonTokenizer
+	 * @throws IncompleteItemException
+	 * @throws InvalidCharacterException
+	 * @throws MissingEndTagException
+	 */
+	JsonTokenizer parseBufferedString() 
+			throws IncompleteItemException, InvalidCharacterException, MissingEndTagException
+	{
+		long runStart = parseStringContent(true);
+		
+		context.decode(buffer, runStart, cur);
+		++cur; /* skip ending '\"' */
+		
+		return this;
+	}
+	/**
+	 * {@code skipRawString()} checks the string starting at the current 
+	 * quotation mark and moves the cursor past it without decoding it. 
+	 * 
+	 * @return JsonTokenizer
+	 * @throws IncompleteItemException
+	 * @throws InvalidCharacterException
+	 * @throws MissingEndTagException
+	 */
+	JsonTokenizer skipRawString() 
+			throws IncompleteItemException, InvalidCharacterException, MissingEndTagException
+	{
+		parseStringContent(false);
+		
+		++cur; /* skip ending '\"' */
+		
+		return this;
+	}
+	/**
+	 * {@code parseLiteral(JsonType)} can deal with {@code JsonType.NULL}, 
+	 * {@code JsonType.TRUE} and {@code JsonType.FALSE}. The chars are 
+	 * compared in place, so nothing is allocated unless the literal is 
+	 * malformed. 
+	 * 
+	 * @param type
+	 * @return JsonTokenizer
+	 * @throws InvalidLiteralException
+	 * @throws IncompleteItemException
+	 */
+	JsonTokenizer parseLiteral(JsonType type) 
+			throws InvalidLiteralException, IncompleteItemException
+	{
+		assert !isEndOfContext();
+		String typeName = switch (type) {
+		case NULL -> "null";
+		case TRUE -> "true";
+		case FALSE -> "false";
+		default -> throw new JsonParserException("Not a literal type. ");
+		};
+		int len = typeName.length();
+		
+		assert getCurChar() == typeName.charAt(0);
+		int index = 1;
+		while (index < len && !context.isEnd(cur + index) && context.charAt(cur + index) == typeName.charAt(index)) {
+			++index;
+		}
+		
+		/* Only a prefix of the literal is incomplete, whatever the encoding of what follows. */
+		if (index < len && context.isEnd(cur + index)) {
+			throw error(JsonErrorCode.INCOMPLETE_LITERAL, "The \"" + typeName + "\" item is incomplete. ");
+		}
+		if (index < len) {
+			long end = cur + index + 1;
+			while (end < cur + len && !context.isEnd(end)) {
+				++end;
+			}
+			
+			throw error(JsonErrorCode.INVALID_LITERAL, "Misspelling \"" + typeName + "\" as \""
+					+ context.substring(cur, end) + "\". ");
+		}
+		
+		cur += len;
+		
+		return this;
+	}
+	/**
+	 * {@code parseNumberComponents()} checks the number starting at the 
+	 * cursor and moves the cursor past it. The digits are accumulated 
+	 * into a mantissa and an exponent on the way, which 
+	 * {@code toNumber()} converts later without reading the text again. 
+	 * 
+	 * @return JsonTokenizer
+	 * @throws IncompleteItemException
+	 */
+	JsonTokenizer parseNumberComponents()
+			throws IncompleteItemException
+	{
+		parseIntegralComponent();
+		
+		if (!isEndOfContext() && getCurChar() == '.') {
+			parseFractionalComponent();
+		}
+		
+		if (!isEndOfContext() && (getCurChar() == 'e' || getCurChar() == 'E')) {
+			parseExponentComponent();
+		}
+		
+		return this;
+	}
+	/**
+	 * {@code checkNumberComponents()} checks the number starting at the 
+	 * cursor and moves the cursor past it like 
+	 * {@code parseNumberComponents()}, but only the integral part and the
+	 * exponent are accumulated: the digits of the fractional part are 
+	 * only skipped. {@code isLongNumber()} still holds exactly and 
+	 * {@code isNumberNearOverflow()} conservatively, but the number 
+	 * cannot be converted by {@code toNumber()}. It is used for numbers 
+	 * that are converted later, if ever. 
+	 * 
+	 * @return JsonTokenizer
+	 * @throws IncompleteItemException
+	 */
+	JsonTokenizer checkNumberComponents()
+			throws IncompleteItemException
+	{
+		parseIntegralComponent();
+		
+		if (!isEndOfContext() && getCurChar() == '.') {
+			++cur;
+			isNumberIntegral = false;
+			
+			if (isEndOfContext() || !isCurDigit()) {
+				throw error(JsonErrorCode.INCOMPLETE_NUMBER, "Incomplete fractional part. ");
+			}
+			while (context.readEightDigits(cur) >= 0) {
+				cur += 8;
+			}
+			while (!isEndOfContext() && isCurDigit()) {
+				++cur;
+			}
+		}
+		
+		if (!isEndOfContext() && (getCurChar() == 'e' || getCurChar() == 'E')) {
+			parseExponentComponent();
+		}
+		
+		return this;
+	}
+	/**
+	 * {@code parseIntegralComponent()} starts a new number at the cursor 
+	 * and moves the cursor past its sign and its integral part. 
+	 * 
+	 * @return JsonTokenizer
+	 * @throws IncompleteItemException
+	 */
+	private JsonTokenizer parseIntegralComponent()
+			throws IncompleteItemException
+	{
+		assert !isEndOfContext();
+		assert getCurChar() == '-' || isCurDigit();
+		
+		isNumberNegative = false;
+		isNumberIntegral = true;
+		numberMantissa = 0;
+		numberDigits = 0;
+		numberExponent = 0;
+		isNumberTruncated = false;
+		
+		if (getCurChar() == '-') {
+			isNumberNegative = true;
+			++cur;
+		}
+		
+		if (!isEndOfContext() && getCurChar() >= '1' && getCurChar() <= '9') {
+			parseDigitComponent(false);
+		}
+		else if (!isEndOfContext() && getCurChar() == '0') {
+			++cur;
+		}
+		else { /* "-abcd", "-.3", "-"; positive numbers will never come here. */
+			throw error(JsonErrorCode.INCOMPLETE_NUMBER, "There is no digit following the negative sign. ");
+		}
+		
+		return this;
+	}
+	/**
+	 * {@code toNumber()} converts the number between {@code start} and 
+	 * {@code end}, which must be the last number checked by 
+	 * {@code parseNumberComponents()}. 
+	 * 
+	 * @param start
+	 * @param end
+	 * @return double
+	 * @throws InvalidNumberException
+	 */
+	double toNumber(long start, long end)
+			throws InvalidNumberException
+	{
+		double result = convertNumber(start, end);
+
+		if (result == Double.POSITIVE_INFINITY || result == Double.NEGATIVE_INFINITY) {
+			throw error(JsonErrorCode.NUMBER_TOO_LARGE);
+		}
+		
+		return result;
+	}
+	/**
+	 * {@code convertNumber()} converts the number between {@code start} 
+	 * and {@code end} like {@code toNumber()}, but returns infinities 
+	 * instead of throwing. The accumulated digits are converted by 
+	 * {@code DoubleConverter}; the text is only read again in the rare 
+	 * cases it cannot round correctly. 
+	 * 
+	 * @param start
+	 * @param end
+	 * @return double
+	 */
+	double convertNumber(long start, long end) {
+		double result = DoubleConverter.toDouble(isNumberNegative, numberMantissa, numberExponent, isNumberTruncated);
+		
+		if (Double.isNaN(result)) {
+			result = Double.parseDouble(context.substring(start, end));
+		}
+		
+		/* 
+		 * -0.0 is less than 0.0 in Java Double type, which is not the case
+		 * in JSON. Here we change signed 0s to positive 0s.
+		 */
+		if (result == -0.0) {
+			result = 0.0;
+		}
+		
+		return result;
+	}
+	/**
+	 * {@code isIntegralNumber()} tells whether the last number checked by
+	 * {@code parseNumberComponents()} has neither fractional nor 
+	 * exponential part. 
+	 * 
+	 * @return boolean
+	 */
+	boolean isIntegralNumber() {
+		return this.isNumberIntegral;
+	}
+	/**
+	 * {@code isLongNumber()} tells whether the last number checked by
+	 * {@code parseNumberComponents()} is integral and in the range of 
+	 * {@code long}. 
+	 * 
+	 * @return boolean
+	 */
+	boolean isLongNumber() {
+		return isNumberIntegral && numberExponent == 0 && !isNumberTruncated
+				&& (numberMantissa >= 0 || (isNumberNegative && numberMantissa == Long.MIN_VALUE));
+	}
+	/**
+	 * {@code isNumberNearOverflow()} tells whether the last number checked
+	 * may have 308 or more as the decimal exponent of its leading digit. 
+	 * Only such numbers may be out of the range of {@code double}. If no 
+	 * digit was accumulated, the leading digit is taken to be the one 
+	 * before the exponent, which is never below it. 
+	 * 
+	 * @return boolean
+	 */
+	boolean isNumberNearOverflow() {
+		return numberExponent + Math.max(numberDigits, 1) - 1 >= 308;
+	}
+	/**
+	 * {@code convertNumberAt()} converts the number between {@code start} 
+	 * and {@code end} of {@code context}, which has been checked before. 
+	 * It is used by nodes that postpone the conversion, so it reads the 
+	 * context without any tokenizer and allocates nothing but in the rare
+	 * cases {@code DoubleConverter} cannot round correctly. 
+	 * 
+	 * @param context
+	 * @param start
+	 * @param end
+	 * @return double
+	 */
+	static double convertNumberAt(JsonSource context, long start, long end) {
+		long pos = start;
+		boolean isNegative = (context.charAt(pos) == '-');
+		boolean isFractional = false;
+		long mantissa = 0; /* the same digits as {@code parseDigitComponent()} keeps */
+		int digits = 0;
+		long exponent = 0;
+		boolean isTruncated = false;
+		
+		if (isNegative) {
+			++pos;
+		}
+		
+		for (; pos < end; ++pos) {
+			long eightDigits = (digits <= 19 - 8) ? context.readEightDigits(pos) : -1L;
+			
+			if (eightDigits >= 0) { /* all 8 digits fit in the mantissa */
+				if (mantissa == 0) {
+					for (long rest = eightDigits; rest != 0; rest /= 10) {
+						++digits;
+					}
+				}
+				else {
+					digits += 8;
+				}
+				mantissa = mantissa * 100_000_000L + eightDigits;
+				if (isFractional) {
+					exponent -= 8;
+				}
+			
+				pos += 8 - 1;
+				continue;
+			}
+			
+			char ch = context.charAt(pos);
+			
+			if (ch == '.') {
+				isFractional = true;
+				continue;
+			}
+			if (ch == 'e' || ch == 'E') {
+				break;
+			}
+			
+			int digit = ch - '0';
+			
+			if (digits < 19) {
+				mantissa = mantissa * 10 + digit;
+				if (mantissa != 0) { /* leading 0s are not significant */
+					++digits;
+				}
+				if (isFractional) {
+					--exponent;
+				}
+			}
+			else {
+				if (!isFractional) {
+					++exponent;
+				}
+				if (digit != 0) {
+					isTruncated = true;
+				}
+			}
+		}
+		
+		if (pos < end) { /* the exponential part */
+			boolean isNegativeExponent = (context.charAt(++pos) == '-');
+			long power = 0;
+			
+			if (isNegativeExponent || context.charAt(pos) == '+') {
+				++pos;
+			}
+			for (; pos < end; ++pos) {
+				if (power < 1_000_000_000L) { /* far beyond any double, and no overflow */
+					power = power * 10 + (context.charAt(pos) - '0');
+				}
+			}
+			
+			exponent += (isNegativeExponent ? -power : power);
+		}
+		
+		double result = DoubleConverter.toDouble(isNegative, mantissa, exponent, isTruncated);
+		
+		if (Double.isNaN(result)) {
+			result = Double.parseDouble(context.substring(start, end));
+		}
+		
+		/* signed 0s are positive 0s in JSON, see {@code convertNumber()} */
+		if (result == -0.0) {
+			result = 0.0;
+		}
+		
+		return result;
+	}
+	/**
+	 * {@code toLong()} returns the last number checked by 
+	 * {@code parseNumberComponents()}, for which {@code isLongNumber()}
+	 * holds. No conversion is needed. 
+	 * 
+	 * @return long
+	 */
+	long toLong() {
+		assert isLongNumber();
+		
+		return isNumberNegative ? -numberMantissa : numberMantissa;
+	}
+	/**
+	 * {@code toBigDecimal()} converts the number between {@code start} and
+	 * {@code end} exactly. An exponent beyond the scale of 
+	 * {@code BigDecimal}, i.e. out of the range of {@code int}, throws at 
+	 * {@code start}. 
+	 * 
+	 * @param start
+	 * @param end
+	 * @return BigDecimal
+	 * @throws InvalidNumberException
+	 */
+	BigDecimal toBigDecimal(long start, long end)
+			throws InvalidNumberException
+	{
+		try {
+			return new BigDecimal(context.substring(start, end));
+		}
+		catch (NumberFormatException e) { /* "Exponent overflow." */
+			throw JsonErrorCode.NUMBER_TOO_LARGE.newException("The exponent is too large for BigDecimal. ", e, isStackTraceEnabled)
+					.initLocation(start, context);
+		}
+	}
+}
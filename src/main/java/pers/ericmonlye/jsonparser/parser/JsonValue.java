@@ -1,5 +1,6 @@
 package pers.ericmonlye.jsonparser.parser;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map.Entry;
@@ -10,13 +11,30 @@ import pers.ericmonlye.jsonparser.exception.*;
  * 
  */
 public class JsonValue implements Cloneable {
+	/**
+	 * The literals built by {@code JsonParser}, shared by every tree so 
+	 * that literals cost no allocation. They cannot be modified: the 
+	 * setters throw {@code UnsupportedOperationException}, and 
+	 * {@code clone()} returns a copy that can be. 
+	 */
+	public static final JsonValue NULL = new JsonValue(JsonType.NULL, true);
+	public static final JsonValue TRUE = new JsonValue(JsonType.TRUE, true);
+	public static final JsonValue FALSE = new JsonValue(JsonType.FALSE, true);
+	
 	private JsonType type;
 	private double num;
+	private long integer; /* valid if {@code isIntegral} */
+	private boolean isIntegral; /* whether the number is held exactly in {@code integer} */
+	private BigDecimal decimal; /* not {@code null} if the number is held in it */
+	private volatile JsonSource source; /* not {@code null} if the number is not converted yet */
+	private long sourceStart;
+	private long sourceEnd;
 	private String str; /* char[] does not override the equals() method of Object class. 
 						 * So do not use char[] to implement JSON string. */
 	private ArrayList<JsonValue> arr;
 	private HashMap<String, JsonValue> obj; /* For the same reason as JSON string, 
 											 * do not use char[] here. */
+	private boolean isShared; /* one of the shared literals, which cannot be modified */
 	
 	/* constructors */
 	public JsonValue() {
@@ -40,6 +58,45 @@ public class JsonValue implements Cloneable {
 		this.arr = null;
 		this.obj = null;
 	}
+	public JsonValue(long integer) {
+		this.type = JsonType.NUMBER;
+		this.num = 0;
+		this.integer = integer;
+		this.isIntegral = true;
+		this.str = "";
+		this.arr = null;
+		this.obj = null;
+	}
+	public JsonValue(BigDecimal decimal) {
+		this.type = JsonType.NUMBER;
+		this.num = 0;
+		this.decimal = decimal;
+		this.str = "";
+		this.arr = null;
+		this.obj = null;
+	}
+	private JsonValue(JsonType type, boolean isShared) {
+		this(type);
+		this.isShared = isShared;
+	}
+	/**
+	 * A number between {@code start} and {@code end} of {@code source}, 
+	 * which is converted the first time it is read. 
+	 * 
+	 * @param source
+	 * @param start
+	 * @param end
+	 */
+	JsonValue(JsonSource source, long start, long end) {
+		this.type = JsonType.NUMBER;
+		this.num = 0;
+		this.sourceStart = start;
+		this.sourceEnd = end;
+		this.source = source; /* last, see {@code materialize()} */
+		this.str = "";
+		this.arr = null;
+		this.obj = null;
+	}
 	public JsonValue(String str) {
 		this.type = JsonType.STRING;
 		this.num = 0;
@@ -65,6 +122,7 @@ public class JsonValue implements Cloneable {
 	
 	/* JavaBeans */
 	void setType(JsonType type) {
+		checkModifiable();
 		this.type = type;
 		
 		return;
@@ -72,11 +130,24 @@ public class JsonValue implements Cloneable {
 	double getNum() {
 		assert type == JsonType.NUMBER;
 		
-		return this.num;
+		materialize();
+		if (isIntegral) {
+			return (double)this.integer;
+		}
+		
+		return (decimal != null) ? decimal.doubleValue() : this.num;
+	}
+	boolean isBigDecimal() {
+		assert type == JsonType.NUMBER;
+		
+		return this.decimal != null;
 	}
 	void setNum(double num) {
 		assert type == JsonType.NUMBER;
 		this.num = num;
+		this.isIntegral = false;
+		this.decimal = null;
+		this.source = null;
 		
 		return;
 	}
@@ -125,15 +196,34 @@ public class JsonValue implements Cloneable {
 	}
 
 	/* user APIs */
+	/**
+	 * {@code isShared()} tells whether this is one of the shared literals
+	 * {@code JsonValue.NULL}, {@code TRUE} and {@code FALSE}, which 
+	 * cannot be modified. 
+	 * 
+	 * @return boolean
+	 */
+	public boolean isShared() {
+		return this.isShared;
+	}
 	public JsonType getType() {
 		return this.type;
 	}
+	/**
+	 * {@code getValue()} returns the value as an object. A 
+	 * {@code JsonType.NUMBER} is returned as a {@code Double}, even if it
+	 * is held exactly as a {@code long}: use {@code isIntegral()} and 
+	 * {@code getLong()} for the exact value. Only a number kept as a 
+	 * {@code BigDecimal}, if enabled, is returned as it is. 
+	 * 
+	 * @return Object
+	 */
 	public Object getValue() {
 		return switch(type) {
 				case NULL -> null;
 				case TRUE -> true;
 				case FALSE -> false;
-				case NUMBER -> num;
+				case NUMBER -> (materialize().decimal != null) ? (Object)decimal : (Object)getNum();
 				case STRING -> str;
 				case ARRAY -> arr;
 				case OBJECT -> obj;
@@ -158,6 +248,21 @@ public class JsonValue implements Cloneable {
 		
 		return;
 	}
+	public void setValue(long val) {
+		clear();
+		type = JsonType.NUMBER;
+		integer = val;
+		isIntegral = true;
+		
+		return;
+	}
+	public void setValue(BigDecimal val) {
+		clear();
+		type = JsonType.NUMBER;
+		decimal = val;
+		
+		return;
+	}
 	public void setValue(String val) {
 		clear();
 		type = JsonType.STRING;
@@ -179,15 +284,186 @@ public class JsonValue implements Cloneable {
 		
 		return;
 	}
-	public void clear() {
+	/**
+	 * {@code clear()} sets the value to {@code JsonType.NULL}. Every 
+	 * {@code setValue()} clears the value first. 
+	 * 
+	 * @throws UnsupportedOperationException if this is a shared literal
+	 */
+	public void clear()
+			throws UnsupportedOperationException
+	{
+		checkModifiable();
+		
 		type = JsonType.NULL;
 		num = 0;
+		integer = 0;
+		isIntegral = false;
+		decimal = null;
+		source = null;
 		str = "";
 		arr = null;
 		obj = null;
 		
 		return;
 	}
+	/**
+	 * {@code isIntegral()} tells whether the number is held exactly as a
+	 * {@code long}. The parser does so for every integral literal, like
+	 * "-12", that fits in a {@code long}. 
+	 * 
+	 * @return boolean
+	 * @throws IllegalStateException if the value is not a number
+	 */
+	public boolean isIntegral() {
+		checkNumber();
+		
+		return this.isIntegral;
+	}
+	/**
+	 * {@code getLong()} returns the number as a {@code long}. 
+	 * 
+	 * @return long
+	 * @throws IllegalStateException if the value is not a number
+	 * @throws ArithmeticException if the number is not an integer in the
+	 * 			range of {@code long}
+	 */
+	public long getLong() {
+		checkNumber();
+		
+		if (isIntegral) {
+			return this.integer;
+		}
+		materialize();
+		if (decimal != null) {
+			return decimal.longValueExact();
+		}
+		if (num != Math.rint(num) || num < -0x1p63 || num >= 0x1p63) {
+			throw new ArithmeticException("The number is not an integer in the range of long. ");
+		}
+		
+		return (long)num;
+	}
+	/**
+	 * {@code getDouble()} returns the number as the nearest {@code double}.
+	 * 
+	 * @return double
+	 * @throws IllegalStateException if the value is not a number
+	 */
+	public double getDouble() {
+		checkNumber();
+		
+		return getNum();
+	}
+	/**
+	 * {@code getBigDecimal()} returns the number as a {@code BigDecimal}.
+	 * It is exact for integral and {@code BigDecimal} numbers. 
+	 * 
+	 * @return BigDecimal
+	 * @throws IllegalStateException if the value is not a number
+	 */
+	public BigDecimal getBigDecimal() {
+		checkNumber();
+		
+		if (isIntegral) {
+			return BigDecimal.valueOf(this.integer);
+		}
+		
+		materialize();
+		return (decimal != null) ? decimal : BigDecimal.valueOf(num);
+	}
+	private void checkModifiable() {
+		if (isShared) {
+			throw new UnsupportedOperationException("Shared literals cannot be modified. "
+							+ "Replace the node, or modify a clone of it. ");
+		}
+		
+		return;
+	}
+	private void checkNumber() {
+		if (type != JsonType.NUMBER) {
+			throw new IllegalStateException("The value is not a number. ");
+		}
+		
+		return;
+	}
+	/**
+	 * {@code materialize()} converts a number kept as offsets into its
+	 * source, and drops the source. {@code num} is written before the 
+	 * volatile {@code source} is cleared, so that readers on other 
+	 * threads that see no source also see the number. Several threads 
+	 * may convert the same number at once, which is harmless. 
+	 * 
+	 * @return JsonValue
+	 */
+	private JsonValue materialize() {
+		JsonSource context = source;
+		
+		if (context != null) {
+			num = JsonTokenizer.convertNumberAt(context, sourceStart, sourceEnd);
+			source = null;
+		}
+		
+		return this;
+	}
+	private boolean isFinite() {
+		return isIntegral || decimal != null || Double.isFinite(num);
+	}
+	/**
+	 * {@code isSameNumber()} compares the numbers held by {@code this}
+	 * and {@code other} by value, whatever their representations are. 
+	 * 
+	 * @param other
+	 * @return boolean
+	 */
+	private boolean isSameNumber(JsonValue other) {
+		materialize();
+		other.materialize();
+		
+		if (isIntegral && other.isIntegral) {
+			return integer == other.integer;
+		}
+		if (decimal != null || other.decimal != null) {
+			if (!isFinite() || !other.isFinite()) {
+				return false;
+			}
+			
+			return getBigDecimal().compareTo(other.getBigDecimal()) == 0;
+		}
+		if (isIntegral || other.isIntegral) {
+			long exact = isIntegral ? integer : other.integer;
+			double approx = isIntegral ? other.num : num;
+			
+			return (double)exact == approx && approx < 0x1p63 && (long)approx == exact;
+		}
+		
+		return num == other.num;
+	}
+	/**
+	 * {@code compareNumber()} orders the numbers held by {@code this} and
+	 * {@code other} by value, whatever their representations are. 
+	 * 
+	 * @param other
+	 * @return int
+	 */
+	int compareNumber(JsonValue other) {
+		assert type == JsonType.NUMBER && other.type == JsonType.NUMBER;
+		
+		materialize();
+		other.materialize();
+		
+		if (isIntegral && other.isIntegral) {
+			return Long.compare(integer, other.integer);
+		}
+		if (!isIntegral && !other.isIntegral && decimal == null && other.decimal == null) {
+			return Double.compare(num, other.num);
+		}
+		if (!isFinite() || !other.isFinite()) {
+			return Double.compare(getNum(), other.getNum());
+		}
+		
+		return getBigDecimal().compareTo(other.getBigDecimal());
+	}
 	
 	/* overridden methods */
 	@Override
@@ -215,7 +491,7 @@ public class JsonValue implements Cloneable {
         case NULL, TRUE, FALSE: 
         	return true;
         case NUMBER:
-        	return num == casted.getNum();
+        	return isSameNumber(casted);
         case STRING:
         	return str.equals(casted.getStr());
         case ARRAY:
@@ -272,8 +548,15 @@ public class JsonValue implements Cloneable {
 		/* Deep copy. */
         try {
         	JsonValue v = (JsonValue) super.clone();
+        	v.isShared = false;
         	v.type = type;
+        	v.source = source; /* positions in a retained source stay valid; read before {@code num} */
         	v.num = num; 
+        	v.integer = integer;
+        	v.isIntegral = isIntegral;
+        	v.decimal = decimal; /* immutable */
+        	v.sourceStart = sourceStart;
+        	v.sourceEnd = sourceEnd;
             v.str = (type == JsonType.STRING) ? String.valueOf(str.toCharArray()) : "";
             
             if (type != JsonType.ARRAY) {
@@ -0,0 +1,73 @@
+package pers.ericmonlye.jsonparser.parser;
+
+/**
+ * {@code KeyCache} maps the raw chars of object keys to canonical 
+ * {@code String}s, so that a key repeated over a context, or over the 
+ * contexts parsed by the same tokenizer, is decoded and hashed once. 
+ * 
+ * The cache is direct-mapped: a key is looked up in a single slot chosen
+ * by its hash, and replaces whatever key was there. Its size is fixed, 
+ * and a lookup never allocates. Only ASCII keys without escape chars are
+ * cached, since their raw chars are exactly their content. 
+ */
+final class KeyCache {
+	static final int MAX_KEY_LENGTH = 64;
+	private static final int SIZE = 512; /* a power of 2 */
+	
+	private final String[] keys;
+	
+	/* constructors */
+	KeyCache() {
+		this.keys = new String[SIZE];
+	}
+	
+	/* user APIs */
+	/**
+	 * {@code intern()} returns the key between {@code start} and 
+	 * {@code end} of {@code context}, which contains no escape char, 
+	 * or {@code null} if it cannot be cached. 
+	 * 
+	 * @param context
+	 * @param start
+	 * @param end
+	 * @return String
+	 */
+	String intern(JsonSource context, long start, long end) {
+		if (end - start > MAX_KEY_LENGTH) {
+			return null;
+		}
+		
+		int hash = 0; /* the same as {@code String.hashCode()} */
+		for (long pos = start; pos < end; ++pos) {
+			char ch = context.charAt(pos);
+			
+			if (ch >= 0x80) {
+				return null;
+			}
+			hash = 31 * hash + ch;
+		}
+		
+		int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+		String key = keys[slot];
+		if (key != null && key.hashCode() == hash && isSameKey(key, context, start, end)) {
+			return key;
+		}
+		
+		key = context.decode(start, end);
+		keys[slot] = key;
+		
+		return key;
+	}
+	private static boolean isSameKey(String key, JsonSource context, long start, long end) {
+		if (key.length() != end - start) {
+			return false;
+		}
+		for (int index = 0; index < key.length(); ++index) {
+			if (key.charAt(index) != context.charAt(start + index)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+}
@@ -0,0 +1,69 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@code MappedSource} is a UTF-8 encoded JSON file mapped into memory.
+ * 
+ * The file is tokenized in place and the OS pages it in on demand, so it
+ * is never copied into the heap. A single {@code MappedByteBuffer} holds
+ * at most 2 GB, so the file is mapped in chunks of {@code CHUNK_SIZE} 
+ * bytes and positions are split into a chunk index and an offset. 
+ */
+class MappedSource extends Utf8Source {
+	private static final int CHUNK_SHIFT = 30;
+	private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT; /* 1 GB */
+	private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+	
+	private final MappedByteBuffer[] chunks;
+	
+	/* constructors */
+	private MappedSource(MappedByteBuffer[] chunks, long length) {
+		super(length);
+		this.chunks = chunks;
+	}
+	private MappedSource(MappedSource other) {
+		super(other);
+		this.chunks = other.chunks;
+	}
+	/**
+	 * {@code map()} maps the whole file at {@code path} read-only. The 
+	 * mapping stays valid after the channel is closed. 
+	 * 
+	 * @param path
+	 * @return MappedSource
+	 * @throws UncheckedIOException
+	 */
+	static MappedSource map(Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long length = channel.size();
+			MappedByteBuffer[] chunks = new MappedByteBuffer[(int)((length + CHUNK_MASK) >>> CHUNK_SHIFT)];
+			
+			for (int index = 0; index < chunks.length; ++index) {
+				long offset = (long)index << CHUNK_SHIFT;
+				
+				chunks[index] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(CHUNK_SIZE, length - offset));
+			}
+			
+			return new MappedSource(chunks, length);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/* overridden methods */
+	@Override
+	int byteAt(long pos) {
+		return chunks[(int)(pos >>> CHUNK_SHIFT)].get((int)(pos & CHUNK_MASK));
+	}
+	@Override
+	JsonSource duplicate() {
+		return new MappedSource(this);
+	}
+}
@@ -0,0 +1,154 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.CharacterCodingException;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+/**
+ * {@code ReaderSource} is a JSON context streamed from a {@code Reader}. 
+ * 
+ * Only a window of the context is kept in memory. The window is refilled
+ * as the parser moves forward, and the chars before the last released 
+ * position are dropped on refill. Whitespace is released as it is 
+ * skipped. The window grows only if a single token does not fit in it. 
+ */
+class ReaderSource extends JsonSource {
+	static final int DEFAULT_WINDOW_SIZE = 8192;
+	
+	private final Reader reader;
+	private char[] window;
+	private long base; /* position of {@code window[0]} */
+	private int filled; /* number of chars read into the window */
+	private long released; /* chars before this position may be dropped */
+	private boolean isEndOfInput;
+	
+	/* constructors */
+	ReaderSource(Reader reader) {
+		this(reader, DEFAULT_WINDOW_SIZE);
+	}
+	ReaderSource(Reader reader, int windowSize) {
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException("Window size must be positive. ");
+		}
+		
+		this.reader = reader;
+		this.window = new char[windowSize];
+		this.base = 0L;
+		this.filled = 0;
+		this.released = 0L;
+		this.isEndOfInput = false;
+	}
+	
+	/* window manipulation methods */
+	/**
+	 * {@code fill()} drops the released chars and reads more input into
+	 * the window. 
+	 */
+	private void fill() {
+		int drop = (int)(released - base);
+		
+		if (drop > 0) {
+			System.arraycopy(window, drop, window, 0, filled - drop);
+			base += drop;
+			filled -= drop;
+		}
+		if (filled == window.length) { /* a single token fills the whole window */
+			char[] grown = new char[window.length * 2];
+			System.arraycopy(window, 0, grown, 0, filled);
+			window = grown;
+		}
+		
+		try {
+			int count = reader.read(window, filled, window.length - filled);
+			
+			if (count < 0) {
+				isEndOfInput = true;
+			}
+			else {
+				filled += count;
+			}
+		}
+		catch (CharacterCodingException e) {
+			throw JsonErrorCode.INVALID_ENCODING.newException("Invalid byte sequence in the input stream. ", e, isStackTraceEnabled())
+					.initLocation(base + filled, null);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		return;
+	}
+	private int indexOf(long pos) {
+		assert pos >= released && pos >= base && pos <= base + filled;
+		
+		return (int)(pos - base);
+	}
+	
+	/* overridden methods */
+	@Override
+	boolean isEnd(long pos) {
+		while (pos >= base + filled) {
+			if (isEndOfInput) {
+				return true;
+			}
+			
+			fill();
+		}
+		
+		return false;
+	}
+	@Override
+	char charAt(long pos) {
+		return window[indexOf(pos)];
+	}
+	/**
+	 * Every whitespace char is released as it is skipped: the token before
+	 * it is complete, and a long run of whitespace must not grow the 
+	 * window. 
+	 */
+	@Override
+	long skipWhitespace(long pos) {
+		for (; !isEnd(pos); ++pos) {
+			char ch = window[indexOf(pos)];
+			
+			if (ch != ' ' && ch != '\n' && ch != '\t' && ch != '\r') {
+				break;
+			}
+			release(pos);
+		}
+		
+		return pos;
+	}
+	@Override
+	String substring(long start, long end) {
+		if (end > start && isEnd(end - 1)) {
+			throw new IndexOutOfBoundsException("Position " + end + " is beyond the end of the input. ");
+		}
+		
+		return new String(window, indexOf(start), (int)(end - start));
+	}
+	@Override
+	String decode(long start, long end) {
+		return substring(start, end);
+	}
+	@Override
+	void decode(StringBuilder buffer, long start, long end) {
+		buffer.append(window, indexOf(start), (int)(end - start));
+		
+		return;
+	}
+	@Override
+	void release(long pos) {
+		assert pos >= released;
+		released = pos;
+		
+		return;
+	}
+	@Override
+	boolean isRetained() {
+		return false;
+	}
+}
@@ -0,0 +1,34 @@
+package pers.ericmonlye.jsonparser.parser;
+
+/**
+ * {@code ScalarStructuralScanner} classifies the bytes of a block one by
+ * one. It is used when the Vector API is not available.
+ */
+final class ScalarStructuralScanner extends StructuralScanner {
+	@Override
+	void classify(byte[] array, int offset, long[] masks) {
+		long quote = 0L;
+		long backslash = 0L;
+		long structural = 0L;
+		long whitespace = 0L;
+
+		for (int index = 0; index < BLOCK_SIZE; ++index) {
+			long bit = 1L << index;
+
+			switch (array[offset + index]) {
+			case '\"' -> quote |= bit;
+			case '\\' -> backslash |= bit;
+			case '{', '}', '[', ']', ':', ',' -> structural |= bit;
+			case ' ', '\t', '\n', '\r' -> whitespace |= bit;
+			default -> {}
+			}
+		}
+
+		masks[QUOTE] = quote;
+		masks[BACKSLASH] = backslash;
+		masks[STRUCTURAL] = structural;
+		masks[WHITESPACE] = whitespace;
+
+		return;
+	}
+}
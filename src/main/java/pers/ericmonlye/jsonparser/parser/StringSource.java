@@ -0,0 +1,45 @@
+package pers.ericmonlye.jsonparser.parser;
+
+/**
+ * {@code StringSource} is a JSON context given as a {@code String}. 
+ */
+class StringSource extends JsonSource {
+	private final String context;
+	
+	/* constructors */
+	StringSource(String context) {
+		this.context = context;
+	}
+	
+	/* overridden methods */
+	@Override
+	boolean isEnd(long pos) {
+		return pos >= context.length();
+	}
+	@Override
+	char charAt(long pos) {
+		return context.charAt((int)pos);
+	}
+	@Override
+	String substring(long start, long end) {
+		return context.substring((int)start, (int)end);
+	}
+	@Override
+	String decode(long start, long end) {
+		return context.substring((int)start, (int)end);
+	}
+	@Override
+	void decode(StringBuilder buffer, long start, long end) {
+		buffer.append(context, (int)start, (int)end);
+		
+		return;
+	}
+	/**
+	 * A {@code String} is immutable, so only the view is new, over the 
+	 * same {@code String}. 
+	 */
+	@Override
+	JsonSource duplicate() {
+		return new StringSource(context);
+	}
+}
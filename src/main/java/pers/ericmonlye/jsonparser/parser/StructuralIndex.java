@@ -0,0 +1,73 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.Arrays;
+
+/**
+ * {@code StructuralIndex} is the sorted list of the positions in a UTF-8
+ * context where a token may start after whitespace: structural chars
+ * {@code {}[]:,}, opening quotes and the first byte of other scalars,
+ * all outside strings. It is built in one pass by a
+ * {@code StructuralScanner}.
+ *
+ * Whatever follows a whitespace outside strings is in the index, so
+ * the next non-whitespace position is found by a lookup.
+ */
+final class StructuralIndex {
+	private static final int MAX_STEPS = 8; /* entries stepped over before searching instead */
+
+	private final int[] positions;
+	private final int count;
+	private final int length; /* length of the indexed context */
+	private int hint; /* the last lookup, since positions mostly grow */
+
+	/* constructors */
+	StructuralIndex(int[] positions, int count, int length) {
+		this.positions = positions;
+		this.count = count;
+		this.length = length;
+		this.hint = 0;
+	}
+
+	/**
+	 * {@code duplicate()} returns an index sharing the positions of this
+	 * one but not the last lookup, for another thread. 
+	 * 
+	 * @return StructuralIndex
+	 */
+	StructuralIndex duplicate() {
+		return new StructuralIndex(positions, count, length);
+	}
+	
+	/* user APIs */
+	int getCount() {
+		return this.count;
+	}
+	int getPosition(int entry) {
+		assert entry < count;
+
+		return positions[entry];
+	}
+	/**
+	 * {@code next()} returns the first indexed position after
+	 * {@code pos}, or the length of the context if there is none. 
+	 * Lookups close after the last one step forward from it; others, 
+	 * e.g. the first one of a slice parsed by another thread, are 
+	 * binary searched. 
+	 *
+	 * @param pos
+	 * @return long
+	 */
+	long next(long pos) {
+		if ((hint > 0 && positions[hint - 1] > pos) 
+				|| (hint + MAX_STEPS < count && positions[hint + MAX_STEPS] <= pos)) { /* moved backwards or far: search again */
+			int found = Arrays.binarySearch(positions, 0, count, (int)pos);
+
+			hint = (found >= 0) ? found : -found - 1;
+		}
+		while (hint < count && positions[hint] <= pos) {
+			++hint;
+		}
+
+		return (hint < count) ? positions[hint] : length;
+	}
+}
@@ -0,0 +1,154 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.util.Arrays;
+
+/**
+ * {@code StructuralScanner} builds the {@code StructuralIndex} of a
+ * UTF-8 byte array, 64 bytes at a time. Subclasses only classify the
+ * bytes of a block into bitmasks, one bit per byte; the escapes, the
+ * string ranges and the token starts are then derived from the masks
+ * with a few word operations per block, without looking at single
+ * bytes again.
+ */
+abstract class StructuralScanner {
+	static final int BLOCK_SIZE = 64;
+
+	/* indexes of the masks filled by {@code classify()} */
+	static final int QUOTE = 0;
+	static final int BACKSLASH = 1;
+	static final int STRUCTURAL = 2; /* {}[]:, */
+	static final int WHITESPACE = 3;
+
+	private static final String VECTOR_SCANNER = "pers.ericmonlye.jsonparser.parser.VectorStructuralScanner";
+
+	/**
+	 * {@code classify()} sets bit {@code i} of each mask if byte
+	 * {@code offset + i} of {@code array} is of that class.
+	 *
+	 * @param array
+	 * @param offset
+	 * @param masks
+	 */
+	abstract void classify(byte[] array, int offset, long[] masks);
+
+	/**
+	 * {@code of()} returns the scanner chosen by {@code scanner}. The
+	 * vector scanner is loaded reflectively, so that this class never
+	 * links against {@code jdk.incubator.vector} when it is absent.
+	 *
+	 * @param scanner
+	 * @return StructuralScanner, or {@code null} for
+	 * 			{@code JsonScanner.NONE}
+	 */
+	static StructuralScanner of(JsonScanner scanner) {
+		switch (scanner) {
+		case NONE:
+			return null;
+		case VECTOR:
+			try {
+				return (StructuralScanner)Class.forName(VECTOR_SCANNER).getDeclaredConstructor().newInstance();
+			}
+			catch (ReflectiveOperationException | LinkageError e) {
+				/* The module is not available: fall back to the scalar scanner. */
+				return new ScalarStructuralScanner();
+			}
+		case SCALAR:
+		default:
+			return new ScalarStructuralScanner();
+		}
+	}
+
+	/**
+	 * {@code scan()} builds the index of {@code length} bytes of
+	 * {@code array} starting at {@code base}.
+	 *
+	 * @param array
+	 * @param base
+	 * @param length
+	 * @return StructuralIndex
+	 */
+	StructuralIndex scan(byte[] array, int base, int length) {
+		int[] positions = new int[Math.max(16, length >>> 3)];
+		int count = 0;
+		long[] masks = new long[4];
+		byte[] tail = new byte[BLOCK_SIZE];
+
+		boolean isEscapedCarry = false; /* the first byte of the block is escaped */
+		long inStringCarry = 0L; /* all ones if the previous block ends inside a string */
+		long boundaryCarry = 1L; /* the first byte of the block follows a boundary */
+
+		for (int block = 0; block < length; block += BLOCK_SIZE) {
+			if (length - block >= BLOCK_SIZE) {
+				classify(array, base + block, masks);
+			}
+			else { /* pad the last block with whitespace */
+				Arrays.fill(tail, (byte)' ');
+				System.arraycopy(array, base + block, tail, 0, length - block);
+				classify(tail, 0, masks);
+			}
+
+			/* A backslash escapes the next byte, unless it is escaped itself. */
+			long backslashes = masks[BACKSLASH];
+			long escaped = 0L;
+			if (isEscapedCarry) {
+				escaped = 1L;
+				backslashes &= ~1L;
+			}
+			isEscapedCarry = false;
+			while (backslashes != 0) {
+				int bit = Long.numberOfTrailingZeros(backslashes);
+
+				if (bit == BLOCK_SIZE - 1) {
+					isEscapedCarry = true;
+					break;
+				}
+				escaped |= 1L << (bit + 1);
+				backslashes &= ~(3L << bit);
+			}
+
+			/* Strings run from an opening quote, included, to the closing quote, excluded. */
+			long quotes = masks[QUOTE] & ~escaped;
+			long inString = prefixXor(quotes) ^ inStringCarry;
+			inStringCarry = inString >> 63;
+
+			long structurals = masks[STRUCTURAL] & ~inString;
+			long boundaries = masks[WHITESPACE] | masks[STRUCTURAL] | quotes;
+			long scalars = ~(boundaries | inString) & ((boundaries << 1) | boundaryCarry);
+			boundaryCarry = boundaries >>> 63;
+
+			long entries = structurals | (quotes & inString) | scalars;
+			while (entries != 0) {
+				int pos = block + Long.numberOfTrailingZeros(entries);
+
+				if (pos >= length) {
+					break;
+				}
+				if (count == positions.length) {
+					positions = Arrays.copyOf(positions, 2 * count);
+				}
+				positions[count++] = pos;
+				entries &= entries - 1;
+			}
+		}
+
+		return new StructuralIndex(positions, count, length);
+	}
+
+	/**
+	 * {@code prefixXor()} sets bit {@code i} to the parity of the bits
+	 * {@code 0} to {@code i} of {@code bits}.
+	 *
+	 * @param bits
+	 * @return long
+	 */
+	private static long prefixXor(long bits) {
+		bits ^= bits << 1;
+		bits ^= bits << 2;
+		bits ^= bits << 4;
+		bits ^= bits << 8;
+		bits ^= bits << 16;
+		bits ^= bits << 32;
+
+		return bits;
+	}
+}
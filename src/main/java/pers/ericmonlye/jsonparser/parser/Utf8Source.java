@@ -0,0 +1,392 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+/**
+ * {@code Utf8Source} is a JSON context given as UTF-8 bytes.
+ *
+ * Positions are byte offsets. Structural chars, numbers and literals
+ * are ASCII and are read byte by byte without transcoding. Bytes of
+ * multi-byte sequences are reported by {@code charAt()} as chars in
+ * 0x80 - 0xFF, which are never part of the JSON grammar outside strings,
+ * and only the content of strings is decoded.
+ *
+ * Contexts backed by an array are also read 8 bytes at a time as a
+ * {@code long} (SWAR, SIMD within a register) to skip whitespace, digit
+ * runs and plain string content.
+ */
+class Utf8Source extends JsonSource {
+	private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final long ONES = 0x0101010101010101L; /* 0x01 in every byte */
+	private static final long HIGHS = 0x8080808080808080L; /* 0x80 in every byte */
+	private static final long LOWS = 0x7F7F7F7F7F7F7F7FL; /* 0x7F in every byte */
+
+	private final ByteBuffer bytes;
+	private final byte[] array; /* backing array of heap buffers, {@code null} otherwise */
+	private final int base; /* absolute index of position 0 in {@code bytes} */
+	private final long length;
+	private final StringBuilder scratch; /* reused for strings with non-ASCII chars */
+	private StructuralIndex index; /* {@code null} unless pre-scanned */
+	private JsonScanner scanner;
+
+	/* constructors */
+	Utf8Source(byte[] context, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, context.length);
+
+		this.bytes = ByteBuffer.wrap(context);
+		this.array = context;
+		this.base = offset;
+		this.length = length;
+		this.scratch = new StringBuilder();
+	}
+	/**
+	 * The position and limit of {@code context} are not modified.
+	 *
+	 * @param context
+	 */
+	Utf8Source(ByteBuffer context) {
+		this.bytes = context;
+		this.array = (context.hasArray() ? context.array() : null);
+		this.base = (context.hasArray() ? context.arrayOffset() : 0) + context.position();
+		this.length = context.remaining();
+		this.scratch = new StringBuilder();
+	}
+	/**
+	 * For {@code duplicate()}: the bytes and the structural index are 
+	 * shared. 
+	 *
+	 * @param other
+	 */
+	Utf8Source(Utf8Source other) {
+		this.bytes = other.bytes;
+		this.array = other.array;
+		this.base = other.base;
+		this.length = other.length;
+		this.scratch = new StringBuilder();
+		this.index = (other.index != null) ? other.index.duplicate() : null;
+		this.scanner = other.scanner;
+	}
+	/**
+	 * For subclasses that override {@code byteAt()}.
+	 *
+	 * @param length
+	 */
+	Utf8Source(long length) {
+		this.bytes = null;
+		this.array = null;
+		this.base = 0;
+		this.length = length;
+		this.scratch = new StringBuilder();
+	}
+
+	/* byte access */
+	int byteAt(long pos) {
+		assert pos < length;
+		
+		return (array != null) ? array[base + (int)pos] : bytes.get(base + (int)pos);
+	}
+	/**
+	 * {@code wordAt()} reads the 8 bytes from {@code pos} on, the first 
+	 * one in the lowest byte. Only for arrays, with 8 bytes left. 
+	 * 
+	 * @param pos
+	 * @return long
+	 */
+	private long wordAt(long pos) {
+		assert array != null && pos + 8 <= length;
+		
+		return (long)LONGS.get(array, base + (int)pos);
+	}
+	/**
+	 * {@code equalBytes()} sets 0x80 in every byte of {@code word} equal 
+	 * to {@code value}, and clears every other bit. 
+	 * 
+	 * @param word
+	 * @param value
+	 * @return long
+	 */
+	private static long equalBytes(long word, int value) {
+		long diff = word ^ (ONES * value);
+		
+		return ~(((diff & LOWS) + LOWS) | diff | LOWS);
+	}
+	/**
+	 * {@code lessBytes()} sets 0x80 in every byte of {@code word} below 
+	 * {@code value} as unsigned, and clears every other bit. 
+	 * {@code value} must be at most 0x80. 
+	 * 
+	 * @param word
+	 * @param value
+	 * @return long
+	 */
+	private static long lessBytes(long word, int value) {
+		return ~(((word & LOWS) + ONES * (0x80 - value)) | word) & HIGHS;
+	}
+	private JsonParserException error(String message, long pos) {
+		return JsonErrorCode.INVALID_ENCODING.newException(message, isStackTraceEnabled()).initLocation(pos, this);
+	}
+	private boolean isAscii(long start, long end) {
+		for (long pos = start; pos < end; ++pos) {
+			if (byteAt(pos) < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/* overridden methods */
+	/**
+	 * Only contexts backed by an array are pre-scanned, as a whole, the 
+	 * first time a scanner other than {@code JsonScanner.NONE} is used. 
+	 */
+	@Override
+	void useScanner(JsonScanner scanner) {
+		if (array != null && scanner != this.scanner) {
+			StructuralScanner structuralScanner = StructuralScanner.of(scanner);
+			
+			this.index = (structuralScanner != null) ? structuralScanner.scan(array, base, (int)length) : null;
+			this.scanner = scanner;
+		}
+		
+		return;
+	}
+	@Override
+	JsonSource duplicate() {
+		return new Utf8Source(this);
+	}
+	/**
+	 * From a whitespace, the next non-whitespace position is looked up in
+	 * the structural index, if any. 
+	 */
+	@Override
+	long skipWhitespace(long pos) {
+		if (index != null && pos < length) {
+			int ch = byteAt(pos);
+			if (ch != ' ' && ch != '\n' && ch != '\t' && ch != '\r') {
+				return pos;
+			}
+			
+			return index.next(pos);
+		}
+		
+		if (array != null) {
+			for (; pos + 8 <= length; pos += 8) {
+				long word = wordAt(pos);
+				long spaces = equalBytes(word, ' ') | equalBytes(word, '\n') 
+						| equalBytes(word, '\t') | equalBytes(word, '\r');
+				
+				if (spaces != HIGHS) { /* the first byte that is not whitespace */
+					return pos + (Long.numberOfTrailingZeros(~spaces & HIGHS) >>> 3);
+				}
+			}
+		}
+		
+		return super.skipWhitespace(pos);
+	}
+	/**
+	 * With a structural index, strings and scalars are not looked at: 
+	 * only the indexed positions are visited. 
+	 */
+	@Override
+	long skipContainer(long pos) {
+		if (index == null) {
+			return super.skipContainer(pos);
+		}
+		
+		int depth = 0;
+		for (; pos < length; pos = index.next(pos)) {
+			switch (byteAt(pos)) {
+			case '[', '{' -> ++depth;
+			case ']', '}' -> {
+				if (--depth == 0) {
+					return pos + 1;
+				}
+			}
+			default -> {}
+			}
+		}
+		
+		return -1L;
+	}
+	/**
+	 * With a structural index, only the indexed positions are visited, 
+	 * so the bounds of the elements are found without reading strings 
+	 * and scalars. 
+	 */
+	@Override
+	long[] findElementBounds(long start) {
+		if (index == null) {
+			return super.findElementBounds(start);
+		}
+		
+		long[] bounds = new long[64];
+		int count = 0;
+		int depth = 0;
+		for (long pos = start; pos < length; pos = index.next(pos)) {
+			boolean isBound = false;
+			
+			switch (byteAt(pos)) {
+			case '[', '{' -> isBound = (++depth == 1);
+			case ',' -> isBound = (depth == 1);
+			case ']', '}' -> {
+				if (--depth == 0) {
+					return (byteAt(pos) == ']') ? Arrays.copyOf(addBound(bounds, count, pos), count + 1) : null;
+				}
+			}
+			default -> {}
+			}
+			
+			if (isBound) {
+				bounds = addBound(bounds, count++, pos);
+			}
+		}
+		
+		return null;
+	}
+	@Override
+	long skipStringChars(long pos, long limit) {
+		if (array == null) {
+			return pos;
+		}
+		
+		for (long end = Math.min(limit, length); pos + 8 <= end; pos += 8) {
+			long word = wordAt(pos);
+			
+			if ((equalBytes(word, '\"') | equalBytes(word, '\\') | lessBytes(word, 0x20)) != 0) {
+				break;
+			}
+		}
+		
+		return pos;
+	}
+	@Override
+	long readEightDigits(long pos) {
+		if (array == null || pos + 8 > length) {
+			return -1L;
+		}
+		
+		long word = wordAt(pos);
+		if (((word & 0xF0F0F0F0F0F0F0F0L) | (((word + 0x0606060606060606L) & 0xF0F0F0F0F0F0F0F0L) >>> 4)) 
+				!= 0x3333333333333333L) {
+			return -1L;
+		}
+		
+		/* pairs, then quadruples, then the 8 digits (D. Lemire, fast_float) */
+		word -= 0x3030303030303030L;
+		word = (word * 10) + (word >>> 8);
+		word = (((word & 0x000000FF000000FFL) * (100 + (1_000_000L << 32))) 
+				+ (((word >>> 16) & 0x000000FF000000FFL) * (1 + (10_000L << 32)))) >>> 32;
+		
+		return word & 0xFFFFFFFFL;
+	}
+	@Override
+	boolean isEnd(long pos) {
+		return pos >= length;
+	}
+	@Override
+	char charAt(long pos) {
+		return (char)(byteAt(pos) & 0xFF);
+	}
+	@Override
+	String substring(long start, long end) {
+		Objects.checkFromToIndex(start, end, length);
+
+		if (array != null) {
+			return new String(array, base + (int)start, (int)(end - start), StandardCharsets.UTF_8);
+		}
+
+		byte[] copy = new byte[(int)(end - start)];
+		for (int index = 0; index < copy.length; ++index) {
+			copy[index] = (byte)byteAt(start + index);
+		}
+
+		return new String(copy, StandardCharsets.UTF_8);
+	}
+	@Override
+	String decode(long start, long end) {
+		if (array != null && isAscii(start, end)) {
+			return new String(array, base + (int)start, (int)(end - start), StandardCharsets.ISO_8859_1);
+		}
+
+		scratch.setLength(0);
+		decode(scratch, start, end);
+
+		return scratch.toString();
+	}
+	/**
+	 * Strict UTF-8 decoding. Truncated and overlong sequences, surrogates
+	 * and codepoints above U+10FFFF are rejected instead of replaced.
+	 */
+	@Override
+	void decode(StringBuilder buffer, long start, long end)
+			throws InvalidCharacterException
+	{
+		long pos = start;
+
+		while (pos < end) {
+			int lead = byteAt(pos);
+
+			if (lead >= 0) { /* ASCII */
+				buffer.append((char)lead);
+				++pos;
+
+				continue;
+			}
+
+			int count = 0;
+			int codepoint = 0;
+			int min = 0;
+
+			if ((lead & 0xE0) == 0xC0) {
+				count = 1;
+				codepoint = lead & 0x1F;
+				min = 0x80;
+			}
+			else if ((lead & 0xF0) == 0xE0) {
+				count = 2;
+				codepoint = lead & 0x0F;
+				min = 0x800;
+			}
+			else if ((lead & 0xF8) == 0xF0) {
+				count = 3;
+				codepoint = lead & 0x07;
+				min = 0x10000;
+			}
+			else {
+				throw error("Invalid UTF-8 leading byte. ", pos);
+			}
+
+			if (end - pos <= count) {
+				throw error("Incomplete UTF-8 byte sequence. ", pos);
+			}
+
+			for (int index = 1; index <= count; ++index) {
+				int trail = byteAt(pos + index);
+
+				if ((trail & 0xC0) != 0x80) {
+					throw error("Incomplete UTF-8 byte sequence. ", pos);
+				}
+
+				codepoint = (codepoint << 6) | (trail & 0x3F);
+			}
+
+			if (codepoint < min || codepoint > 0x10FFFF || (codepoint >= 0xD800 && codepoint <= 0xDFFF)) {
+				throw error("Invalid UTF-8 byte sequence. ", pos);
+			}
+
+			buffer.appendCodePoint(codepoint);
+			pos += count + 1;
+		}
+
+		return;
+	}
+}
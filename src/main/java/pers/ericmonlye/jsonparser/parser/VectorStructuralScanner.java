@@ -0,0 +1,53 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@code VectorStructuralScanner} classifies the bytes of a block with
+ * SIMD compares, 16, 32 or 64 bytes at a time depending on the widest
+ * vectors of the CPU. It is only loaded by {@code StructuralScanner.of()}
+ * when {@code jdk.incubator.vector} is available.
+ */
+final class VectorStructuralScanner extends StructuralScanner {
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+	private static final int LANES = Math.min(SPECIES.length(), BLOCK_SIZE);
+
+	/* constructors */
+	VectorStructuralScanner() {
+		if (BLOCK_SIZE % LANES != 0) {
+			throw new UnsupportedOperationException("Unsupported vector size. ");
+		}
+	}
+
+	@Override
+	void classify(byte[] array, int offset, long[] masks) {
+		long quote = 0L;
+		long backslash = 0L;
+		long structural = 0L;
+		long whitespace = 0L;
+
+		for (int lane = 0; lane < BLOCK_SIZE; lane += LANES) {
+			ByteVector bytes = ByteVector.fromArray(SPECIES, array, offset + lane);
+
+			quote |= bytes.eq((byte)'\"').toLong() << lane;
+			backslash |= bytes.eq((byte)'\\').toLong() << lane;
+
+			VectorMask<Byte> brackets = bytes.or((byte)0x20).eq((byte)'{') /* '{' and '[' */
+					.or(bytes.or((byte)0x20).eq((byte)'}')); /* '}' and ']' */
+			structural |= brackets.or(bytes.eq((byte)':')).or(bytes.eq((byte)',')).toLong() << lane;
+
+			VectorMask<Byte> spaces = bytes.eq((byte)' ').or(bytes.eq((byte)'\t'))
+					.or(bytes.eq((byte)'\n')).or(bytes.eq((byte)'\r'));
+			whitespace |= spaces.toLong() << lane;
+		}
+
+		masks[QUOTE] = quote;
+		masks[BACKSLASH] = backslash;
+		masks[STRUCTURAL] = structural;
+		masks[WHITESPACE] = whitespace;
+
+		return;
+	}
+}
@@ -0,0 +1,210 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map.Entry;
+import java.util.Random;
+
+//import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+class JsonDocumentTest {
+	private static final String CONFIG = "{\"server\":{\"host\":\"localhost\", \"ports\":[80, 443], \"tls\":true}, "
+			+ "\"users\":[{\"name\":\"a\", \"roles\":[]}, {\"name\":\"b\", \"roles\":[\"admin\"]}], "
+			+ "\"limits\":{}, \"ratio\":0.5, \"note\":null}";
+
+	private Random random = new Random(25);
+
+	/* The tree must be the one of the whole text, and every span must hold its node. */
+	private void assertDocument(JsonDocument document) {
+		String text = document.getText();
+
+		assertEquals(new JsonParser().parse(text).getValue(), document.getValue(), text);
+		assertSpans(document, text, document.getValue(), "");
+	}
+	private void assertSpans(JsonDocument document, String text, JsonValue node, String pointer) {
+		long[] span = document.getSpan(JsonPointer.compile(pointer));
+
+		assertNotNull(span, pointer);
+		assertEquals(node, new JsonParser().parse(text.substring((int)span[0], (int)span[1])).getValue(), pointer);
+
+		if (node.getType() == JsonType.ARRAY) {
+			for (int index = 0; index < node.getArr().size(); ++index) {
+				assertSpans(document, text, node.getArrElem(index), pointer + "/" + index);
+			}
+		}
+		else if (node.getType() == JsonType.OBJECT) {
+			for (Entry<String, JsonValue> member : node.getObj().entrySet()) {
+				assertSpans(document, text, member.getValue(), pointer + "/" + member.getKey());
+			}
+		}
+	}
+
+//	@Disabled
+	@Test
+	void testEdits() {
+		JsonDocument document = new JsonDocument(" " + CONFIG + "\n");
+		JsonValue users = document.getValue().getObjValue("users");
+		JsonValue server = document.getValue().getObjValue("server");
+		JsonValue ports = server.getObjValue("ports");
+
+		assertArrayEquals(new long[] {1, CONFIG.length() + 1}, document.getSpan(JsonPointer.compile("")));
+		assertNull(document.getSpan(JsonPointer.compile("/server/missing")));
+		assertNull(document.getSpan(JsonPointer.compile("/users/2")));
+
+		/* A scalar is reparsed alone, and only its value is replaced. */
+		int host = document.getText().indexOf("localhost");
+		document.edit(host, 9, "example.org");
+		assertEquals("example.org", server.getObjValue("host").getStr());
+		assertSame(server, document.getValue().getObjValue("server"));
+		assertSame(users, document.getValue().getObjValue("users"));
+		assertDocument(document);
+
+		/* A digit appended to a number */
+		document.edit(document.getText().indexOf("443") + 3, 0, "3");
+		assertEquals(4433L, ports.getArrElem(1).getLong());
+		assertSame(ports, server.getObjValue("ports"));
+		assertDocument(document);
+
+		/* A new element is only valid in the array around the number. */
+		document.edit(document.getText().indexOf("4433") + 4, 0, ", 8080");
+		assertEquals(3, server.getObjValue("ports").getArr().size());
+		assertSame(users, document.getValue().getObjValue("users"));
+		assertDocument(document);
+
+		/* Whitespace between items, and members added or removed */
+		document.edit(document.getText().indexOf("\"roles\":[]"), 0, "\n\t");
+		document.edit(document.getText().indexOf("\"limits\":{}") + 10, 0, "\"max\":10");
+		document.edit(document.getText().indexOf(", \"note\":null"), 13, "");
+		assertEquals(10L, document.getValue().getObjValue("limits").getObjValue("max").getLong());
+		assertNull(document.getValue().getObjValue("note"));
+		assertDocument(document);
+
+		/* Edits outside the root reparse the whole text. */
+		document.edit(0, 1, "");
+		document.edit(document.length(), 0, "  ");
+		assertDocument(document);
+		document.edit(0, document.length(), "[1]");
+		assertEquals(1L, document.getValue().getArrElem(0).getLong());
+		assertDocument(document);
+	}
+
+//	@Disabled
+	@Test
+	void testInvalidEdits() {
+		JsonDocument document = new JsonDocument(CONFIG);
+		JsonValue value = document.getValue();
+
+		/* A malformed edit leaves the document as it was. */
+		assertThrows(InvalidArrayException.class, () -> {
+			document.edit(document.getText().indexOf("443") + 3, 0, ",");
+		});
+		assertThrows(InvalidObjectException.class, () -> { /* The quotation marks pair up differently. */
+			document.edit(document.getText().indexOf("localhost"), 0, "\"");
+		});
+		assertThrows(InvalidObjectException.class, () -> {
+			document.edit(document.getText().indexOf("\"tls\""), 5, "\"host\"");
+		});
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			document.edit(CONFIG.length(), 1, "");
+		});
+		assertEquals(CONFIG, document.getText());
+		assertSame(value, document.getValue());
+		assertDocument(document);
+
+		assertThrows(MaxDepthExceededException.class, () -> {
+			JsonDocument nested = new JsonDocument(new JsonParser().setMaxDepth(3), "[[[1]]]");
+
+			nested.edit(3, 1, "[1]");
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			new JsonDocument(new JsonParser().setProjection(JsonProjection.of("$.a")), "{}");
+		});
+	}
+
+//	@Disabled
+	@Test
+	void testRandomEdits() {
+		String[] insertions = {"1", "-2.5", " ", "\n", ",", ":", "\"", "\"x\"", "[", "]", "{", "}", "[]", "{}",
+				"\"k\":", "true", "null", "\\", "\\u00e9", "e", "0"};
+		JsonDocument document = new JsonDocument(CONFIG);
+
+		for (int round = 0; round < 3000; ++round) {
+			String text = document.getText();
+			int offset = random.nextInt(text.length() + 1);
+			int removed = random.nextInt(Math.min(3, text.length() - offset) + 1);
+			String inserted = insertions[random.nextInt(insertions.length)];
+			String edited = text.substring(0, offset) + inserted + text.substring(offset + removed);
+
+			JsonParserException expected = null;
+			try {
+				new JsonParser().parse(edited);
+			}
+			catch (JsonParserException e) {
+				expected = e;
+			}
+
+			if (expected == null) {
+				document.edit(offset, removed, inserted);
+				assertEquals(edited, document.getText());
+				assertDocument(document);
+			}
+			else {
+				assertThrows(expected.getClass(), () -> {
+					document.edit(offset, removed, inserted);
+				}, edited);
+				assertEquals(text, document.getText());
+			}
+
+			if (document.length() > 2000) {
+				document.edit(0, document.length(), CONFIG);
+			}
+		}
+	}
+
+//	@Disabled
+	@Test
+	void testLargeDocument() {
+		StringBuilder records = new StringBuilder("[");
+		for (int index = 0; index < 100000; ++index) {
+			records.append(index == 0 ? "" : ",").append("{\"id\":").append(index).append(", \"name\":\"n\"}");
+		}
+		records.append("]");
+
+		JsonDocument document = new JsonDocument(records.toString());
+		JsonValue root = document.getValue();
+		JsonValue record = root.getArrElem(50000);
+		int name = (int)document.getSpan(JsonPointer.compile("/50000/name"))[0] + 1;
+
+		/* Typing into a string only reparses that string. */
+		for (int index = 0; index < 1000; ++index) {
+			document.edit(name + index + 1, 0, "x");
+		}
+
+		assertSame(root, document.getValue());
+		assertSame(record, root.getArrElem(50000));
+		assertEquals("n" + "x".repeat(1000), record.getObjValue("name").getStr());
+		assertEquals(49999L, root.getArrElem(49999).getObjValue("id").getLong());
+
+		long[] last = document.getSpan(JsonPointer.compile("/99999/id"));
+		assertEquals("99999", document.getText().substring((int)last[0], (int)last[1]));
+
+		/* Typing at the head moves every record after it, and every span must follow. */
+		int id = (int)document.getSpan(JsonPointer.compile("/0/id"))[0];
+		for (int index = 0; index < 1000; ++index) {
+			document.edit(id, 0, "1");
+			assertEquals(10L, root.getArrElem(0).getObjValue("id").getLong());
+			document.edit(id, 1, "");
+		}
+		document.edit((int)document.getSpan(JsonPointer.compile("/0"))[0] + 1, 0, "\n ");
+
+		assertSame(root, document.getValue());
+		assertSame(record, root.getArrElem(50000));
+		last = document.getSpan(JsonPointer.compile("/99999/id"));
+		assertEquals("99999", document.getText().substring((int)last[0], (int)last[1]));
+		long[] middle = document.getSpan(JsonPointer.compile("/50000"));
+		assertEquals(record, new JsonParser().parse(document.getText().substring((int)middle[0], (int)middle[1])).getValue());
+	}
+}
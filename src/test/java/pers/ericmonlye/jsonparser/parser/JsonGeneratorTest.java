@@ -63,6 +63,14 @@ class JsonGeneratorTest {
 		assertEqualItems("1.7976931348623157e308"); /* max double */
 		assertEqualItems("-1.7976931348623157e308");
 		assertEqualItems("1.0000000000000002"); /* min number greater than 1 */
+		
+		/* integers are generated exactly */
+		assertEqualItems("9007199254740993", "9007199254740993");
+		assertEqualItems("-9223372036854775808", "-9223372036854775808");
+		assertEqualItems("[0,-12]", "[-0, -12]");
+		
+		JsonValue big = new JsonParser().setBigDecimalEnabled(true).parse("123456789012345678901234567890").getValue();
+		assertEquals("123456789012345678901234567890", generator.generate(big).getContext());
 	}
 
 //	@Disabled
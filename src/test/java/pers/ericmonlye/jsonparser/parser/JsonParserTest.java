@@ -2,11 +2,25 @@ package pers.ericmonlye.jsonparser.parser;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 //import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import pers.ericmonlye.jsonparser.exception.*;
 
@@ -155,6 +169,137 @@ class JsonParserTest {
 		assertEqualItems(1.0000000000000002, 		"1.0000000000000002"); /* min number greater than 1 */
 	}
 
+//	@Disabled
+	@Test
+	void testNumberConversion() {
+		String[] edges = {
+				"9007199254740993", /* halfway between 2^53 and 2^53 + 2 */
+				"9007199254740995", 
+				"18446744073709551615", /* 20 digits */
+				"9999999999999999999", 
+				"1e23", 
+				"8.98846567431158e307", 
+				"2.2250738585072011e-308", /* rounds to the min normal double */
+				"2.4703282292062327e-324", /* half of the min subnormal */
+				"2.4703282292062328e-324", 
+				"0.000000000000000000000000000000000000000000001e300", 
+				"1.00000000000000011102230246251565404236316680908203125", /* exactly halfway */
+				"1.00000000000000011102230246251565404236316680908203124", 
+				"1.00000000000000011102230246251565404236316680908203126", 
+				"7.2057594037927933e16", 
+				"123456789012345678901234567890e-30", 
+				"0.1", 
+				"-3.14159265358979323846264338327950288", 
+				"1797693134862315708145274237317043567981e269", /* max double with trailing digits */
+		};
+		for (String edge : edges) {
+			assertEqualItems(Double.parseDouble(edge), edge);
+		}
+		
+		java.util.Random random = new java.util.Random(20240301);
+		for (int count = 0; count < 100000; ++count) {
+			String context = null;
+			
+			switch (count % 3) {
+			case 0: /* shortest representations of random doubles */
+				context = Double.toString(Double.longBitsToDouble(random.nextLong() & 0x7FFFFFFFFFFFFFFFL)).replace("E", "e");
+				break;
+			case 1: /* random digits with random exponents */
+				StringBuilder digits = new StringBuilder((random.nextBoolean() ? "-" : "") + (1 + random.nextInt(9)));
+				for (int length = random.nextInt(25); length > 0; --length) {
+					digits.append((char)('0' + random.nextInt(10)));
+				}
+				context = digits.append("e").append(random.nextInt(700) - 350).toString();
+				break;
+			default: /* random fractions of integers */
+				context = random.nextInt(1000000) + "." + Long.toUnsignedString(random.nextLong()) + "e" + (random.nextInt(40) - 20);
+				break;
+			}
+			
+			double expected = Double.parseDouble(context);
+			if (Double.isInfinite(expected) || Double.isNaN(expected)) {
+				continue;
+			}
+			
+			assertEqualItems((expected == 0.0) ? 0.0 : expected, context);
+		}
+	}
+
+//	@Disabled
+	@Test
+	void testIntegralNumber() {
+		JsonValue id = parser.parse("9007199254740993").getValue(); /* 2^53 + 1 */
+		assertTrue(id.isIntegral());
+		assertEquals(9007199254740993L, id.getLong());
+		assertEquals(9007199254740992.0, id.getValue()); /* still a Double, as ever */
+		assertEquals(Long.MAX_VALUE, parser.parse("9223372036854775807").getValue().getLong());
+		assertEquals(Long.MIN_VALUE, parser.parse("-9223372036854775808").getValue().getLong());
+		assertEquals(0L, parser.parse("-0").getValue().getLong());
+		
+		assertFalse(parser.parse("9223372036854775808").getValue().isIntegral()); /* out of range */
+		assertEquals(9223372036854775808.0, parser.getValue().getDouble());
+		assertFalse(parser.parse("12.0").getValue().isIntegral());
+		assertEquals(12L, parser.getValue().getLong());
+		assertFalse(parser.parse("1e2").getValue().isIntegral());
+		assertThrows(ArithmeticException.class, () -> parser.parse("1.5").getValue().getLong());
+		assertThrows(IllegalStateException.class, () -> parser.parse("true").getValue().getLong());
+		
+		assertEquals(new JsonValue(12L), new JsonValue(12.0));
+		assertNotEquals(new JsonValue(9007199254740993L), new JsonValue(9007199254740992.0));
+		assertEquals(new JsonValue(new java.math.BigDecimal("0.5")), new JsonValue(0.5));
+		
+		JsonParser exact = new JsonParser().setBigDecimalEnabled(true);
+		assertEquals(new java.math.BigDecimal("123456789012345678901234567890"), 
+				exact.parse("123456789012345678901234567890").getValue().getBigDecimal());
+		assertEquals(new java.math.BigDecimal("-1e400"), exact.parse("-1e400").getValue().getValue());
+		assertEquals(0.5, exact.parse("0.5").getValue().getValue());
+		assertEquals(7.0, exact.parse("7").getValue().getValue());
+		assertThrows(InvalidNumberException.class, () -> parser.parse("-1e400"));
+		
+		/* exponents beyond the scale of BigDecimal, in every context and when validated */
+		for (String context : new String[] {"[1e9999999999]", "-2180902e820370215153"}) {
+			InvalidNumberException error = assertThrows(InvalidNumberException.class, () -> exact.parse(context));
+			assertEquals(context.startsWith("[") ? 1 : 0, error.getOffset(), context); /* at the start of the number */
+			assertThrows(InvalidNumberException.class, () -> exact.parse(context.getBytes(StandardCharsets.UTF_8)));
+			assertThrows(InvalidNumberException.class, () -> exact.validate(context));
+			assertThrows(InvalidNumberException.class, () -> exact.validate(context.getBytes(StandardCharsets.UTF_8)));
+		}
+	}
+
+//	@Disabled
+	@Test
+	void testLazyNumber() {
+		JsonParser lazy = new JsonParser().setLazyNumberEnabled(true);
+		String context = "[0.5, -12.53e+3, 7, 1e-10000, 1.7976931348623157e308, {\"key\":[2.5e-3]}]";
+		
+		JsonValue expected = parser.parse(context).getValue();
+		assertEquals(expected, lazy.parse(context).getValue());
+		assertEquals(expected, lazy.parse(context.getBytes(StandardCharsets.UTF_8)).getValue());
+		assertEquals(expected, lazy.parse(new StringReader(context)).getValue()); /* converted eagerly */
+		
+		/* converted later, from the same digits as a parse converts */
+		String[] numbers = {"-0.0", "0.1234567890123456789012345", "123456789012345678901234", "-9223372036854775809",
+				"0.000001e310", "12345678901234567890.5e-10", "1.5E+300", "4.9e-324", "2.2250738585072011e-308"};
+		for (String number : numbers) {
+			assertEquals(parser.parse(number).getValue().getDouble(), lazy.parse(number).getValue().getDouble(), number);
+		}
+
+		JsonValue first = lazy.parse("[0.25, -1.5]").getValue().getArrElem(0);
+		assertEquals(0.25, first.getDouble());
+		assertEquals(0.25, first.getValue());
+		assertEquals(-1.5, lazy.getValue().getArrElem(1).getNum());
+		assertThrows(ArithmeticException.class, () -> first.getLong());
+		assertEquals(3L, lazy.parse("3.0").getValue().getLong());
+		JsonValue generated = lazy.parse("[0.5, 1e3]").getValue();
+		assertEquals(generated, parser.parse(new JsonGenerator(generated).getContext()).getValue());
+		
+		/* still checked while parsing */
+		assertThrows(InvalidNumberException.class, () -> lazy.parse("[1.5, 1e309]"));
+		assertThrows(InvalidNumberException.class, () -> lazy.parse("-17976931348623159e292"));
+		assertThrows(InvalidNumberException.class, () -> lazy.parse("0.5e309"));
+		assertThrows(IncompleteItemException.class, () -> lazy.parse("[1.]"));
+	}
+
 //	@Disabled
 	@Test
 	void testString() {
@@ -172,6 +317,11 @@ class JsonParserTest {
 	    assertEqualItems("\u0024", 					"\"\\u0024\""); /* Dollar sign U+0024 */
 	    assertEqualItems("\u00A2", 					"\"\\u00A2\""); /* Cents sign U+00A2 */
 	    assertEqualItems("\u20AC", 					"\"\\u20AC\""); /* Euro sign U+20AC */
+	    assertEqualItems("ab\ncd\tef/gh", 			"\"ab\\ncd\\tef\\/gh\""); /* runs between escape chars */
+	    assertEqualItems("\uFFFD", 					"\"\\uDC00\""); /* lone low surrogate */
+	    
+	    String run = "0123456789abcdef".repeat(4096);
+	    assertEqualItems(run + "\n" + run, 		"\"" + run + "\\n" + run + "\"");
 	}
 
 //	@Disabled
@@ -255,6 +405,254 @@ class JsonParserTest {
 		assertEqualItems(cache, "{\"key\":{\"subkey\":123}, \"seckey\":[]}");
 	}
 	
+//	@Disabled
+	@Test
+	void testValueOwnership() {
+		/* Every parse builds a new tree, so earlier results are never overwritten. */
+		JsonValue first = parser.parse("[[1], {\"key\":[true]}]").getValue();
+		JsonValue second = parser.parse("[[2], {\"key\":[false]}]").getValue();
+		
+		assertNotSame(first, second);
+		assertEquals(1.0, first.getArrElem(0).getArrElem(0).getNum());
+		assertEquals(JsonType.TRUE, first.getArrElem(1).getObjValue("key").getArrElem(0).getType());
+		assertEquals(2.0, second.getArrElem(0).getArrElem(0).getNum());
+	}
+	
+//	@Disabled
+	@Test
+	void testSharedLiterals() {
+		ArrayList<JsonValue> flags = parser.parse("[true, false, null, true]").getValue().getArr();
+		
+		assertSame(JsonValue.TRUE, flags.get(0));
+		assertSame(JsonValue.FALSE, flags.get(1));
+		assertSame(JsonValue.NULL, flags.get(2));
+		assertSame(flags.get(0), flags.get(3));
+		assertSame(JsonValue.TRUE, parser.parse(" true ".getBytes(StandardCharsets.UTF_8)).getValue());
+		assertSame(JsonValue.NULL, parser.parse(new StringReader("null")).getValue());
+		assertEquals(new JsonValue(JsonType.TRUE), JsonValue.TRUE);
+		
+		/* Shared literals cannot be modified, but their clones can. */
+		assertTrue(JsonValue.TRUE.isShared());
+		assertThrows(UnsupportedOperationException.class, () -> {
+			flags.get(0).setValue(false);
+		});
+		assertThrows(UnsupportedOperationException.class, () -> {
+			flags.get(2).clear();
+		});
+		assertEquals(JsonType.TRUE, JsonValue.TRUE.getType());
+		
+		JsonValue copy = (JsonValue)flags.get(0).clone();
+		assertFalse(copy.isShared());
+		copy.setValue("flag");
+		assertEquals(JsonType.STRING, copy.getType());
+		assertEquals(JsonType.TRUE, flags.get(3).getType());
+		
+		/* Literals are compared in place, with the same exceptions in every context. */
+		String[] incomplete = {"nul", "[tru", "fals", "[1, n"};
+		String[] misspelled = {"nulL", "[trux]", "falsy ", "[1, nall]"};
+		for (String context : incomplete) {
+			assertThrows(IncompleteItemException.class, () -> {
+				parser.parse(context);
+			});
+			assertThrows(IncompleteItemException.class, () -> {
+				parser.parse(context.getBytes(StandardCharsets.UTF_8));
+			});
+			assertThrows(IncompleteItemException.class, () -> {
+				parser.parse(new StringReader(context));
+			});
+		}
+		for (String context : misspelled) {
+			assertThrows(InvalidLiteralException.class, () -> {
+				parser.parse(context);
+			});
+			assertThrows(InvalidLiteralException.class, () -> {
+				parser.parse(context.getBytes(StandardCharsets.UTF_8));
+			});
+			assertThrows(InvalidLiteralException.class, () -> {
+				parser.parse(new StringReader(context));
+			});
+		}
+		
+		/* A non-ASCII char takes more bytes than chars, but is misspelled either way. */
+		String[] encoded = {"tée", "nué", "n-é", "[falé]"};
+		for (String context : encoded) {
+			byte[] bytes = context.getBytes(StandardCharsets.UTF_8);
+			
+			assertThrows(InvalidLiteralException.class, () -> parser.parse(context), context);
+			assertThrows(InvalidLiteralException.class, () -> parser.parse(bytes), context);
+			assertThrows(InvalidLiteralException.class, () -> parser.parse(new StringReader(context)), context);
+			assertThrows(InvalidLiteralException.class, () -> parser.validate(context), context);
+			assertThrows(InvalidLiteralException.class, () -> parser.validate(bytes), context);
+			assertThrows(InvalidLiteralException.class, () -> new JsonReader(context).readTape(), context);
+			assertThrows(InvalidLiteralException.class, () -> new JsonReader(bytes).readTape(), context);
+		}
+	}
+	
+//	@Disabled
+	@Test
+	void testUtf8() {
+		String[] contexts = {
+				"null", 
+				" -12.53e+3 ", 
+				"\"h\\/a\\\\pp\\ny\"", 
+				"\"\u00A2\u20AC\uD834\uDD1E\\u20AC\"", 
+				"{\"key\uD834\uDD1E\":[null, true, \"\u00E9t\u00E9\", {\"\":1.03e-4}]}"
+		};
+		
+		for (String context : contexts) {
+			JsonValue expected = parser.parse(context).getValue();
+			byte[] bytes = context.getBytes(StandardCharsets.UTF_8);
+			
+			assertEquals(expected, parser.parse(bytes).getValue());
+			assertEquals(expected, parser.parse(ByteBuffer.wrap(bytes)).getValue());
+			
+			ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+			direct.put(bytes).flip();
+			assertEquals(expected, parser.parse(direct).getValue());
+			assertEquals(0, direct.position());
+			
+			byte[] padded = ("[ " + context + " ]").getBytes(StandardCharsets.UTF_8);
+			assertEquals(expected, parser.parse(padded, 2, bytes.length).getValue());
+		}
+		
+		assertThrows(InvalidCharacterException.class, () -> {
+			parser.parse(new byte[] {'\"', (byte)0xC3, '\"'}); /* truncated sequence */
+		});
+		assertThrows(InvalidCharacterException.class, () -> {
+			parser.parse(new byte[] {'\"', (byte)0xC0, (byte)0xAF, '\"'}); /* overlong '/' */
+		});
+		assertThrows(InvalidCharacterException.class, () -> {
+			parser.parse(new byte[] {'\"', (byte)0xED, (byte)0xA0, (byte)0x80, '\"'}); /* surrogate */
+		});
+		assertThrows(InvalidValueException.class, () -> {
+			parser.parse("\u00E9".getBytes(StandardCharsets.UTF_8));
+		});
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			parser.parse(new byte[4], 2, 3);
+		});
+	}
+	
+//	@Disabled
+	@Test
+	void testWordAtATime() {
+		/* every char of interest at every offset of an 8-byte word */
+		for (int pad = 0; pad < 17; ++pad) {
+			String spaces = " \t\r\n".repeat(pad).substring(0, pad);
+			String digits = "1234567890123456789012345".substring(0, pad);
+			String plain = "abcdéfghijklmnopq".substring(0, pad);
+			String[] contexts = {
+					spaces + "[" + spaces + "1" + spaces + "," + spaces + "\"x\"" + spaces + "]" + spaces, 
+					"1" + digits, 
+					"-" + digits + "0." + digits + "5e-" + (pad + 1), 
+					"0.000000" + digits + "1", 
+					"\"" + plain + "\\n" + plain + "\"", 
+					"\"" + plain + "\"" + spaces, 
+					"[\"" + plain + "\u00E9" + plain + "\", " + plain.length() + "]", 
+			};
+			
+			for (String context : contexts) {
+				JsonValue expected = parser.parse(context).getValue();
+				
+				assertEquals(expected, parser.parse(context.getBytes(StandardCharsets.UTF_8)).getValue(), context);
+			}
+			
+			/* a control char or a missing quote is found wherever it is */
+			byte[] control = ("\"" + plain + "\u0001" + plain + "\"").getBytes(StandardCharsets.UTF_8);
+			assertThrows(InvalidCharacterException.class, () -> parser.parse(control));
+			byte[] unclosed = ("\"" + plain + plain).getBytes(StandardCharsets.UTF_8);
+			assertThrows(MissingEndTagException.class, () -> parser.parse(unclosed));
+		}
+	}
+	
+//	@Disabled
+	@Test
+	void testStream() {
+		String[] contexts = {
+				" -12.53e+3 ", 
+				"\"h\\/a\\\\pp\\ny\\uD834\\uDD1E\"", 
+				"{\"key\uD834\uDD1E\":[null, true, \"\u00E9t\u00E9\", {\"\":1.03e-4}]}", 
+				"\"" + "0123456789abcdef".repeat(4096) + "\"", 
+				"[" + "{\"id\":12, \"tags\":[\"a\\tb\", false]},".repeat(2048) + "null]", 
+				"", "nul", "[1,2,", "-12.34e5null", "\"\\uD834\\uDD1", "{\"key\":123, \"\":\"value\"", "0 a"
+		};
+		
+		for (String context : contexts) {
+			assertSameResult(context, () -> parser.parse(new StringReader(context)));
+			assertSameResult(context, () -> parser.parse(new OneCharReader(new StringReader(context))));
+			assertSameResult(context, () -> parser.parse(new ByteArrayInputStream(context.getBytes(StandardCharsets.UTF_8))));
+		}
+		
+		assertThrows(InvalidCharacterException.class, () -> {
+			parser.parse(new ByteArrayInputStream(new byte[] {'\"', (byte)0xC3, '\"'}));
+		});
+		
+		/* Whitespace is dropped as it is skipped, so a long run never grows the window. */
+		String spaced = "[1," + " \n\t\r".repeat(100000) + "2]";
+		int[] maxRead = {0};
+		Reader reader = new FilterReader(new StringReader(spaced)) {
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				maxRead[0] = Math.max(maxRead[0], len);
+				
+				return super.read(cbuf, off, len);
+			}
+		};
+		assertEquals(parser.parse("[1, 2]").getValue(), parser.parse(reader).getValue());
+		assertTrue(maxRead[0] <= 8192, "window grown to " + maxRead[0]);
+	}
+	private void assertSameResult(String context, Runnable streamParse) {
+		JsonValue expected = null;
+		Class<? extends RuntimeException> expectedException = null;
+		try {
+			expected = parser.parse(context).getValue();
+		}
+		catch (JsonParserException e) {
+			expectedException = e.getClass();
+		}
+		
+		if (expectedException != null) {
+			assertThrows(expectedException, () -> streamParse.run());
+		}
+		else {
+			streamParse.run();
+			assertEquals(expected, parser.getValue());
+		}
+	}
+	/* Delivers 1 char per read, so that every refill boundary is exercised. */
+	private static class OneCharReader extends FilterReader {
+		OneCharReader(Reader reader) {
+			super(reader);
+		}
+		
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			return super.read(cbuf, off, Math.min(len, 1));
+		}
+	}
+	
+//	@Disabled
+	@Test
+	void testMappedFile(@TempDir Path dir) throws IOException {
+		String context = "{\"key\uD834\uDD1E\":[null, true, \"\u00E9t\u00E9\", {\"\":1.03e-4}], "
+						+ "\"long\":\"" + "0123456789abcdef".repeat(4096) + "\"}";
+		Path file = Files.write(dir.resolve("context.json"), context.getBytes(StandardCharsets.UTF_8));
+		
+		JsonValue expected = parser.parse(context).getValue();
+		assertEquals(expected, parser.parse(file).getValue());
+		
+		JsonReader reader = new JsonReader(file);
+		assertEquals(JsonToken.START_OBJECT, reader.nextToken());
+		assertEquals(JsonToken.KEY, reader.nextToken());
+		
+		Path empty = Files.write(dir.resolve("empty.json"), new byte[0]);
+		assertThrows(ExpectValueException.class, () -> {
+			parser.parse(empty);
+		});
+		assertThrows(UncheckedIOException.class, () -> {
+			parser.parse(dir.resolve("missing.json"));
+		});
+	}
+	
 //	@Disabled
 	@Test
 	void testExpectValueException() {
@@ -385,6 +783,9 @@ class JsonParserTest {
 			parser.parse("tr");
 		});
 		assertThrows(IncompleteItemException.class, () -> {
+			parser.parse("fals");
+		});
+		assertThrows(InvalidLiteralException.class, () -> { /* short, but not a prefix of "false" */
 			parser.parse("fale");
 		});
 
@@ -547,4 +948,327 @@ class JsonParserTest {
 			parser.parse("{\"key\":123, \"\":\"value\"");
 		});
 	}
+	
+//	@Disabled
+	@Test
+	void testMaxDepth() {
+		int depth = 100000;
+		String deep = "[".repeat(depth) + "]".repeat(depth);
+		
+		assertThrows(MaxDepthExceededException.class, () -> {
+			parser.parse(deep);
+		});
+		assertThrows(MaxDepthExceededException.class, () -> {
+			parser.parse("[".repeat(1001) + "]".repeat(1001));
+		});
+		assertEquals(JsonType.ARRAY, parser.parse("[".repeat(1000) + "]".repeat(1000)).getValue().getType());
+		
+		/* No stack is consumed by nesting. */
+		JsonValue node = new JsonParser(deep).setMaxDepth(depth).parse().getValue();
+		for (int level = 1; level < depth; ++level) {
+			assertEquals(1, node.getArr().size());
+			node = node.getArrElem(0);
+		}
+		assertEquals(0, node.getArr().size());
+		
+		StringBuilder objects = new StringBuilder();
+		for (int level = 0; level < depth; ++level) {
+			objects.append("{\"k\":[");
+		}
+		objects.append("null");
+		for (int level = 0; level < depth; ++level) {
+			objects.append("]}");
+		}
+		node = new JsonParser(objects.toString()).setMaxDepth(2 * depth).parse().getValue();
+		for (int level = 0; level < depth; ++level) {
+			node = node.getObjValue("k").getArrElem(0);
+		}
+		assertEquals(JsonType.NULL, node.getType());
+		
+		parser.setMaxDepth(2);
+		assertEquals(3, parser.parse("[{\"a\":1}, [], {}]").getValue().getArr().size());
+		assertThrows(MaxDepthExceededException.class, () -> {
+			parser.parse("{\"a\":[[1]]}");
+		});
+		parser.setMaxDepth(0);
+		assertEquals(JsonType.TRUE, parser.parse(" true ").getValue().getType());
+		assertThrows(MaxDepthExceededException.class, () -> {
+			parser.parse("[]");
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			parser.setMaxDepth(-1);
+		});
+		
+		/* Frames left over from a failed parse do not leak into the next. */
+		parser.setMaxDepth(1000);
+		assertThrows(MissingEndTagException.class, () -> {
+			parser.parse("[{\"a\":[1, 2");
+		});
+		assertEquals(3, parser.parse("{\"a\":[1, 2], \"b\":{}, \"c\":[]}").getValue().getObj().size());
+	}
+	
+//	@Disabled
+	@Test
+	void testParallel() {
+		StringBuilder records = new StringBuilder("[");
+		for (int index = 0; index < 20000; ++index) {
+			if (index != 0) {
+				records.append(index % 3 == 0 ? ",\n" : ",");
+			}
+			records.append("{\"id\":").append(index)
+					.append(", \"name\":\"n\\\\]\\/,").append(index).append("\\u00e9\"")
+					.append(", \"tags\":[").append(index % 7 == 0 ? "" : "true, null, [\"{\"]").append("]")
+					.append(", \"score\":").append(index * 0.25).append("}");
+		}
+		records.append("] \n");
+		String context = records.toString();
+		byte[] bytes = context.getBytes(StandardCharsets.UTF_8);
+		
+		JsonValue expected = new JsonParser(context).parse().getValue();
+		JsonParser parallel = new JsonParser().setParallelEnabled(true);
+		
+		assertEquals(20000, expected.getArr().size());
+		assertEquals(expected, parallel.parse(context).getValue());
+		assertEquals(expected, parallel.parse(bytes).getValue());
+		assertEquals(expected, parallel.parse(ByteBuffer.wrap(bytes)).getValue());
+		assertEquals(expected, parallel.setScanner(JsonScanner.SCALAR).parse(bytes).getValue());
+		assertEquals(expected, parallel.setScanner(JsonScanner.VECTOR).parse(bytes).getValue());
+		assertEquals(expected, parallel.setScanner(JsonScanner.SCALAR).parse(bytes).getValue());
+		assertEquals(expected, parallel.setLazyNumberEnabled(true).parse(bytes).getValue());
+		assertEquals(expected, parallel.parse(new StringReader(context)).getValue());
+		assertEquals(JsonType.OBJECT, parallel.parse("{\"a\":[1, 2]}").getValue().getType());
+		assertEquals(2, parallel.parse("[1, 2]").getValue().getArr().size());
+		
+		/* The same exception as a sequential parse is thrown. */
+		String body = context.substring(1, context.lastIndexOf(']'));
+		String[] malformed = {
+				"[" + body + ",]", "[" + body + ",,1]", "[" + body + " 1]", "[" + body + ", nul]", 
+				"[" + body + ", {\"a\":1]]", "[" + body + ", {\"a\":1, \"a\":2}]", "[" + body + ", \"\\x\"]", 
+				"[" + body + "] 1", "[" + body + ", \"", "[" + body + "}", "[" + body + ", [[[1]]]]", "[" + body
+		};
+		parallel.setMaxDepth(3);
+		for (String context2 : malformed) {
+			JsonParserException exception = assertThrows(JsonParserException.class, () -> {
+				new JsonParser(context2).setMaxDepth(3).parse();
+			});
+			assertThrows(exception.getClass(), () -> {
+				parallel.parse(context2);
+			});
+		}
+	}
+	
+//	@Disabled
+	@Test
+	void testDocuments() {
+		String lines = "{\"id\":1, \"tags\":[\"a\"]}\n\n{\"id\":2}\r\n[true]{}\"x\"null 12\t-3.5\n";
+		List<JsonValue> documents = parser.parseDocuments(new StringReader(lines)).toList();
+		
+		assertEquals(8, documents.size());
+		assertEquals(parser.parse("{\"id\":1, \"tags\":[\"a\"]}").getValue(), documents.get(0));
+		assertEquals(JsonType.ARRAY, documents.get(2).getType());
+		assertEquals("x", documents.get(4).getStr());
+		assertEquals(JsonType.NULL, documents.get(5).getType());
+		assertEquals(-3.5, documents.get(7).getNum());
+		
+		assertEquals(documents, parser.parseDocuments(lines).toList());
+		assertEquals(documents, parser.parseDocuments(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8))).toList());
+		assertEquals(0, parser.parseDocuments(" \n\n ").count());
+		
+		/* Many documents through a small window. */
+		StringBuilder log = new StringBuilder();
+		for (int index = 0; index < 10000; ++index) {
+			log.append("{\"seq\":").append(index).append(", \"msg\":\"line ").append(index).append("\"}\n");
+		}
+		Iterator<JsonValue> iterator = parser.parseDocuments(new StringReader(log.toString())).iterator();
+		for (int index = 0; index < 10000; ++index) {
+			assertTrue(iterator.hasNext());
+			assertEquals(index, iterator.next().getObjValue("seq").getLong());
+		}
+		assertFalse(iterator.hasNext());
+		assertThrows(NoSuchElementException.class, () -> {
+			iterator.next();
+		});
+		
+		/* Malformed items throw once they are reached. */
+		Iterator<JsonValue> malformed = parser.parseDocuments("[1]\n[1,]").iterator();
+		assertEquals(1, malformed.next().getArr().size());
+		assertThrows(InvalidArrayException.class, () -> {
+			malformed.next();
+		});
+		assertThrows(MissingDelimiterException.class, () -> {
+			parser.parseDocuments("1 truenull").toList();
+		});
+		assertThrows(MissingDelimiterException.class, () -> {
+			parser.parseDocuments("{} 12[]").toList();
+		});
+		
+		Iterator<JsonValue> abandoned = parser.parseDocuments("1 2").iterator();
+		parser.parse("3");
+		assertThrows(IllegalStateException.class, () -> {
+			abandoned.hasNext();
+		});
+	}
+	
+//	@Disabled
+	@Test
+	void testKeyCache() {
+		String context = "[{\"id\":1, \"timestamp\":2}, {\"id\":3, \"timestamp\":4}]";
+		ArrayList<JsonValue> records = parser.parse(context).getValue().getArr();
+		String first = records.get(0).getObj().keySet().stream().filter("id"::equals).findFirst().get();
+		String second = records.get(1).getObj().keySet().stream().filter("id"::equals).findFirst().get();
+		
+		assertSame(first, second);
+		
+		/* Keys are shared across contexts parsed by the same parser. */
+		HashMap<String, JsonValue> again = parser.parse("{\"id\":5}".getBytes(StandardCharsets.UTF_8)).getValue().getObj();
+		assertSame(first, again.keySet().iterator().next());
+		
+		/* Keys that are not cached are decoded as usual. */
+		String longKey = "k".repeat(100);
+		HashMap<String, JsonValue> object = parser.parse(("{\"a\\/b\":1, \"\u00e9t\u00e9\":2, \"" + longKey + "\":3, \"\":4}")
+				.getBytes(StandardCharsets.UTF_8)).getValue().getObj();
+		assertEquals(1.0, object.get("a/b").getNum());
+		assertEquals(2.0, object.get("\u00e9t\u00e9").getNum());
+		assertEquals(3.0, object.get(longKey).getNum());
+		assertEquals(4.0, object.get("").getNum());
+		
+		/* More distinct keys than slots replace each other without mixing up. */
+		StringBuilder many = new StringBuilder("{");
+		for (int index = 0; index < 5000; ++index) {
+			many.append(index == 0 ? "" : ",").append("\"key").append(index).append("\":").append(index);
+		}
+		many.append("}");
+		for (int round = 0; round < 2; ++round) {
+			HashMap<String, JsonValue> members = parser.parse(new StringReader(many.toString())).getValue().getObj();
+			
+			assertEquals(5000, members.size());
+			for (int index = 0; index < 5000; ++index) {
+				assertEquals(index, members.get("key" + index).getLong());
+			}
+		}
+		assertThrows(InvalidObjectException.class, () -> {
+			parser.parse("{\"id\":1, \"i\\u0064\":2}");
+		});
+	}
+	
+//	@Disabled
+	@Test
+	void testErrorLocation() {
+		String context = "{\n  \"a\": [1, 2,],\n  \"b\": tru\n}";
+		InvalidArrayException error = assertThrows(InvalidArrayException.class, () -> {
+			parser.parse(context);
+		});
+		
+		assertEquals(JsonErrorCode.ARRAY_ENDING_COMMA, error.getCode());
+		assertEquals(context.indexOf(']'), error.getOffset());
+		assertEquals(2, error.getLine());
+		assertEquals(14, error.getColumn());
+		assertTrue(error.getStackTrace().length > 0);
+		
+		/* The same location in bytes, without a stack trace. */
+		parser.setStackTraceEnabled(false);
+		JsonParserException cheap = assertThrows(IncompleteItemException.class, () -> {
+			parser.parse("{\n\"\u00e9\":\n-}".getBytes(StandardCharsets.UTF_8));
+		});
+		
+		assertEquals(JsonErrorCode.INCOMPLETE_NUMBER, cheap.getCode());
+		assertEquals("There is no digit following the negative sign. ", cheap.getMessage());
+		assertEquals(9, cheap.getOffset());
+		assertEquals(3, cheap.getLine());
+		assertEquals(2, cheap.getColumn());
+		assertEquals(0, cheap.getStackTrace().length);
+		
+		/* Encoding errors, found by the context rather than the parser, as well. */
+		byte[] invalid = {'[', '\"', (byte)0xC3, '\"', ']'};
+		assertEquals(0, assertThrows(InvalidCharacterException.class, () -> {
+			parser.parse(invalid);
+		}).getStackTrace().length);
+		assertEquals(0, assertThrows(InvalidCharacterException.class, () -> {
+			parser.parse(new ByteArrayInputStream(invalid));
+		}).getStackTrace().length);
+		assertEquals(0, assertThrows(InvalidCharacterException.class, () -> {
+			new JsonReader(invalid).setStackTraceEnabled(false).parse(new JsonHandler() {});
+		}).getStackTrace().length);
+		assertTrue(assertThrows(InvalidCharacterException.class, () -> {
+			new JsonParser().parse(invalid);
+		}).getStackTrace().length > 0);
+
+		/* The beginning of a streamed context is gone: the line is unknown. */
+		JsonParserException streamed = assertThrows(MissingEndTagException.class, () -> {
+			parser.parse(new StringReader("[1,\n2"));
+		});
+		
+		assertEquals(JsonErrorCode.MISSING_BRACKET, streamed.getCode());
+		assertEquals(5, streamed.getOffset());
+		assertEquals(-1, streamed.getLine());
+		assertEquals(-1, streamed.getColumn());
+		
+		/* Decoding errors of UTF-8 contexts are located too. */
+		JsonParserException encoding = assertThrows(InvalidCharacterException.class, () -> {
+			parser.parse(new byte[] {'[', '\"', (byte)0xC3, '\"', ']'});
+		});
+		
+		assertEquals(JsonErrorCode.INVALID_ENCODING, encoding.getCode());
+		assertEquals(2, encoding.getOffset());
+		assertEquals(3, encoding.getColumn());
+		
+		/* Exceptions built without a code */
+		JsonParserException plain = new JsonParserException("Plain. ");
+		
+		assertEquals(JsonErrorCode.UNKNOWN, plain.getCode());
+		assertEquals(-1, plain.getOffset());
+		assertEquals(-1, plain.getLine());
+		assertThrows(IllegalStateException.class, () -> {
+			error.initLocation(0, null);
+		});
+	}
+	
+//	@Disabled
+	@Test
+	void testValidate() {
+		String valid = "{\"a\":[1, -2.5e3, null, true, false, \"x\\ty\\u00e9\"], \"b\":{\"c\":{}, \"d\":[]}}";
+		
+		parser.parse(valid);
+		assertSame(JsonValue.NULL, parser.validate(valid).getValue());
+		parser.validate(valid.getBytes(StandardCharsets.UTF_8));
+		parser.validate(new StringReader(valid));
+		parser.validate(" 1e308 ");
+		
+		StringBuilder many = new StringBuilder("{");
+		for (int index = 0; index < 100; ++index) {
+			many.append(index == 0 ? "" : ",").append("\"key").append(index).append("\":{\"key\":").append(index).append("}");
+		}
+		parser.validate(many + "}");
+		
+		/* The same exceptions as {@code parse()}, at the same offsets */
+		String[] contexts = {
+				"", "   \t \n\r", "abcde", "[aull]", " nulk", "[ null, ture]", 
+				"-0.50.6", "\"\\a\"", "\"\\uD834\"", "1e309", "[-1e400]", 
+				"[1,]", "[1,2,", "[1,2\t3]", "[1\t2", "[1, 2, [3,], 4]", "{\"key\": [3,], \"key2\":4}", 
+				"{\"\"", "{\"key\":", "{\"key\":123,\t", "{\"key\":123,\t}", "{123:\"key\",\t}", 
+				"{\"key\":123\t \"key2\":456}", "{\"id\":1, \"i\\u0064\":2}", "{\"a\":{\"b\":1, \"b\":2}}", 
+				many + ",\"key3\":0}", many + ",\"\":{}, \"\":[]}", 
+				"false \ttrue", "\"\" abc", "nul", "-", "-0.", "40e+", "\"\\\"", "\"\\u0F4\"", 
+				"falsed", "012", "\"\"null", "{\"key\"123", "[null, {\"\", 123]", "[{]", "[{}", 
+				"\"", "\"\\uD834\\uDD1E", "[", "\n[\t", "[ 1 , 2 , 3", "{", "{\"key\":123, \"\":\"value\"", 
+				"[".repeat(1001) + "]".repeat(1001)
+		};
+		
+		for (String context : contexts) {
+			JsonParserException expected = assertThrows(JsonParserException.class, () -> {
+				parser.parse(context);
+			});
+			JsonParserException actual = assertThrows(JsonParserException.class, () -> {
+				parser.validate(context);
+			});
+			
+			assertEquals(expected.getClass(), actual.getClass(), context);
+			assertEquals(expected.getCode(), actual.getCode(), context);
+			assertEquals(expected.getOffset(), actual.getOffset(), context);
+		}
+		
+		/* Options of the parser apply. */
+		parser.setBigDecimalEnabled(true).validate("[1e400]");
+		parser.setMaxDepth(2000).validate("[".repeat(1001) + "]".repeat(1001));
+	}
 }
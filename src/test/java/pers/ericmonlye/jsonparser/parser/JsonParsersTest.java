@@ -0,0 +1,76 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+//import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+class JsonParsersTest {
+	private List<String> messages(int count) {
+		List<String> messages = new ArrayList<String>();
+		
+		for (int index = 0; index < count; ++index) {
+			messages.add("{\"id\":" + index + ", \"user\":\"u\\u00e9" + index + "\", \"tags\":[true, null, " + index * 0.5 + "]}");
+		}
+		
+		return messages;
+	}
+
+//	@Disabled
+	@Test
+	void testParseAll() {
+		List<String> messages = messages(5000);
+		JsonBatch batch = JsonParsers.parseAll(messages);
+		JsonParser parser = new JsonParser();
+		
+		assertEquals(5000, batch.size());
+		for (int index = 0; index < 5000; ++index) {
+			assertEquals(parser.parse(messages.get(index)).getValue(), batch.getValues().get(index));
+		}
+		assertEquals(messages.stream().mapToLong(String::length).sum(), batch.getLength());
+		assertTrue(batch.getElapsedNanos() > 0);
+		assertTrue(batch.getItemsPerSecond() > 0);
+		assertTrue(batch.toString().startsWith("5000 items"));
+		
+		JsonBatch bytes = JsonParsers.parseAll(messages.stream().map(message -> message.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(batch.getValues(), bytes.getValues());
+		assertEquals(batch.getLength(), bytes.getLength()); /* ASCII only */
+		
+		assertEquals(0, JsonParsers.parseAll(new ArrayList<String>()).size());
+	}
+	
+//	@Disabled
+	@Test
+	void testExceptions() {
+		List<String> messages = messages(1000);
+		messages.set(900, "[1,]");
+		messages.set(300, "{\"key\" 1}");
+		
+		/* The first malformed context in order wins, whichever thread reaches it first. */
+		for (int round = 0; round < 10; ++round) {
+			assertThrows(MissingDelimiterException.class, () -> {
+				JsonParsers.parseAll(messages);
+			});
+		}
+		
+		/* Parsers left over from failures are reused as usual. */
+		messages.set(900, "[1]");
+		messages.set(300, "{}");
+		assertEquals(1000, JsonParsers.parseAll(messages).size());
+		
+		/* A cleared parser keeps nothing of its last context, whether it was parsed or not. */
+		JsonParser parser = new JsonParser();
+		assertSame(JsonValue.NULL, parser.parse(messages.get(0)).clear().getValue());
+		assertThrows(InvalidArrayException.class, () -> {
+			parser.parse("[[1, 2], [3,]]");
+		});
+		assertSame(JsonValue.NULL, parser.clear().getValue());
+		assertEquals(new JsonParser().parse(messages.get(1)).getValue(), parser.parse(messages.get(1)).getValue());
+	}
+}
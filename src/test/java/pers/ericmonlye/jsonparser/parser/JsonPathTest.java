@@ -0,0 +1,110 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+class JsonPathTest {
+	/* the bookstore of the JSONPath examples */
+	private static final String STORE = "{\"store\": {"
+			+ "\"book\": ["
+			+ "{\"category\": \"reference\", \"author\": \"Nigel Rees\", \"title\": \"Sayings of the Century\", \"price\": 8.95}, "
+			+ "{\"category\": \"fiction\", \"author\": \"Evelyn Waugh\", \"title\": \"Sword of Honour\", \"price\": 12.99}, "
+			+ "{\"category\": \"fiction\", \"author\": \"Herman Melville\", \"title\": \"Moby Dick\", \"isbn\": \"0-553-21311-3\", \"price\": 8.99}, "
+			+ "{\"category\": \"fiction\", \"author\": \"J. R. R. Tolkien\", \"title\": \"The Lord of the Rings\", \"isbn\": \"0-395-19395-8\", \"price\": 22.99}"
+			+ "], "
+			+ "\"bicycle\": {\"color\": \"red\", \"price\": 399}}, "
+			+ "\"expensive\": 10}";
+
+	private JsonValue root = new JsonParser().parse(STORE).getValue();
+
+	private List<Object> select(String path) {
+		List<Object> values = new ArrayList<Object>();
+
+		for (JsonValue value : JsonPath.compile(path).select(root)) {
+			values.add(value.getType() == JsonType.NUMBER ? (Object)value.getDouble() : value.getValue());
+		}
+
+		return values;
+	}
+
+//	@Disabled
+	@Test
+	void testSegments() {
+		assertEquals(List.of("Nigel Rees", "Evelyn Waugh", "Herman Melville", "J. R. R. Tolkien"), select("$.store.book[*].author"));
+		assertEquals(List.of("Nigel Rees", "Evelyn Waugh", "Herman Melville", "J. R. R. Tolkien"), select("$..author"));
+		assertEquals(List.of("Nigel Rees", "Evelyn Waugh", "Herman Melville", "J. R. R. Tolkien"), select("$['store'][\"book\"][*]['author']"));
+		assertEquals(5, select("$..price").size());
+		assertEquals(2, select("$.store.*").size());
+		assertEquals(List.of("Moby Dick"), select("$..book[2].title"));
+		assertEquals(List.of("The Lord of the Rings"), select("$..book[-1].title"));
+		assertEquals(List.of("Sayings of the Century", "Sword of Honour"), select("$..book[0,1].title"));
+		assertEquals(List.of("Sayings of the Century", "Sword of Honour"), select("$..book[:2].title"));
+		assertEquals(List.of(), select("$.store.book[9]"));
+		assertEquals(List.of(), select("$.missing[*]"));
+		assertSame(root, JsonPath.compile("$").selectFirst(root));
+		assertNull(JsonPath.compile("$.missing").selectFirst(root));
+	}
+
+//	@Disabled
+	@Test
+	void testSlices() {
+		JsonValue array = new JsonParser().parse("[0, 1, 2, 3, 4, 5, 6]").getValue();
+		String[][] cases = {
+				{"$[1:3]", "[1, 2]"}, {"$[5:]", "[5, 6]"}, {"$[1:5:2]", "[1, 3]"}, {"$[5:1:-2]", "[5, 3]"}, 
+				{"$[::-1]", "[6, 5, 4, 3, 2, 1, 0]"}, {"$[-2:]", "[5, 6]"}, {"$[:-5]", "[0, 1]"}, 
+				{"$[0:100]", "[0, 1, 2, 3, 4, 5, 6]"}, {"$[-100:2]", "[0, 1]"}, {"$[3:1]", "[]"}, {"$[::0]", "[]"}, 
+				{"$[ 1 : 3 ]", "[1, 2]"}, {"$[-1, 0]", "[6, 0]"}
+		};
+
+		for (String[] test : cases) {
+			JsonValue expected = new JsonParser().parse(test[1]).getValue();
+
+			assertEquals(expected.getArr(), JsonPath.compile(test[0]).select(array), test[0]);
+		}
+	}
+
+//	@Disabled
+	@Test
+	void testFilters() {
+		assertEquals(List.of("Moby Dick", "The Lord of the Rings"), select("$..book[?(@.isbn)].title"));
+		assertEquals(List.of("Sayings of the Century", "Moby Dick"), select("$..book[?(@.price < 10)].title"));
+		assertEquals(List.of("Sayings of the Century", "Moby Dick"), select("$..book[?@.price<$.expensive].title"));
+		assertEquals(List.of("Sword of Honour"), select("$..book[?(@.category == 'fiction' && !@.isbn)].title"));
+		assertEquals(List.of("Sayings of the Century", "The Lord of the Rings"), 
+				select("$..book[?(@.price > 20 || (@.category != \"fiction\"))].title"));
+		assertEquals(List.of("Moby Dick"), select("$..book[?(@.author >= 'H' && @.author < 'I')].title"));
+		assertEquals(List.of("Moby Dick"), select("$..book[?(@.price == 8.99)].title"));
+		assertEquals(List.of(399.0), select("$.store[?(@.color == 'red')].price"));
+		assertEquals(List.of(), select("$..book[?(@.missing == 1)]"));
+		assertEquals(4, select("$..book[?(@.missing == @.other)]").size());
+		assertEquals(List.of(), select("$..book[?(@.title < 10)]"));
+
+		JsonValue numbers = new JsonParser().parse("[9007199254740993, 9007199254740992, 1.5, -2, null, true, [1], {\"a\":1}]").getValue();
+		assertEquals(List.of(numbers.getArrElem(0)), JsonPath.compile("$[?(@ > 9007199254740992)]").select(numbers));
+		assertEquals(List.of(numbers.getArrElem(2)), JsonPath.compile("$[?(@ > 1 && @ <= 1.5)]").select(numbers));
+		assertEquals(List.of(numbers.getArrElem(4)), JsonPath.compile("$[?(@ == null)]").select(numbers));
+		assertEquals(List.of(numbers.getArrElem(5)), JsonPath.compile("$[?@ == true]").select(numbers));
+		assertEquals(List.of(numbers.getArrElem(6)), JsonPath.compile("$[?(@[0] == 1)]").select(numbers));
+		assertEquals(List.of(numbers.getArrElem(7)), JsonPath.compile("$[?(@['a'] == 1)]").select(numbers));
+	}
+
+//	@Disabled
+	@Test
+	void testInvalid() {
+		String[] paths = {"", "store", "$.", "$[", "$[1", "$['a]", "$[?(@.a == )]", "$[?(1)]", "$[?(@.a ==1]", 
+				"$[a]", "$.a b", "$[99999999999]", "$[?(@.a == 'x\\q')]"};
+
+		for (String path : paths) {
+			assertThrows(IllegalArgumentException.class, () -> {
+				JsonPath.compile(path);
+			}, path);
+		}
+
+		assertEquals("$..book[0]", JsonPath.compile("$..book[0]").toString());
+	}
+}
@@ -0,0 +1,73 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+class JsonPointerTest {
+	/* the example document of RFC 6901 */
+	private static final String DOCUMENT = "{\"foo\": [\"bar\", \"baz\"], \"\": 0, \"a/b\": 1, \"c%d\": 2, \"e^f\": 3, "
+			+ "\"g|h\": 4, \"i\\\\j\": 5, \"k\\u0022l\": 6, \" \": 7, \"m~n\": 8}";
+
+	private JsonValue root = new JsonParser().parse(DOCUMENT).getValue();
+
+	private JsonValue get(String pointer) {
+		return JsonPointer.compile(pointer).get(root);
+	}
+
+//	@Disabled
+	@Test
+	void testRfcExamples() {
+		assertSame(root, get(""));
+		assertEquals(new JsonParser().parse("[\"bar\", \"baz\"]").getValue(), get("/foo"));
+		assertEquals("bar", get("/foo/0").getValue());
+		assertEquals(0L, get("/").getLong());
+		assertEquals(1L, get("/a~1b").getLong());
+		assertEquals(2L, get("/c%d").getLong());
+		assertEquals(3L, get("/e^f").getLong());
+		assertEquals(4L, get("/g|h").getLong());
+		assertEquals(5L, get("/i\\j").getLong());
+		assertEquals(6L, get("/k\"l").getLong());
+		assertEquals(7L, get("/ ").getLong());
+		assertEquals(8L, get("/m~0n").getLong());
+	}
+
+//	@Disabled
+	@Test
+	void testMissing() {
+		String[] pointers = {"/bar", "/foo/2", "/foo/-", "/foo/01", "/foo/-1", "/foo/0/x", "/a~1b/0", "/foo/99999999999"};
+
+		for (String pointer : pointers) {
+			assertNull(get(pointer), pointer);
+			assertFalse(JsonPointer.compile(pointer).contains(root), pointer);
+		}
+
+		JsonValue nulls = new JsonParser().parse("{\"a\":null}").getValue();
+		assertTrue(JsonPointer.compile("/a").contains(nulls));
+		assertSame(JsonValue.NULL, JsonPointer.compile("/a").get(nulls));
+
+		/* The same pointer against several trees */
+		JsonPointer price = JsonPointer.compile("/items/1/price");
+		for (int index = 0; index < 10; ++index) {
+			JsonValue event = new JsonParser().parse("{\"items\":[{}, {\"price\":" + index + "}]}").getValue();
+
+			assertEquals(index, price.get(event).getLong());
+		}
+	}
+
+//	@Disabled
+	@Test
+	void testInvalid() {
+		String[] pointers = {"foo", "#/foo", "/~2", "/a~", "/~~"};
+
+		for (String pointer : pointers) {
+			assertThrows(IllegalArgumentException.class, () -> {
+				JsonPointer.compile(pointer);
+			}, pointer);
+		}
+
+		assertEquals("/a~1b", JsonPointer.compile("/a~1b").toString());
+		assertEquals(JsonPointer.compile("/a"), JsonPointer.compile("/a"));
+	}
+}
@@ -0,0 +1,126 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+//import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+class JsonProjectionTest {
+	private static final String ORDER = "{\"user\":{\"id\":7, \"name\":\"Eric\\u00e9\", \"tags\":[1, [2, {\"x\":3}]]}, "
+			+ "\"items\":[{\"price\":1.5, \"sku\":\"a\\/b\"}, {\"price\":2, \"extra\":{\"price\":0}}, 3, {\"sku\":\"c\"}], "
+			+ "\"total\":3.5, \"note\":\"]}[{\\\\\"}";
+
+	private JsonParser parser = new JsonParser();
+
+	private void assertProjection(String expected, JsonProjection projection, String context) {
+		JsonValue value = new JsonParser().parse(expected).getValue();
+
+		assertEquals(value, parser.setProjection(projection).parse(context).getValue());
+		assertEquals(value, parser.parse(context.getBytes(StandardCharsets.UTF_8)).getValue());
+		assertEquals(value, parser.setScanner(JsonScanner.SCALAR).parse(context.getBytes(StandardCharsets.UTF_8)).getValue());
+		assertEquals(value, parser.parse(new StringReader(context)).getValue());
+
+		parser.setScanner(JsonScanner.NONE);
+	}
+
+//	@Disabled
+	@Test
+	void testPaths() {
+		assertProjection("{\"user\":{\"id\":7}, \"items\":[{\"price\":1.5}, {\"price\":2}, {}]}",
+				JsonProjection.of("$.user.id", "$.items[*].price"), ORDER);
+		assertProjection("{\"user\":{\"id\":7, \"name\":\"Eric\\u00e9\", \"tags\":[1, [2, {\"x\":3}]]}}",
+				JsonProjection.of("$.user"), ORDER);
+		assertProjection("{\"note\":\"]}[{\\\\\"}", JsonProjection.of("$[\"note\"]"), ORDER);
+		assertProjection("{}", JsonProjection.of("$.missing.id"), ORDER);
+		assertProjection("[[], {}]", JsonProjection.of("$[*].a"), "[[1, 2], {\"b\":[3]}, 4]");
+		assertProjection("{\"a.b\":1}", JsonProjection.of("$[\"a.b\"]"), "{\"a.b\":1, \"a\":{\"b\":2}}");
+
+		/* Members named and selected by {@code .*} get the paths of both. */
+		assertProjection("{\"a\":{\"x\":1, \"y\":2}, \"b\":{\"x\":3}}", JsonProjection.of("$.a.y", "$.*.x"),
+				"{\"a\":{\"x\":1, \"y\":2, \"z\":0}, \"b\":{\"x\":3, \"y\":4}}");
+		assertProjection("{\"a\":{\"x\":1, \"y\":2}, \"b\":{\"x\":3}}", JsonProjection.of("$.*.x", "$.a.y"),
+				"{\"a\":{\"x\":1, \"y\":2, \"z\":0}, \"b\":{\"x\":3, \"y\":4}}");
+
+		/* The root and everything below complete paths are kept. */
+		assertProjection("12", JsonProjection.of("$.a"), "12");
+		assertProjection(ORDER, JsonProjection.of("$"), ORDER);
+		assertProjection(ORDER, JsonProjection.of("$.user", "$"), ORDER);
+		assertProjection(ORDER, null, ORDER);
+	}
+
+//	@Disabled
+	@Test
+	void testSkipping() {
+		JsonProjection projection = JsonProjection.of("$.id");
+
+		parser.setProjection(projection);
+		assertEquals(1L, parser.parse("{\"skipped\":[[\"\\\\\", {}], \"\\\"}]\"], \"id\":1}").getValue().getObjValue("id").getLong());
+
+		/* Skipped containers are only matched up to their ends. */
+		assertEquals(1L, parser.parse("{\"skipped\":[1 2, {3}], \"id\":1}").getValue().getObjValue("id").getLong());
+
+		/* Everything outside them is checked as usual. */
+		assertThrows(MissingEndTagException.class, () -> {
+			parser.parse("{\"id\":1, \"skipped\":[[1, 2]");
+		});
+		assertThrows(MissingEndTagException.class, () -> {
+			parser.parse("{\"id\":1, \"skipped\":{\"a\":\"}");
+		});
+		assertThrows(MissingEndTagException.class, () -> {
+			parser.setScanner(JsonScanner.SCALAR).parse("{\"id\":1, \"skipped\":[[1, 2]".getBytes(StandardCharsets.UTF_8));
+		});
+		assertThrows(InvalidLiteralException.class, () -> {
+			parser.parse("{\"skipped\":nul1, \"id\":1}");
+		});
+		assertThrows(InvalidCharacterException.class, () -> {
+			parser.parse("{\"skipped\":\"\\x\", \"id\":1}");
+		});
+		assertThrows(InvalidNumberException.class, () -> { /* out of range, as without projection */
+			parser.parse("{\"id\":1, \"skipped\":1e999}");
+		});
+		assertThrows(IncompleteItemException.class, () -> {
+			parser.parse("{\"skipped\":-1., \"id\":1}");
+		});
+		assertEquals(1L, new JsonParser().setProjection(projection).setBigDecimalEnabled(true)
+				.parse("{\"skipped\":1e999, \"id\":1}").getValue().getObjValue("id").getLong());
+		assertThrows(InvalidObjectException.class, () -> {
+			parser.parse("{\"id\":1, \"id\":2}");
+		});
+		assertThrows(RootNotSingularException.class, () -> {
+			parser.parse("{\"skipped\":[]} 1");
+		});
+
+		/* Projected contexts are parsed sequentially. */
+		StringBuilder records = new StringBuilder("[");
+		for (int index = 0; index < 20000; ++index) {
+			records.append(index == 0 ? "" : ",").append("{\"id\":").append(index).append(", \"name\":\"n\"}");
+		}
+		records.append("]");
+
+		JsonValue ids = parser.setProjection(JsonProjection.of("$[*].id")).setParallelEnabled(true)
+				.parse(records.toString()).getValue();
+		assertEquals(20000, ids.getArr().size());
+		assertEquals(1, ids.getArrElem(123).getObj().size());
+	}
+
+//	@Disabled
+	@Test
+	void testInvalidPaths() {
+		String[] paths = {"", "user.id", "$.", "$..id", "$[0]", "$[\"id", "$['id']", "$.a[*"};
+
+		for (String path : paths) {
+			assertThrows(IllegalArgumentException.class, () -> {
+				JsonProjection.of(path);
+			}, path);
+		}
+
+		assertTrue(JsonProjection.of("$").isComplete());
+		assertFalse(JsonProjection.of("$.a").isComplete());
+		assertTrue(JsonProjection.ALL.isComplete());
+	}
+}
@@ -0,0 +1,208 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+//import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+class JsonPushParserTest {
+	private static final String ORDER = "{\"user\":{\"id\":7, \"name\":\"Eric\\u00e9 \u00e9\u4e2d\ud834\udd1e\", "
+			+ "\"emoji\":\"\\ud834\\udd1e\", \"tags\":[true, false, null, -0.5e-3, 1234567890123456789]}, "
+			+ "\"items\":[{\"price\":1.5, \"sku\":\"a\\/b\\\\c\\n\"}, [], {}, 3], \"total\":-3.5E+2}";
+
+	private Random random = new Random(24);
+
+	/* Every event is recorded, so that two handlers may be compared. */
+	private static final class Recorder implements JsonHandler {
+		final StringBuilder events = new StringBuilder();
+
+		@Override
+		public void startObject() {
+			events.append('{');
+		}
+		@Override
+		public void endObject() {
+			events.append('}');
+		}
+		@Override
+		public void startArray() {
+			events.append('[');
+		}
+		@Override
+		public void endArray() {
+			events.append(']');
+		}
+		@Override
+		public void key(String key) {
+			events.append('<').append(key).append('>');
+		}
+		@Override
+		public void number(double num) {
+			events.append('#').append(num);
+		}
+		@Override
+		public void string(String str) {
+			events.append('\'').append(str).append('\'');
+		}
+		@Override
+		public void literal(JsonType type) {
+			events.append(type.name().charAt(0));
+		}
+	}
+
+	private String expectedEvents(byte[] context) {
+		Recorder recorder = new Recorder();
+
+		new JsonReader(context).parse(recorder);
+
+		return recorder.events.toString();
+	}
+	/* Pushes {@code context} in chunks of at most {@code maxChunk} bytes. */
+	private JsonPushParser push(JsonPushParser parser, byte[] context, int maxChunk) {
+		for (int pos = 0; pos < context.length; ) {
+			int length = Math.min(context.length - pos, 1 + random.nextInt(maxChunk));
+			ByteBuffer chunk = ByteBuffer.wrap(context, pos, length);
+
+			parser.feed(chunk);
+			assertFalse(chunk.hasRemaining());
+			pos += length;
+		}
+
+		return parser.endOfInput();
+	}
+	private void assertSameEvents(String context) {
+		byte[] bytes = context.getBytes(StandardCharsets.UTF_8);
+		String expected = expectedEvents(bytes);
+
+		for (int maxChunk : new int[] {1, 2, 3, 7, bytes.length + 1}) {
+			Recorder recorder = new Recorder();
+
+			assertTrue(push(new JsonPushParser(recorder), bytes, maxChunk).isDone());
+			assertEquals(expected, recorder.events.toString(), context);
+		}
+	}
+	/* The push parser must fail exactly where the reader fails. */
+	private void assertSameException(String context) {
+		byte[] bytes = context.getBytes(StandardCharsets.UTF_8);
+		JsonParserException expected = assertThrows(JsonParserException.class, () -> {
+			new JsonReader(bytes).parse(new JsonHandler() {});
+		}, context);
+
+		for (int maxChunk : new int[] {1, 3, bytes.length + 1}) {
+			JsonParserException actual = assertThrows(expected.getClass(), () -> {
+				push(new JsonPushParser(new JsonHandler() {}), bytes, maxChunk);
+			}, context);
+
+			assertEquals(expected.getCode(), actual.getCode(), context);
+			assertEquals(expected.getOffset(), actual.getOffset(), context);
+		}
+	}
+
+//	@Disabled
+	@Test
+	void testChunks() {
+		assertSameEvents(ORDER);
+		assertSameEvents("  null\t");
+		assertSameEvents("-12.53e+3");
+		assertSameEvents("\"\u00e9\\u00e9\\ud834\\udd1e\"");
+		assertSameEvents("[[[]], {\"\":{}}, \"\\\\\", 0]");
+
+		for (int index = 0; index < 20; ++index) {
+			Recorder recorder = new Recorder();
+			byte[] bytes = ORDER.getBytes(StandardCharsets.UTF_8);
+
+			push(new JsonPushParser(recorder), bytes, 1 + random.nextInt(40));
+			assertEquals(expectedEvents(bytes), recorder.events.toString());
+		}
+
+		/* Long tokens cut in many chunks, beyond the initial window. */
+		StringBuilder records = new StringBuilder("[");
+		for (int index = 0; index < 5000; ++index) {
+			records.append(index == 0 ? "" : ",").append("{\"id\":").append(index).append(", \"name\":\"n\\t\u00e9\"}");
+		}
+		records.append(", \"").append("\u4e2d".repeat(20000)).append("\", 0.").append("9".repeat(30000)).append("]");
+		assertSameEvents(records.toString());
+	}
+
+//	@Disabled
+	@Test
+	void testEvents() {
+		Recorder recorder = new Recorder();
+		JsonPushParser parser = new JsonPushParser(recorder);
+
+		/* Tokens are reported as soon as their chunk completes them. */
+		parser.feed("{\"a\":[tr".getBytes(StandardCharsets.UTF_8));
+		assertEquals("{<a>[", recorder.events.toString());
+		parser.feed("ue, \"x\\u00".getBytes(StandardCharsets.UTF_8));
+		assertEquals("{<a>[T", recorder.events.toString());
+		parser.feed("e9\", 12".getBytes(StandardCharsets.UTF_8));
+		assertEquals("{<a>[T'x\u00e9'", recorder.events.toString());
+		parser.feed("]}".getBytes(StandardCharsets.UTF_8));
+		assertEquals("{<a>[T'x\u00e9'#12.0]}", recorder.events.toString());
+		assertTrue(parser.isRootComplete());
+		assertFalse(parser.isDone());
+
+		parser.feed(" \n".getBytes(StandardCharsets.UTF_8));
+		assertTrue(parser.endOfInput().isDone());
+
+		/* A number at the root may go on until the end of the input. */
+		Recorder number = new Recorder();
+		JsonPushParser numberParser = new JsonPushParser(number).feed("12".getBytes(StandardCharsets.UTF_8));
+		assertFalse(numberParser.isRootComplete());
+		numberParser.feed("3".getBytes(StandardCharsets.UTF_8)).endOfInput();
+		assertEquals("#123.0", number.events.toString());
+		assertTrue(numberParser.isRootComplete());
+
+		assertThrows(IllegalStateException.class, () -> {
+			numberParser.feed(new byte[0]);
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			numberParser.endOfInput();
+		});
+	}
+
+//	@Disabled
+	@Test
+	void testExceptions() {
+		String[] contexts = {
+				"", "   \t \n\r", "abcde", "[aull]", " nulk", "[ null, ture]",
+				"-0.50.6", "\"\\a\"", "\"\\uD834\"", "\"\\uD834\\u0041\"",
+				"[1,]", "[1,2,", "[1,2\t3]", "[1\t2", "[1, 2, [3,], 4]", "{\"key\": [3,], \"key2\":4}",
+				"{\"\"", "{\"key\":", "{\"key\":123,\t", "{\"key\":123,\t}", "{123:\"key\",\t}",
+				"{\"key\":123\t \"key2\":456}",
+				"false \ttrue", "\"\" abc", "nul", "-", "-0.", "40e+", "\"\\\"", "\"\\u0F4\"",
+				"falsed", "012", "\"\"null", "{\"key\"123", "[null, {\"\", 123]", "{} {}",
+				"\"", "\"\\uD834\\uDD1E", "[", "\n[\t", "[ 1 , 2 , 3", "{", "{\"key\":123, \"\":\"value\"",
+				"\"\u00e9\u4e2d", "[\"a\u0001\"]"
+		};
+
+		for (String context : contexts) {
+			assertSameException(context);
+		}
+
+		/* Invalid UTF-8 split across chunks */
+		JsonPushParser parser = new JsonPushParser(new JsonHandler() {});
+		parser.feed(new byte[] {'[', '\"', (byte)0xE4});
+		assertThrows(InvalidCharacterException.class, () -> {
+			parser.feed(new byte[] {(byte)0xB8, 'x', '\"', ']'});
+		});
+
+		/* A failed parser cannot be fed any more. */
+		assertThrows(IllegalStateException.class, () -> {
+			parser.feed(new byte[] {']'});
+		});
+
+		assertThrows(MaxDepthExceededException.class, () -> {
+			new JsonPushParser(new JsonHandler() {}).setMaxDepth(2).feed("[[[".getBytes(StandardCharsets.UTF_8));
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			new JsonPushParser(new JsonHandler() {}).setMaxDepth(-1);
+		});
+	}
+}
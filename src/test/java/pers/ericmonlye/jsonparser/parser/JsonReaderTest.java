@@ -0,0 +1,214 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+
+//import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+class JsonReaderTest {
+	JsonParser parser = new JsonParser();
+
+	private void assertTokens(String context, JsonToken... expected) {
+		JsonReader reader = new JsonReader(context);
+		
+		for (JsonToken token : expected) {
+			assertEquals(token, reader.nextToken());
+		}
+		assertEquals(JsonToken.END_DOCUMENT, reader.nextToken());
+		assertEquals(JsonToken.END_DOCUMENT, reader.nextToken());
+	}
+	/* The reader must fail exactly where the parser fails. */
+	private void assertSameException(String context) {
+		JsonParserException expected = assertThrows(JsonParserException.class, () -> {
+			parser.parse(context);
+		});
+		
+		JsonReader reader = new JsonReader(context);
+		assertThrows(expected.getClass(), () -> {
+			while (reader.nextToken() != JsonToken.END_DOCUMENT) {
+				/* read everything */
+			}
+		});
+	}
+
+//	@Disabled
+	@Test
+	void testTokens() {
+		assertTokens(" null ", JsonToken.NULL);
+		assertTokens("-12.53e+3", JsonToken.NUMBER);
+		assertTokens("[]", JsonToken.START_ARRAY, JsonToken.END_ARRAY);
+		assertTokens("{}", JsonToken.START_OBJECT, JsonToken.END_OBJECT);
+		assertTokens("[null, true, false, 1, \"a\", [], {}]", 
+				JsonToken.START_ARRAY, 
+				JsonToken.NULL, JsonToken.TRUE, JsonToken.FALSE, JsonToken.NUMBER, JsonToken.STRING, 
+				JsonToken.START_ARRAY, JsonToken.END_ARRAY, 
+				JsonToken.START_OBJECT, JsonToken.END_OBJECT, 
+				JsonToken.END_ARRAY);
+		assertTokens("{\"1\":null, \"2\":{\"3\":[4]}}", 
+				JsonToken.START_OBJECT, 
+				JsonToken.KEY, JsonToken.NULL, 
+				JsonToken.KEY, JsonToken.START_OBJECT, 
+				JsonToken.KEY, JsonToken.START_ARRAY, JsonToken.NUMBER, JsonToken.END_ARRAY, 
+				JsonToken.END_OBJECT, 
+				JsonToken.END_OBJECT);
+	}
+
+//	@Disabled
+	@Test
+	void testValues() {
+		JsonReader reader = new JsonReader("{\"na\\u006De\":\"Eric\", \"age\":-0, \"pi\":3.14159}");
+		
+		assertEquals(JsonToken.START_OBJECT, reader.nextToken());
+		assertEquals(JsonToken.KEY, reader.nextToken());
+		assertEquals("name", reader.getString());
+		assertEquals(JsonToken.STRING, reader.nextToken());
+		assertEquals("Eric", reader.getString());
+		assertThrows(IllegalStateException.class, () -> reader.getDouble());
+		assertEquals(JsonToken.KEY, reader.nextToken());
+		assertEquals(JsonToken.NUMBER, reader.nextToken());
+		assertEquals(0.0, reader.getDouble());
+		assertThrows(IllegalStateException.class, () -> reader.getString());
+		assertEquals(JsonToken.KEY, reader.nextToken());
+		assertEquals(JsonToken.NUMBER, reader.nextToken());
+		assertEquals(3.14159, reader.getDouble());
+		assertEquals(1, reader.getDepth());
+		assertEquals(JsonToken.END_OBJECT, reader.nextToken());
+		assertEquals(0, reader.getDepth());
+		
+		JsonReader bytesReader = new JsonReader("[\"\u00E9t\u00E9\", 1e309]".getBytes(StandardCharsets.UTF_8));
+		assertEquals(JsonToken.START_ARRAY, bytesReader.nextToken());
+		assertEquals(JsonToken.STRING, bytesReader.nextToken());
+		assertEquals("\u00E9t\u00E9", bytesReader.getString());
+		assertEquals(JsonToken.NUMBER, bytesReader.nextToken());
+		assertThrows(InvalidNumberException.class, () -> bytesReader.getDouble());
+	}
+
+//	@Disabled
+	@Test
+	void testSkipValue() {
+		JsonReader reader = new JsonReader("{\"skip\":{\"a\":[1, {\"b\":\"\\n\"}], \"c\":null}, "
+				+ "\"also\":[[], [[]]], \"scalar\":\"x\", \"keep\":42}");
+		
+		assertEquals(JsonToken.START_OBJECT, reader.nextToken());
+		assertEquals(JsonToken.KEY, reader.nextToken());
+		reader.skipValue();
+		assertEquals(JsonToken.END_OBJECT, reader.getToken());
+		assertEquals(JsonToken.KEY, reader.nextToken());
+		assertEquals(JsonToken.START_ARRAY, reader.nextToken());
+		reader.skipValue();
+		assertEquals(JsonToken.END_ARRAY, reader.getToken());
+		assertEquals(JsonToken.KEY, reader.nextToken());
+		reader.skipValue();
+		assertEquals(JsonToken.STRING, reader.getToken());
+		assertThrows(IllegalStateException.class, () -> reader.getString());
+		assertEquals(JsonToken.KEY, reader.nextToken());
+		assertEquals("keep", reader.getString());
+		assertEquals(JsonToken.NUMBER, reader.nextToken());
+		assertEquals(42.0, reader.getDouble());
+		assertEquals(JsonToken.END_OBJECT, reader.nextToken());
+		assertEquals(JsonToken.END_DOCUMENT, reader.nextToken());
+		
+		JsonReader malformed = new JsonReader("[{\"a\":[1 2]}]");
+		assertEquals(JsonToken.START_ARRAY, malformed.nextToken());
+		assertThrows(InvalidArrayException.class, () -> malformed.skipValue());
+	}
+
+//	@Disabled
+	@Test
+	void testHandler() {
+		StringBuilder events = new StringBuilder();
+		double[] sum = {0.0};
+		JsonHandler handler = new JsonHandler() {
+			@Override
+			public void startObject() {
+				events.append('{');
+			}
+			@Override
+			public void endObject() {
+				events.append('}');
+			}
+			@Override
+			public void startArray() {
+				events.append('[');
+			}
+			@Override
+			public void endArray() {
+				events.append(']');
+			}
+			@Override
+			public void key(String key) {
+				events.append(key).append(':');
+			}
+			@Override
+			public void number(double num) {
+				events.append('#');
+				sum[0] += num;
+			}
+			@Override
+			public void string(String str) {
+				events.append('\'').append(str).append('\'');
+			}
+			@Override
+			public void literal(JsonType type) {
+				events.append(type.name().charAt(0));
+			}
+		};
+		
+		new JsonReader("{\"a\":[1, 2.5, null, true, false, \"x\\ty\"], \"b\":{\"c\":{}}, \"d\":-4}").parse(handler);
+		assertEquals("{a:[##NTF'x\ty']b:{c:{}}d:#}", events.toString());
+		assertEquals(-0.5, sum[0]);
+		
+		assertThrows(InvalidObjectException.class, () -> {
+			new JsonReader("{\"a\":1,}").parse(new JsonHandler() {});
+		});
+	}
+
+//	@Disabled
+	@Test
+	void testExceptions() {
+		String[] contexts = {
+				"", "   \t \n\r", "abcde", "[aull]", " nulk", "[ null, ture]", 
+				"-0.50.6", "\"\\a\"", "\"\\uD834\"", 
+				"[1,]", "[1,2,", "[1,2\t3]", "[1\t2", "[1, 2, [3,], 4]", "{\"key\": [3,], \"key2\":4}", 
+				"{\"\"", "{\"key\":", "{\"key\":123,\t", "{\"key\":123,\t}", "{123:\"key\",\t}", 
+				"{\"key\":123\t \"key2\":456}", 
+				"false \ttrue", "\"\" abc", "nul", "-", "-0.", "40e+", "\"\\\"", "\"\\u0F4\"", 
+				"falsed", "012", "\"\"null", "{\"key\"123", "[null, {\"\", 123]", 
+				"\"", "\"\\uD834\\uDD1E", "[", "\n[\t", "[ 1 , 2 , 3", "{", "{\"key\":123, \"\":\"value\""
+		};
+		
+		for (String context : contexts) {
+			assertSameException(context);
+		}
+	}
+	
+//	@Disabled
+	@Test
+	void testMaxDepth() {
+		int depth = 100000;
+		JsonReader reader = new JsonReader("[".repeat(depth) + "]".repeat(depth)).setMaxDepth(depth);
+		
+		while (reader.nextToken() != JsonToken.END_DOCUMENT) {
+			assertTrue(reader.getDepth() <= depth);
+		}
+		
+		assertThrows(MaxDepthExceededException.class, () -> {
+			JsonReader limited = new JsonReader("[".repeat(1001) + "]".repeat(1001));
+			
+			while (limited.nextToken() != JsonToken.END_DOCUMENT) {
+			}
+		});
+		assertThrows(MaxDepthExceededException.class, () -> {
+			JsonReader limited = new JsonReader("{\"a\":[[1]]}").setMaxDepth(2);
+			
+			limited.nextToken();
+			limited.skipValue();
+		});
+		
+		assertSameException("[".repeat(1001) + "]".repeat(1001));
+	}
+}
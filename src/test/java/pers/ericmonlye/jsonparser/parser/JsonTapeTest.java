@@ -0,0 +1,154 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+
+//import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+class JsonTapeTest {
+	JsonParser parser = new JsonParser();
+
+	private static final String DOCUMENT = "{\"id\":9007199254740993, \"name\":\"été \\uD834\\uDD1E\", "
+			+ "\"tags\":[\"a\", [], {}, null, true, false, -12.5e-1], \"empty\":\"\", "
+			+ "\"nested\":{\"list\":[1, [2, [3]]]}}";
+
+	private void assertSameValue(String context) {
+		JsonValue expected = parser.parse(context).getValue();
+
+		assertEquals(expected, new JsonReader(context).readTape().getRoot().toJsonValue());
+		assertEquals(expected, new JsonReader(context.getBytes(StandardCharsets.UTF_8)).readTape().getRoot().toJsonValue());
+	}
+
+//	@Disabled
+	@Test
+	void testBuild() {
+		assertSameValue("null");
+		assertSameValue(" 12 ");
+		assertSameValue("\"str\"");
+		assertSameValue("[]");
+		assertSameValue("{}");
+		assertSameValue(DOCUMENT);
+
+		StringBuilder deep = new StringBuilder();
+		for (int count = 0; count < 100; ++count) {
+			deep.append("[{\"k\":");
+		}
+		deep.append("0");
+		for (int count = 0; count < 100; ++count) {
+			deep.append("}]");
+		}
+		assertSameValue(deep.toString());
+
+		/* a handful of entries per item, no matter how many items */
+		assertEquals(10, new JsonReader("[1, 2.5, \"s\", null, []]").readTape().getLength());
+	}
+
+//	@Disabled
+	@Test
+	void testCursor() {
+		JsonCursor cursor = new JsonReader(DOCUMENT).readTape().getRoot();
+
+		assertEquals(JsonType.OBJECT, cursor.getType());
+		assertEquals(5, cursor.size());
+		assertEquals(0, cursor.getDepth());
+
+		assertTrue(cursor.toMember("id"));
+		assertTrue(cursor.isIntegral());
+		assertEquals(9007199254740993L, cursor.getLong());
+		assertEquals("id", cursor.getKey());
+		assertEquals(1, cursor.getDepth());
+		assertTrue(cursor.toParent());
+		assertFalse(cursor.toParent());
+
+		assertFalse(cursor.toMember("missing"));
+		assertTrue(cursor.toMember("name"));
+		assertEquals("été 𝄞", cursor.getString());
+		cursor.toParent();
+
+		assertTrue(cursor.toMember("tags"));
+		assertEquals(7, cursor.size());
+		JsonCursor tags = cursor.copy();
+		assertTrue(cursor.toElement(6));
+		assertEquals(-1.25, cursor.getDouble());
+		assertFalse(cursor.isIntegral());
+		assertThrows(ArithmeticException.class, () -> cursor.getLong());
+		assertThrows(IllegalStateException.class, () -> cursor.getString());
+		assertThrows(IllegalStateException.class, () -> cursor.getKey());
+		assertFalse(cursor.toNext());
+		cursor.toParent();
+		assertFalse(cursor.toElement(7));
+		assertFalse(cursor.toElement(-1));
+
+		/* walk the elements in place */
+		JsonType[] types = {
+				JsonType.STRING, JsonType.ARRAY, JsonType.OBJECT, JsonType.NULL,
+				JsonType.TRUE, JsonType.FALSE, JsonType.NUMBER
+		};
+		int count = 0;
+		assertTrue(tags.toFirst());
+		do {
+			assertEquals(types[count++], tags.getType());
+		}
+		while (tags.toNext());
+		assertEquals(types.length, count);
+
+		tags.toParent();
+		assertTrue(tags.toElement(1));
+		assertEquals(0, tags.size());
+		assertFalse(tags.toFirst());
+
+		/* walk the members in place */
+		cursor.toParent();
+		StringBuilder keys = new StringBuilder();
+		assertTrue(cursor.toFirst());
+		do {
+			keys.append(cursor.getKey()).append(',');
+		}
+		while (cursor.toNext());
+		assertEquals("id,name,tags,empty,nested,", keys.toString());
+
+		cursor.toParent();
+		assertTrue(cursor.toMember("nested"));
+		assertTrue(cursor.toMember("list"));
+		assertTrue(cursor.toElement(1));
+		assertTrue(cursor.toElement(1));
+		assertTrue(cursor.toElement(0));
+		assertEquals(3L, cursor.getLong());
+		assertEquals(5, cursor.getDepth());
+		assertThrows(IllegalStateException.class, () -> cursor.toFirst());
+	}
+
+//	@Disabled
+	@Test
+	void testNestedTape() {
+		JsonReader reader = new JsonReader("{\"skip\":[1,2], \"keep\":{\"a\":[true]}, \"after\":3}");
+
+		assertEquals(JsonToken.START_OBJECT, reader.nextToken());
+		assertEquals(JsonToken.KEY, reader.nextToken());
+		reader.skipValue();
+		assertEquals(JsonToken.KEY, reader.nextToken());
+		assertEquals("keep", reader.getString());
+		assertEquals(parser.parse("{\"a\":[true]}").getValue(), reader.readTape().getRoot().toJsonValue());
+		assertThrows(IllegalStateException.class, () -> reader.readTape()); /* a key is next */
+		assertEquals("after", reader.getString());
+		assertEquals(3L, reader.readTape().getRoot().getLong());
+		assertThrows(IllegalStateException.class, () -> reader.readTape()); /* the object ends */
+		assertEquals(JsonToken.END_DOCUMENT, reader.nextToken());
+	}
+
+//	@Disabled
+	@Test
+	void testExceptions() {
+		String[] contexts = {"", "[1,]", "{\"a\" 1}", "[1 2]", "nul", "1e309", "\"abc", "[1] 2", "{\"a\":1,}"};
+
+		for (String context : contexts) {
+			JsonParserException expected = assertThrows(JsonParserException.class, () -> parser.parse(context));
+
+			assertThrows(expected.getClass(), () -> new JsonReader(context).readTape());
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package pers.ericmonlye.jsonparser.parser;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Random;
+
+//import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import pers.ericmonlye.jsonparser.exception.*;
+
+class StructuralIndexTest {
+	JsonParser parser = new JsonParser();
+
+	/* The index computed byte by byte, without any bitmask. */
+	private ArrayList<Integer> expectedPositions(byte[] bytes) {
+		ArrayList<Integer> result = new ArrayList<Integer>();
+		boolean isInString = false;
+		boolean isEscaped = false;
+		boolean isAfterBoundary = true;
+
+		for (int pos = 0; pos < bytes.length; ++pos) {
+			byte ch = bytes[pos];
+
+			if (isInString) {
+				if (isEscaped) {
+					isEscaped = false;
+				}
+				else if (ch == '\\') {
+					isEscaped = true;
+				}
+				else if (ch == '\"') {
+					isInString = false;
+					isAfterBoundary = true; /* a closing quote ends a token */
+				}
+
+				continue;
+			}
+
+			boolean wasEscaped = isEscaped; /* a backslash outside strings only escapes quotes and backslashes */
+			isEscaped = false;
+			if (ch == '{' || ch == '}' || ch == '[' || ch == ']' || ch == ':' || ch == ',') {
+				result.add(pos);
+				isAfterBoundary = true;
+
+				continue;
+			}
+			if (ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r') {
+				isAfterBoundary = true;
+
+				continue;
+			}
+			if (ch == '\"' && !wasEscaped) {
+				result.add(pos);
+				isInString = true;
+
+				continue;
+			}
+			if (ch == '\\' && !wasEscaped) {
+				isEscaped = true;
+			}
+			if (isAfterBoundary) {
+				result.add(pos);
+			}
+			isAfterBoundary = false;
+		}
+
+		return result;
+	}
+	private void assertIndex(byte[] bytes) {
+		ArrayList<Integer> expected = expectedPositions(bytes);
+
+		for (JsonScanner scanner : new JsonScanner[] {JsonScanner.SCALAR, JsonScanner.VECTOR}) {
+			StructuralIndex index = StructuralScanner.of(scanner).scan(bytes, 0, bytes.length);
+			ArrayList<Integer> actual = new ArrayList<Integer>();
+
+			for (int entry = 0; entry < index.getCount(); ++entry) {
+				actual.add(index.getPosition(entry));
+			}
+			assertEquals(expected, actual, scanner.toString());
+		}
+	}
+	private void assertSameResult(String context) {
+		byte[] bytes = context.getBytes(StandardCharsets.UTF_8);
+		JsonValue expected = parser.setScanner(JsonScanner.NONE).parse(bytes).getValue();
+
+		assertEquals(expected, parser.setScanner(JsonScanner.SCALAR).parse(bytes).getValue());
+		assertEquals(expected, parser.setScanner(JsonScanner.VECTOR).parse(bytes).getValue());
+	}
+
+//	@Disabled
+	@Test
+	void testScanners() {
+		assertNull(StructuralScanner.of(JsonScanner.NONE));
+		assertEquals("VectorStructuralScanner", StructuralScanner.of(JsonScanner.VECTOR).getClass().getSimpleName());
+	}
+
+//	@Disabled
+	@Test
+	void testIndex() {
+		assertIndex(new byte[0]);
+		assertIndex("{\"a\": [1, -2.5e3, true, null], \"b\" : \"x\\\\\\\"y\"}".getBytes(StandardCharsets.UTF_8));
+		assertIndex("  \"\\\\\" 12 \"é\"x".getBytes(StandardCharsets.UTF_8));
+
+		/* escapes, strings and scalars across block boundaries */
+		Random random = new Random(20240415);
+		byte[] alphabet = "  \t\n\r\"\\{}[]:,01a-é".getBytes(StandardCharsets.UTF_8);
+		for (int count = 0; count < 2000; ++count) {
+			byte[] bytes = new byte[random.nextInt(300)];
+
+			for (int pos = 0; pos < bytes.length; ++pos) {
+				bytes[pos] = alphabet[random.nextInt(alphabet.length)];
+			}
+			assertIndex(bytes);
+		}
+	}
+
+//	@Disabled
+	@Test
+	void testLookups() {
+		StringBuilder elements = new StringBuilder("[");
+		for (int count = 0; count < 2000; ++count) {
+			elements.append(count == 0 ? "" : ", ").append("{\"a\":").append(count).append("}");
+		}
+		byte[] bytes = elements.append("]").toString().getBytes(StandardCharsets.UTF_8);
+		StructuralIndex index = StructuralScanner.of(JsonScanner.SCALAR).scan(bytes, 0, bytes.length);
+		
+		/* Lookups far ahead, backwards and close after the last one give the same positions. */
+		Random random = new Random(15);
+		StructuralIndex lookups = index.duplicate();
+		for (int count = 0; count < 5000; ++count) {
+			long pos = random.nextInt(bytes.length);
+			long expected = bytes.length;
+			
+			for (int entry = index.getCount() - 1; entry >= 0 && index.getPosition(entry) > pos; --entry) {
+				expected = index.getPosition(entry);
+			}
+			assertEquals(expected, lookups.next(pos));
+			assertEquals(lookups.next(expected), index.duplicate().next(expected));
+		}
+	}
+
+//	@Disabled
+	@Test
+	void testParse() {
+		StringBuilder pretty = new StringBuilder("{\n");
+		for (int count = 0; count < 200; ++count) {
+			pretty.append("    \"key").append(count).append("\" :   [ ")
+					.append(count).append(" ,\t\"v\\\\\\/al\\n").append("x".repeat(count % 70))
+					.append("\" , { \"k\" : null } ,\r\n true ],\n");
+		}
+		pretty.append("    \"last\"  :  \"\"\n}\n   ");
+
+		assertSameResult(pretty.toString());
+		assertSameResult("  [ 1 , 2 ]  ");
+		assertSameResult("\t\"é\" ");
+
+		/* the same exceptions */
+		String[] contexts = {"  ", "[1,  ]", "{\"a\"   1}", "[1    2]", "[1] \n 2", "  \"abc  "};
+		for (String context : contexts) {
+			byte[] bytes = context.getBytes(StandardCharsets.UTF_8);
+			JsonParserException expected = assertThrows(JsonParserException.class, 
+					() -> parser.setScanner(JsonScanner.NONE).parse(bytes));
+
+			assertThrows(expected.getClass(), () -> parser.setScanner(JsonScanner.VECTOR).parse(bytes));
+			assertThrows(expected.getClass(), () -> new JsonReader(bytes).setScanner(JsonScanner.SCALAR).readTape());
+		}
+	}
+}